@@ -1,6 +1,7 @@
 package birds;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -22,6 +23,8 @@ public abstract class Bird {
     private final boolean extinct;
     private final int numberOfWings;
     private final List<Food> preferredFood;
+    private final short foodMask;
+    private final int packedFood;
 
     /**
      * Constructs a Bird with the specified attributes.
@@ -35,7 +38,7 @@ public abstract class Bird {
      * @throws IllegalArgumentException if type is null, definingCharacteristic is
      *                                  null or empty,
      *                                  numberOfWings is negative, preferredFood is
-     *                                  null,
+     *                                  null or contains null,
      *                                  or preferredFood doesn't contain 2-4 items
      */
     public Bird(BirdType type, String definingCharacteristic, boolean extinct,
@@ -55,12 +58,21 @@ public abstract class Bird {
         if (preferredFood.size() < 2 || preferredFood.size() > 4) {
             throw new IllegalArgumentException("Birds must have 2-4 preferred food items");
         }
+        // Not contains(null): immutable lists such as List.of() throw on it
+        for (Food food : preferredFood) {
+            if (food == null) {
+                throw new IllegalArgumentException("Preferred food list cannot contain null");
+            }
+        }
 
         this.type = type;
         this.definingCharacteristic = definingCharacteristic;
         this.extinct = extinct;
         this.numberOfWings = numberOfWings;
-        this.preferredFood = new ArrayList<>(preferredFood); // Defensive copy
+        // Defensive copy, wrapped once so views can be handed out for free
+        this.preferredFood = Collections.unmodifiableList(new ArrayList<>(preferredFood));
+        this.foodMask = Food.maskOf(preferredFood);
+        this.packedFood = Food.pack(preferredFood);
     }
 
     /**
@@ -108,6 +120,69 @@ public abstract class Bird {
         return new ArrayList<>(preferredFood);
     }
 
+    /**
+     * Returns a read-only view of the preferred food list. Unlike
+     * {@link #getPreferredFood()}, no copy is made, so this is the accessor to
+     * use when only reading the list.
+     *
+     * @return an unmodifiable list of the preferred food items
+     */
+    public List<Food> getPreferredFoodView() {
+        return preferredFood;
+    }
+
+    /**
+     * Returns the bird's preferred foods as a bitmask with the
+     * {@link Food#bit()} of each food set. Order and repeats are not kept.
+     *
+     * @return the preferred food bitmask
+     */
+    public short getFoodMask() {
+        return foodMask;
+    }
+
+    /**
+     * Returns the bird's preferred foods in order, packed as described by
+     * {@link Food#pack(List)}.
+     *
+     * @return the packed preferred food list
+     */
+    public int getPackedFood() {
+        return packedFood;
+    }
+
+    /**
+     * Returns whether the specified food is one of the bird's preferred foods.
+     *
+     * @param food the food to check
+     * @return true if the bird prefers the food, false otherwise
+     */
+    public boolean prefersFood(Food food) {
+        return food != null && (foodMask & food.bit()) != 0;
+    }
+
+    /**
+     * Returns whether the bird prefers any of the foods in the specified
+     * bitmask.
+     *
+     * @param mask a bitmask of foods, as returned by {@link Food#maskOf}
+     * @return true if the bird prefers at least one of the foods, false
+     *         otherwise
+     */
+    public boolean prefersAnyFood(int mask) {
+        return (foodMask & mask) != 0;
+    }
+
+    /**
+     * Returns whether the bird prefers every food in the specified bitmask.
+     *
+     * @param mask a bitmask of foods, as returned by {@link Food#maskOf}
+     * @return true if the bird prefers all of the foods, false otherwise
+     */
+    public boolean prefersAllFoods(int mask) {
+        return (foodMask & mask) == mask;
+    }
+
     /**
      * Returns the classification name of this bird.
      * Each subclass must implement this to return its specific classification
@@ -157,11 +232,12 @@ public abstract class Bird {
                 && numberOfWings == bird.numberOfWings
                 && type == bird.type
                 && Objects.equals(definingCharacteristic, bird.definingCharacteristic)
-                && Objects.equals(preferredFood, bird.preferredFood);
+                // Same packed value means the same foods in the same order
+                && packedFood == bird.packedFood;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, definingCharacteristic, extinct, numberOfWings, preferredFood);
+        return Objects.hash(type, definingCharacteristic, extinct, numberOfWings, packedFood);
     }
 }
@@ -0,0 +1,424 @@
+package birds;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encodings of birds.
+ *
+ * <p>
+ * {@link #write(Bird, DataOutput)} and {@link #read(DataInput)} encode a single
+ * bird on its own, for records that must stand alone such as log entries. A
+ * bird is written as its concrete kind, {@link BirdType} ordinal, extinct
+ * flag, wing count and packed preferred food list (see {@link Food#pack(List)}),
+ * followed by its defining characteristic and, for parrots and water birds,
+ * their extra attributes.
+ * </p>
+ *
+ * <p>
+ * {@link Encoder} and {@link Decoder} encode a stream of birds to and from
+ * {@link ByteBuffer}s in a smaller, versioned format: the stream starts with a
+ * format version, numbers are varints, and each distinct string is written
+ * once and then referred to by a dictionary code. Reading a bird back from
+ * either encoding yields a bird of the same class that is equal to the one
+ * written.
+ * </p>
+ */
+public final class BirdCodec {
+    /**
+     * The version of the stream format written by {@link Encoder}.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final BirdType[] TYPES = BirdType.values();
+    private static final int STREAM_MAGIC = 0xB1;
+    private static final int EXTINCT_FLAG = 1;
+
+    private BirdCodec() {
+    }
+
+    /**
+     * Writes a bird to the specified output.
+     *
+     * @param bird the bird to write
+     * @param out  the output to write to
+     * @throws IOException              if the output cannot be written to
+     * @throws IllegalArgumentException if bird or out is null
+     */
+    public static void write(Bird bird, DataOutput out) throws IOException {
+        if (bird == null) {
+            throw new IllegalArgumentException("Bird cannot be null");
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("Output cannot be null");
+        }
+        BirdKind kind = BirdKind.of(bird);
+        out.writeByte(kind.ordinal());
+        out.writeByte(bird.getType().ordinal());
+        out.writeBoolean(bird.isExtinct());
+        out.writeInt(bird.getNumberOfWings());
+        out.writeInt(bird.getPackedFood());
+        out.writeUTF(bird.getDefiningCharacteristic());
+        if (kind == BirdKind.PARROT) {
+            Parrot parrot = (Parrot) bird;
+            out.writeByte(parrot.getVocabularySize());
+            out.writeUTF(parrot.getFavoriteSaying());
+        } else if (kind.isWaterBird()) {
+            out.writeUTF(((WaterBird) bird).getBodyOfWater());
+        }
+    }
+
+    /**
+     * Reads a bird written by {@link #write(Bird, DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return a new bird equal to the one written
+     * @throws IOException              if the input cannot be read or does not
+     *                                  hold a valid bird
+     * @throws IllegalArgumentException if in is null
+     */
+    public static Bird read(DataInput in) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("Input cannot be null");
+        }
+        try {
+            BirdKind kind = BirdKind.fromOrdinal(in.readUnsignedByte());
+            BirdType type = typeOf(in.readUnsignedByte());
+            boolean extinct = in.readBoolean();
+            int wings = in.readInt();
+            int packedFood = in.readInt();
+            String characteristic = in.readUTF();
+            int vocabulary = 0;
+            String text = null;
+            if (kind == BirdKind.PARROT) {
+                vocabulary = in.readUnsignedByte();
+                text = in.readUTF();
+            } else if (kind.isWaterBird()) {
+                text = in.readUTF();
+            }
+            return kind.create(type, characteristic, extinct, wings, unpack(packedFood), vocabulary, text);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Invalid bird record: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the bird type with the specified ordinal.
+     *
+     * @param ordinal the ordinal to look up
+     * @return the bird type
+     * @throws IllegalArgumentException if no type has the ordinal
+     */
+    static BirdType typeOf(int ordinal) {
+        if (ordinal < 0 || ordinal >= TYPES.length) {
+            throw new IllegalArgumentException("Unknown bird type: " + ordinal);
+        }
+        return TYPES[ordinal];
+    }
+
+    /**
+     * Unpacks a packed food list.
+     *
+     * @param packed a value returned by {@link Food#pack(List)}
+     * @return a new list of the packed foods, in order
+     */
+    static List<Food> unpack(int packed) {
+        List<Food> foods = new ArrayList<>(Food.packedSize(packed));
+        for (int i = 0; i < Food.packedSize(packed); i++) {
+            foods.add(Food.packedAt(packed, i));
+        }
+        return foods;
+    }
+
+    /**
+     * Encodes a stream of birds into byte buffers.
+     *
+     * <p>
+     * The first bird an encoder writes is preceded by a two-byte header naming
+     * the format version. Strings are written in full the first time they
+     * appear in the stream and as a dictionary code afterwards, so the birds
+     * must be decoded in order by a single {@link Decoder}. An encoder is not
+     * thread-safe.
+     * </p>
+     */
+    public static final class Encoder {
+        private final StringDictionary strings;
+        private boolean headerWritten;
+
+        /**
+         * Constructs an encoder for a new stream.
+         */
+        public Encoder() {
+            this.strings = new StringDictionary();
+        }
+
+        /**
+         * Encodes a bird at the buffer's position. If the buffer runs out of
+         * room, its position and this encoder are left as they were, so the
+         * bird can be encoded again once the buffer has been drained.
+         *
+         * @param bird the bird to encode
+         * @param out  the buffer to write to
+         * @throws IllegalArgumentException if bird or out is null
+         * @throws BufferOverflowException  if the bird does not fit in the
+         *                                  buffer's remaining space
+         */
+        public void encode(Bird bird, ByteBuffer out) {
+            if (bird == null) {
+                throw new IllegalArgumentException("Bird cannot be null");
+            }
+            if (out == null) {
+                throw new IllegalArgumentException("Output cannot be null");
+            }
+            int start = out.position();
+            int dictionarySize = strings.size();
+            try {
+                if (!headerWritten) {
+                    out.put((byte) STREAM_MAGIC);
+                    out.put((byte) FORMAT_VERSION);
+                }
+                BirdKind kind = BirdKind.of(bird);
+                out.put((byte) kind.ordinal());
+                out.put((byte) bird.getType().ordinal());
+                out.put((byte) (bird.isExtinct() ? EXTINCT_FLAG : 0));
+                putVarint(out, bird.getNumberOfWings());
+                putVarint(out, bird.getPackedFood());
+                putString(out, bird.getDefiningCharacteristic());
+                if (kind == BirdKind.PARROT) {
+                    Parrot parrot = (Parrot) bird;
+                    putVarint(out, parrot.getVocabularySize());
+                    putString(out, parrot.getFavoriteSaying());
+                } else if (kind.isWaterBird()) {
+                    putString(out, ((WaterBird) bird).getBodyOfWater());
+                }
+            } catch (BufferOverflowException e) {
+                out.position(start);
+                strings.truncate(dictionarySize);
+                throw e;
+            }
+            headerWritten = true;
+        }
+
+        private void putString(ByteBuffer out, String s) {
+            int code = strings.find(s);
+            if (code >= 0) {
+                putVarint(out, code + 1);
+                return;
+            }
+            strings.add(s);
+            out.put((byte) 0);
+            putVarint(out, utf8Length(s));
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    out.put((byte) c);
+                } else if (c < 0x800) {
+                    out.put((byte) (0xC0 | (c >> 6)));
+                    out.put((byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    out.put((byte) (0xF0 | (cp >> 18)));
+                    out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                    out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (cp & 0x3F)));
+                } else {
+                    out.put((byte) (0xE0 | (c >> 12)));
+                    out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+        }
+
+        private static int utf8Length(String s) {
+            int length = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    length += 1;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+
+        private static void putVarint(ByteBuffer out, int value) {
+            while ((value & ~0x7F) != 0) {
+                out.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.put((byte) value);
+        }
+    }
+
+    /**
+     * Decodes a stream of birds written by an {@link Encoder}.
+     *
+     * <p>
+     * Birds must be decoded in the order they were encoded. A decoder is not
+     * thread-safe.
+     * </p>
+     */
+    public static final class Decoder {
+        private final List<String> strings;
+        private char[] chars;
+        private boolean headerRead;
+
+        /**
+         * Constructs a decoder for a new stream.
+         */
+        public Decoder() {
+            this.strings = new ArrayList<>();
+            this.chars = new char[64];
+        }
+
+        /**
+         * Decodes the bird at the buffer's position. If the buffer ends partway
+         * through the bird, its position and this decoder are left as they were,
+         * so decoding can be retried once more bytes have arrived.
+         *
+         * @param in the buffer to read from
+         * @return a new bird equal to the one encoded
+         * @throws IllegalArgumentException if in is null, the stream's format
+         *                                  version is not supported, or the
+         *                                  bytes do not hold a valid bird
+         * @throws BufferUnderflowException if the buffer ends partway through
+         *                                  the bird
+         */
+        public Bird decode(ByteBuffer in) {
+            if (in == null) {
+                throw new IllegalArgumentException("Input cannot be null");
+            }
+            int start = in.position();
+            int dictionarySize = strings.size();
+            try {
+                if (!headerRead) {
+                    if ((in.get() & 0xFF) != STREAM_MAGIC) {
+                        throw new IllegalArgumentException("Not a bird stream");
+                    }
+                    int version = in.get() & 0xFF;
+                    if (version != FORMAT_VERSION) {
+                        throw new IllegalArgumentException("Unsupported bird stream version: " + version);
+                    }
+                }
+                BirdKind kind = BirdKind.fromOrdinal(in.get() & 0xFF);
+                BirdType type = typeOf(in.get() & 0xFF);
+                boolean extinct = (in.get() & EXTINCT_FLAG) != 0;
+                int wings = getVarint(in);
+                int packedFood = getVarint(in);
+                String characteristic = getString(in);
+                int vocabulary = 0;
+                String text = null;
+                if (kind == BirdKind.PARROT) {
+                    vocabulary = getVarint(in);
+                    text = getString(in);
+                } else if (kind.isWaterBird()) {
+                    text = getString(in);
+                }
+                Bird bird = kind.create(type, characteristic, extinct, wings, unpack(packedFood),
+                        vocabulary, text);
+                headerRead = true;
+                return bird;
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                in.position(start);
+                while (strings.size() > dictionarySize) {
+                    strings.remove(strings.size() - 1);
+                }
+                if (e instanceof BufferUnderflowException) {
+                    throw (BufferUnderflowException) e;
+                }
+                throw new IllegalArgumentException("Invalid bird record: " + e.getMessage(), e);
+            }
+        }
+
+        private String getString(ByteBuffer in) {
+            int code = getVarint(in);
+            if (code > 0) {
+                return strings.get(code - 1);
+            }
+            int length = getVarint(in);
+            if (length > in.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            int count = 0;
+            int end = in.position() + length;
+            while (in.position() < end) {
+                int b = in.get() & 0xFF;
+                if (b < 0x80) {
+                    chars[count++] = (char) b;
+                } else if (b >= 0xC2 && b < 0xE0) {
+                    chars[count++] = (char) (((b & 0x1F) << 6) | continuation(in, end));
+                } else if (b >= 0xE0 && b < 0xF0) {
+                    // Lone surrogates are written as three bytes too, so they are accepted
+                    int c = ((b & 0x0F) << 12) | (continuation(in, end) << 6) | continuation(in, end);
+                    if (c < 0x800) {
+                        throw new IllegalArgumentException("Overlong UTF-8 sequence");
+                    }
+                    chars[count++] = (char) c;
+                } else if (b >= 0xF0 && b < 0xF5) {
+                    int cp = ((b & 0x07) << 18) | (continuation(in, end) << 12)
+                            | (continuation(in, end) << 6) | continuation(in, end);
+                    if (cp < Character.MIN_SUPPLEMENTARY_CODE_POINT || cp > Character.MAX_CODE_POINT) {
+                        throw new IllegalArgumentException("Invalid UTF-8 code point: " + cp);
+                    }
+                    chars[count++] = Character.highSurrogate(cp);
+                    chars[count++] = Character.lowSurrogate(cp);
+                } else {
+                    throw new IllegalArgumentException("Invalid UTF-8 lead byte: 0x" + Integer.toHexString(b));
+                }
+            }
+            String s = new String(chars, 0, count);
+            strings.add(s);
+            return s;
+        }
+
+        /**
+         * Reads one UTF-8 continuation byte of a string ending at end.
+         *
+         * @return the byte's six payload bits
+         * @throws IllegalArgumentException if the string ends first or the
+         *                                  byte is not a continuation byte
+         */
+        private static int continuation(ByteBuffer in, int end) {
+            if (in.position() >= end) {
+                throw new IllegalArgumentException("Truncated UTF-8 sequence");
+            }
+            int b = in.get() & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                throw new IllegalArgumentException("Invalid UTF-8 continuation byte: 0x" + Integer.toHexString(b));
+            }
+            return b & 0x3F;
+        }
+
+        private static int getVarint(ByteBuffer in) {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = in.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (value < 0) {
+                        throw new IllegalArgumentException("Negative varint");
+                    }
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+    }
+}
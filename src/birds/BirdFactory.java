@@ -0,0 +1,67 @@
+package birds;
+
+import java.util.List;
+
+/**
+ * Creates birds of the right subclass for their {@link BirdType}, for callers
+ * such as importers that know a bird's type but not which class to build.
+ *
+ * <p>
+ * Each type is built as the subclass of its classification: hawks as
+ * {@link BirdOfPrey}, ducks as {@link Waterfowl}, and so on.
+ * </p>
+ */
+public final class BirdFactory {
+
+    private BirdFactory() {
+    }
+
+    /**
+     * Returns whether birds of the specified type are parrots, which need a
+     * vocabulary size and favorite saying.
+     *
+     * @param type the bird type
+     * @return true if the type is built as a {@link Parrot}, false otherwise
+     * @throws IllegalArgumentException if type is null
+     */
+    public static boolean isParrot(BirdType type) {
+        return BirdKind.forType(type).isParrot();
+    }
+
+    /**
+     * Returns whether birds of the specified type are water birds, which need
+     * a body of water.
+     *
+     * @param type the bird type
+     * @return true if the type is built as a {@link WaterBird}, false otherwise
+     * @throws IllegalArgumentException if type is null
+     */
+    public static boolean isWaterBird(BirdType type) {
+        return BirdKind.forType(type).isWaterBird();
+    }
+
+    /**
+     * Creates a bird of the subclass for its type. The parrot and water bird
+     * arguments are ignored by types that do not use them.
+     *
+     * @param type                   the specific type of bird
+     * @param definingCharacteristic the bird's defining characteristic
+     * @param extinct                whether the bird is extinct
+     * @param numberOfWings          the number of wings
+     * @param preferredFood          a list of 2-4 preferred food items
+     * @param vocabularySize         a parrot's vocabulary size
+     * @param favoriteSaying         a parrot's favorite saying
+     * @param bodyOfWater            a water bird's body of water
+     * @return a new bird
+     * @throws IllegalArgumentException if type is null or any attribute the
+     *                                  subclass needs is invalid
+     */
+    public static Bird create(BirdType type, String definingCharacteristic, boolean extinct,
+            int numberOfWings, List<Food> preferredFood, int vocabularySize,
+            String favoriteSaying, String bodyOfWater) {
+        BirdKind kind = BirdKind.forType(type);
+        String text = kind.isParrot() ? favoriteSaying : bodyOfWater;
+        return kind.create(type, definingCharacteristic, extinct, numberOfWings, preferredFood,
+                vocabularySize, text);
+    }
+}
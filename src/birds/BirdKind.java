@@ -0,0 +1,161 @@
+package birds;
+
+import java.util.List;
+
+/**
+ * The concrete {@link Bird} subclasses, used where a bird is stored as plain
+ * values and has to be rebuilt later.
+ *
+ * <p>
+ * A bird's kind is its Java class, not its {@link BirdType}: the subclass
+ * constructors do not restrict which types they accept, so both are kept.
+ * </p>
+ */
+enum BirdKind {
+    BIRD_OF_PREY("Birds of Prey"),
+    FLIGHTLESS_BIRD("Flightless Birds"),
+    OWL("Owls"),
+    PARROT("Parrots"),
+    PIGEON("Pigeons"),
+    SHOREBIRD("Shorebirds"),
+    WATERFOWL("Waterfowl");
+
+    private static final BirdKind[] VALUES = values();
+
+    private final String classification;
+
+    /**
+     * Constructs a BirdKind with the classification its birds report.
+     *
+     * @param classification the value of {@link Bird#getClassification()}
+     */
+    BirdKind(String classification) {
+        this.classification = classification;
+    }
+
+    /**
+     * Returns the classification reported by birds of this kind.
+     *
+     * @return the classification name
+     */
+    String getClassification() {
+        return classification;
+    }
+
+    /**
+     * Returns the kind with the specified ordinal.
+     *
+     * @param ordinal the ordinal to look up
+     * @return the kind
+     * @throws IllegalArgumentException if no kind has the ordinal
+     */
+    static BirdKind fromOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= VALUES.length) {
+            throw new IllegalArgumentException("Unknown bird kind: " + ordinal);
+        }
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Returns the kind of the specified bird.
+     *
+     * @param bird the bird to classify
+     * @return the bird's kind
+     * @throws IllegalArgumentException if bird is null or of an unknown subclass
+     */
+    static BirdKind of(Bird bird) {
+        if (bird instanceof BirdOfPrey) {
+            return BIRD_OF_PREY;
+        } else if (bird instanceof FlightlessBird) {
+            return FLIGHTLESS_BIRD;
+        } else if (bird instanceof Owl) {
+            return OWL;
+        } else if (bird instanceof Parrot) {
+            return PARROT;
+        } else if (bird instanceof Pigeon) {
+            return PIGEON;
+        } else if (bird instanceof Shorebird) {
+            return SHOREBIRD;
+        } else if (bird instanceof Waterfowl) {
+            return WATERFOWL;
+        }
+        throw new IllegalArgumentException("Unsupported bird: "
+                + (bird == null ? "null" : bird.getClass().getName()));
+    }
+
+    /**
+     * Returns the kind that birds of the specified type are normally created
+     * as, matched by classification.
+     *
+     * @param type the bird type
+     * @return the kind for the type
+     * @throws IllegalArgumentException if type is null
+     */
+    static BirdKind forType(BirdType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Bird type cannot be null");
+        }
+        for (BirdKind kind : VALUES) {
+            if (kind.classification.equals(type.getClassification())) {
+                return kind;
+            }
+        }
+        throw new AssertionError("No kind for " + type);
+    }
+
+    /**
+     * Returns whether birds of this kind are parrots.
+     *
+     * @return true for parrots, false otherwise
+     */
+    boolean isParrot() {
+        return this == PARROT;
+    }
+
+    /**
+     * Returns whether birds of this kind have a body of water.
+     *
+     * @return true for water birds, false otherwise
+     */
+    boolean isWaterBird() {
+        return this == SHOREBIRD || this == WATERFOWL;
+    }
+
+    /**
+     * Creates a bird of this kind. The parrot and water bird arguments are
+     * ignored by kinds that do not use them.
+     *
+     * @param type                   the specific type of bird
+     * @param definingCharacteristic the bird's defining characteristic
+     * @param extinct                whether the bird is extinct
+     * @param numberOfWings          the number of wings
+     * @param preferredFood          the preferred foods
+     * @param vocabularySize         a parrot's vocabulary size
+     * @param text                   a parrot's favorite saying or a water bird's
+     *                               body of water
+     * @return a new bird
+     * @throws IllegalArgumentException if any attribute is invalid for this kind
+     */
+    Bird create(BirdType type, String definingCharacteristic, boolean extinct,
+            int numberOfWings, List<Food> preferredFood, int vocabularySize, String text) {
+        switch (this) {
+            case BIRD_OF_PREY:
+                return new BirdOfPrey(type, definingCharacteristic, extinct, numberOfWings, preferredFood);
+            case FLIGHTLESS_BIRD:
+                return new FlightlessBird(type, definingCharacteristic, extinct, numberOfWings, preferredFood);
+            case OWL:
+                return new Owl(type, definingCharacteristic, extinct, numberOfWings, preferredFood);
+            case PARROT:
+                return new Parrot(type, definingCharacteristic, extinct, numberOfWings, preferredFood,
+                        vocabularySize, text);
+            case PIGEON:
+                return new Pigeon(type, definingCharacteristic, extinct, numberOfWings, preferredFood);
+            case SHOREBIRD:
+                return new Shorebird(type, definingCharacteristic, extinct, numberOfWings, preferredFood, text);
+            case WATERFOWL:
+                return new Waterfowl(type, definingCharacteristic, extinct, numberOfWings, preferredFood, text);
+            default:
+                throw new AssertionError(this);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package birds;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A compact, columnar store of bird records.
+ *
+ * <p>
+ * Each attribute is kept in its own column, a {@link ByteBuffer} that may be
+ * on the heap or allocated directly outside it, and a bird is a row number
+ * into every column. The columns hold the bird's kind, {@link BirdType}
+ * ordinal, extinct flag, parrot vocabulary size, wing count, packed food list
+ * and bitmask (see {@link Food#pack(List)}), dictionary codes for its
+ * strings, and an aviary slot. Scanning one attribute, such as every bird's
+ * type or food mask, reads only that column. Repeated strings such as
+ * characteristics and bodies of water are stored once, so a bird costs
+ * {@value #BYTES_PER_BIRD} bytes across the columns instead of a full object
+ * graph.
+ * </p>
+ *
+ * <p>
+ * Rows are read through the per-column getters, through a {@link BirdView}
+ * flyweight that can be moved from row to row without allocating, or turned
+ * back into a full {@link Bird} with {@link #toBird(int)}.
+ * </p>
+ *
+ * <p>
+ * A BirdStore is not thread-safe; callers sharing one across threads must
+ * synchronize access themselves.
+ * </p>
+ */
+public final class BirdStore {
+    /**
+     * The number of bytes each bird takes across all columns.
+     */
+    public static final int BYTES_PER_BIRD = 24;
+
+    /**
+     * The aviary slot of a bird that has not been placed.
+     */
+    public static final int NO_AVIARY = -1;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int NO_STRING = -1;
+    private static final BirdType[] TYPES = BirdType.values();
+
+    // Columns, and the bytes each takes per bird
+    private static final int KIND = 0;
+    private static final int TYPE = 1;
+    private static final int FLAGS = 2;
+    private static final int VOCABULARY = 3;
+    private static final int WINGS = 4;
+    private static final int PACKED_FOOD = 5;
+    private static final int FOOD_MASK = 6;
+    private static final int CHARACTERISTIC = 7;
+    private static final int TEXT = 8;
+    private static final int AVIARY = 9;
+    private static final int[] WIDTHS = {
+        Byte.BYTES, Byte.BYTES, Byte.BYTES, Byte.BYTES, Short.BYTES,
+        Integer.BYTES, Short.BYTES, Integer.BYTES, Integer.BYTES, Integer.BYTES
+    };
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE / Integer.BYTES;
+
+    private static final int EXTINCT_FLAG = 1;
+
+    private final boolean direct;
+    private final StringDictionary strings;
+    private final ByteBuffer[] columns;
+    private int capacity;
+    private int size;
+
+    /**
+     * Constructs an empty store on the heap.
+     */
+    public BirdStore() {
+        this(DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * Constructs an empty store with room for the specified number of birds
+     * before it has to grow.
+     *
+     * @param initialCapacity the number of birds to make room for
+     * @param direct          whether to keep the columns in direct buffers
+     *                        outside the Java heap
+     * @throws IllegalArgumentException if initialCapacity is not positive or
+     *                                  too large to address
+     */
+    public BirdStore(int initialCapacity, boolean direct) {
+        if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Initial capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        this.direct = direct;
+        this.strings = new StringDictionary();
+        this.columns = new ByteBuffer[WIDTHS.length];
+        for (int column = 0; column < WIDTHS.length; column++) {
+            columns[column] = allocate(initialCapacity * WIDTHS[column]);
+        }
+        this.capacity = initialCapacity;
+    }
+
+    private ByteBuffer allocate(int bytes) {
+        return direct ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+    }
+
+    /**
+     * Adds a bird to the store. The bird starts with no aviary slot.
+     *
+     * @param bird the bird to add
+     * @return the row the bird was stored in
+     * @throws IllegalArgumentException if bird is null or has more wings than
+     *                                  the store can hold
+     * @throws IllegalStateException    if the store is full
+     */
+    public int add(Bird bird) {
+        if (bird == null) {
+            throw new IllegalArgumentException("Bird cannot be null");
+        }
+        if (bird.getNumberOfWings() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Number of wings cannot exceed " + Short.MAX_VALUE);
+        }
+        BirdKind kind = BirdKind.of(bird);
+        ensureCapacity(size + 1);
+
+        int text = NO_STRING;
+        int vocabulary = 0;
+        if (kind == BirdKind.PARROT) {
+            Parrot parrot = (Parrot) bird;
+            text = strings.encode(parrot.getFavoriteSaying());
+            vocabulary = parrot.getVocabularySize();
+        } else if (kind.isWaterBird()) {
+            text = strings.encode(((WaterBird) bird).getBodyOfWater());
+        }
+
+        int row = size;
+        columns[KIND].put(row, (byte) kind.ordinal());
+        columns[TYPE].put(row, (byte) bird.getType().ordinal());
+        columns[FLAGS].put(row, (byte) (bird.isExtinct() ? EXTINCT_FLAG : 0));
+        columns[VOCABULARY].put(row, (byte) vocabulary);
+        columns[WINGS].putShort(row * Short.BYTES, (short) bird.getNumberOfWings());
+        columns[PACKED_FOOD].putInt(row * Integer.BYTES, bird.getPackedFood());
+        columns[FOOD_MASK].putShort(row * Short.BYTES, bird.getFoodMask());
+        columns[CHARACTERISTIC].putInt(row * Integer.BYTES, strings.encode(bird.getDefiningCharacteristic()));
+        columns[TEXT].putInt(row * Integer.BYTES, text);
+        columns[AVIARY].putInt(row * Integer.BYTES, NO_AVIARY);
+        size++;
+        return row;
+    }
+
+    private void ensureCapacity(int rowCount) {
+        if (rowCount <= capacity) {
+            return;
+        }
+        if (rowCount > MAX_CAPACITY) {
+            throw new IllegalStateException("Bird store is full");
+        }
+        int newCapacity = (int) Math.min(MAX_CAPACITY, Math.max(rowCount, 2L * capacity));
+        for (int column = 0; column < WIDTHS.length; column++) {
+            ByteBuffer grown = allocate(newCapacity * WIDTHS[column]);
+            ByteBuffer used = columns[column].duplicate();
+            used.position(0).limit(size * WIDTHS[column]);
+            grown.put(used);
+            grown.clear();
+            columns[column] = grown;
+        }
+        capacity = newCapacity;
+    }
+
+    /**
+     * Returns the number of birds in the store.
+     *
+     * @return the number of birds
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the columns are kept outside the Java heap.
+     *
+     * @return true if the store uses direct buffers, false otherwise
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Returns the number of bytes currently reserved for the columns.
+     *
+     * @return the column storage size in bytes
+     */
+    public long getStorageBytes() {
+        return (long) capacity * BYTES_PER_BIRD;
+    }
+
+    /**
+     * Returns the number of distinct strings the store holds.
+     *
+     * @return the number of distinct strings
+     */
+    public int getDistinctStringCount() {
+        return strings.size();
+    }
+
+    private int check(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+        return row;
+    }
+
+    private BirdKind kind(int row) {
+        return BirdKind.fromOrdinal(columns[KIND].get(check(row)));
+    }
+
+    /**
+     * Returns the type of the bird in the specified row.
+     *
+     * @param row the row to read
+     * @return the bird type
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public BirdType getType(int row) {
+        return TYPES[columns[TYPE].get(check(row))];
+    }
+
+    /**
+     * Returns the classification of the bird in the specified row.
+     *
+     * @param row the row to read
+     * @return the classification name
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public String getClassification(int row) {
+        return kind(row).getClassification();
+    }
+
+    /**
+     * Returns the defining characteristic of the bird in the specified row.
+     *
+     * @param row the row to read
+     * @return the defining characteristic
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public String getDefiningCharacteristic(int row) {
+        return strings.decode(columns[CHARACTERISTIC].getInt(check(row) * Integer.BYTES));
+    }
+
+    /**
+     * Returns whether the bird in the specified row is extinct.
+     *
+     * @param row the row to read
+     * @return true if the bird is extinct, false otherwise
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public boolean isExtinct(int row) {
+        return (columns[FLAGS].get(check(row)) & EXTINCT_FLAG) != 0;
+    }
+
+    /**
+     * Returns the number of wings of the bird in the specified row.
+     *
+     * @param row the row to read
+     * @return the number of wings
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public int getNumberOfWings(int row) {
+        return columns[WINGS].getShort(check(row) * Short.BYTES);
+    }
+
+    /**
+     * Returns the preferred food bitmask of the bird in the specified row.
+     *
+     * @param row the row to read
+     * @return the food bitmask, as returned by {@link Bird#getFoodMask()}
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public short getFoodMask(int row) {
+        return columns[FOOD_MASK].getShort(check(row) * Short.BYTES);
+    }
+
+    /**
+     * Returns the packed preferred food list of the bird in the specified row.
+     *
+     * @param row the row to read
+     * @return the packed food list, as returned by {@link Bird#getPackedFood()}
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public int getPackedFood(int row) {
+        return columns[PACKED_FOOD].getInt(check(row) * Integer.BYTES);
+    }
+
+    /**
+     * Returns the vocabulary size of the parrot in the specified row.
+     *
+     * @param row the row to read
+     * @return the vocabulary size, or 0 if the bird is not a parrot
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public int getVocabularySize(int row) {
+        return columns[VOCABULARY].get(check(row));
+    }
+
+    /**
+     * Returns the favorite saying of the parrot in the specified row.
+     *
+     * @param row the row to read
+     * @return the favorite saying, or null if the bird is not a parrot
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public String getFavoriteSaying(int row) {
+        return kind(row) == BirdKind.PARROT ? text(row) : null;
+    }
+
+    /**
+     * Returns the body of water of the water bird in the specified row.
+     *
+     * @param row the row to read
+     * @return the body of water, or null if the bird is not a water bird
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public String getBodyOfWater(int row) {
+        return kind(row).isWaterBird() ? text(row) : null;
+    }
+
+    private String text(int row) {
+        return strings.decode(columns[TEXT].getInt(check(row) * Integer.BYTES));
+    }
+
+    /**
+     * Returns the aviary slot recorded for the bird in the specified row.
+     *
+     * @param row the row to read
+     * @return the aviary slot, or {@value #NO_AVIARY} if none is recorded
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public int getAviarySlot(int row) {
+        return columns[AVIARY].getInt(check(row) * Integer.BYTES);
+    }
+
+    /**
+     * Records the aviary slot of the bird in the specified row.
+     *
+     * @param row  the row to update
+     * @param slot the aviary slot, or {@value #NO_AVIARY} to clear it
+     * @throws IndexOutOfBoundsException if row is not in the store
+     * @throws IllegalArgumentException  if slot is negative and not
+     *                                   {@value #NO_AVIARY}
+     */
+    public void setAviarySlot(int row, int slot) {
+        if (slot < NO_AVIARY) {
+            throw new IllegalArgumentException("Aviary slot cannot be negative");
+        }
+        columns[AVIARY].putInt(check(row) * Integer.BYTES, slot);
+    }
+
+    /**
+     * Returns the preferred foods of the bird in the specified row, in order.
+     *
+     * @param row the row to read
+     * @return a new list of the preferred foods
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public List<Food> getPreferredFood(int row) {
+        return BirdCodec.unpack(getPackedFood(row));
+    }
+
+    /**
+     * Rebuilds the full bird stored in the specified row. The new bird is
+     * equal to the bird that was added.
+     *
+     * @param row the row to read
+     * @return a new bird
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public Bird toBird(int row) {
+        BirdKind kind = kind(row);
+        String text = kind == BirdKind.PARROT || kind.isWaterBird() ? text(row) : null;
+        return kind.create(getType(row), getDefiningCharacteristic(row), isExtinct(row),
+                getNumberOfWings(row), getPreferredFood(row), getVocabularySize(row), text);
+    }
+
+    /**
+     * Returns a flyweight view positioned on the specified row. The view can
+     * be moved to other rows with {@link BirdView#moveTo(int)}.
+     *
+     * @param row the row to view
+     * @return a new view of the row
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public BirdView view(int row) {
+        check(row);
+        return new BirdView(this, row);
+    }
+}
@@ -0,0 +1,187 @@
+package birds;
+
+import java.util.List;
+
+/**
+ * A flyweight, read-only view of one row of a {@link BirdStore}.
+ *
+ * <p>
+ * A view answers the same questions as a {@link Bird} by reading the store's
+ * columns directly, so scanning a store with a single view allocates nothing
+ * per bird. {@link #moveTo(int)} repositions the view; {@link #toBird()}
+ * rebuilds a full bird when one is needed.
+ * </p>
+ */
+public final class BirdView {
+    private final BirdStore store;
+    private int row;
+
+    /**
+     * Constructs a view of the specified row.
+     *
+     * @param store the store to read
+     * @param row   the row to view
+     */
+    BirdView(BirdStore store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+
+    /**
+     * Moves this view to another row of the same store.
+     *
+     * @param row the row to view
+     * @return this view
+     * @throws IndexOutOfBoundsException if row is not in the store
+     */
+    public BirdView moveTo(int row) {
+        if (row < 0 || row >= store.size()) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + store.size());
+        }
+        this.row = row;
+        return this;
+    }
+
+    /**
+     * Returns the row this view is positioned on.
+     *
+     * @return the row
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Returns the type of the viewed bird.
+     *
+     * @return the bird type
+     */
+    public BirdType getType() {
+        return store.getType(row);
+    }
+
+    /**
+     * Returns the classification of the viewed bird.
+     *
+     * @return the classification name
+     */
+    public String getClassification() {
+        return store.getClassification(row);
+    }
+
+    /**
+     * Returns the defining characteristic of the viewed bird.
+     *
+     * @return the defining characteristic
+     */
+    public String getDefiningCharacteristic() {
+        return store.getDefiningCharacteristic(row);
+    }
+
+    /**
+     * Returns whether the viewed bird is extinct.
+     *
+     * @return true if the bird is extinct, false otherwise
+     */
+    public boolean isExtinct() {
+        return store.isExtinct(row);
+    }
+
+    /**
+     * Returns the number of wings of the viewed bird.
+     *
+     * @return the number of wings
+     */
+    public int getNumberOfWings() {
+        return store.getNumberOfWings(row);
+    }
+
+    /**
+     * Returns the preferred food bitmask of the viewed bird.
+     *
+     * @return the food bitmask
+     */
+    public short getFoodMask() {
+        return store.getFoodMask(row);
+    }
+
+    /**
+     * Returns the packed preferred food list of the viewed bird.
+     *
+     * @return the packed food list
+     */
+    public int getPackedFood() {
+        return store.getPackedFood(row);
+    }
+
+    /**
+     * Returns whether the specified food is one of the viewed bird's
+     * preferred foods.
+     *
+     * @param food the food to check
+     * @return true if the bird prefers the food, false otherwise
+     */
+    public boolean prefersFood(Food food) {
+        return food != null && (getFoodMask() & food.bit()) != 0;
+    }
+
+    /**
+     * Returns the preferred foods of the viewed bird, in order.
+     *
+     * @return a new list of the preferred foods
+     */
+    public List<Food> getPreferredFood() {
+        return store.getPreferredFood(row);
+    }
+
+    /**
+     * Returns the vocabulary size of the viewed bird.
+     *
+     * @return the vocabulary size, or 0 if the bird is not a parrot
+     */
+    public int getVocabularySize() {
+        return store.getVocabularySize(row);
+    }
+
+    /**
+     * Returns the favorite saying of the viewed bird.
+     *
+     * @return the favorite saying, or null if the bird is not a parrot
+     */
+    public String getFavoriteSaying() {
+        return store.getFavoriteSaying(row);
+    }
+
+    /**
+     * Returns the body of water of the viewed bird.
+     *
+     * @return the body of water, or null if the bird is not a water bird
+     */
+    public String getBodyOfWater() {
+        return store.getBodyOfWater(row);
+    }
+
+    /**
+     * Returns the aviary slot recorded for the viewed bird.
+     *
+     * @return the aviary slot, or {@value BirdStore#NO_AVIARY} if none is
+     *         recorded
+     */
+    public int getAviarySlot() {
+        return store.getAviarySlot(row);
+    }
+
+    /**
+     * Rebuilds the full bird this view is positioned on.
+     *
+     * @return a new bird
+     */
+    public Bird toBird() {
+        return store.toBird(row);
+    }
+
+    @Override
+    public String toString() {
+        return "BirdView{row=" + row + ", type=" + getType() + "}";
+    }
+}
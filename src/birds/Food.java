@@ -1,8 +1,17 @@
 package birds;
 
+import java.util.EnumSet;
+import java.util.List;
+
 /**
  * Represents the types of food that birds can eat.
  * Each bird has a preferred diet consisting of 2-4 items from this list.
+ *
+ * <p>
+ * There are few enough foods that a set of them fits in a {@code short}
+ * bitmask with one bit per {@link #ordinal()}, and an ordered list of up to
+ * four of them packs into an {@code int}; see {@link #pack(List)}.
+ * </p>
  */
 public enum Food {
   BERRIES("berries"),
@@ -19,6 +28,17 @@ public enum Food {
   NUTS("nuts"),
   VEGETATION("vegetation");
 
+  /**
+   * The largest number of foods {@link #pack(List)} can hold.
+   */
+  public static final int MAX_PACKED = 4;
+
+  private static final Food[] VALUES = values();
+  private static final int COUNT_BITS = 3;
+  private static final int FOOD_BITS = 4;
+  private static final int FOOD_MASK = (1 << FOOD_BITS) - 1;
+  private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+
   private final String displayName;
 
   /**
@@ -39,6 +59,105 @@ public enum Food {
     return displayName;
   }
 
+  /**
+   * Returns the bit that stands for this food in a food bitmask.
+   *
+   * @return {@code 1 << ordinal()}
+   */
+  public int bit() {
+    return 1 << ordinal();
+  }
+
+  /**
+   * Returns the bitmask of the specified foods.
+   *
+   * @param foods the foods to include
+   * @return a bitmask with the bit of each food set
+   * @throws IllegalArgumentException if foods is null or contains null
+   */
+  public static short maskOf(Iterable<Food> foods) {
+    if (foods == null) {
+      throw new IllegalArgumentException("Foods cannot be null");
+    }
+    int mask = 0;
+    for (Food food : foods) {
+      if (food == null) {
+        throw new IllegalArgumentException("Foods cannot contain null");
+      }
+      mask |= food.bit();
+    }
+    return (short) mask;
+  }
+
+  /**
+   * Returns the set of foods whose bits are set in the specified bitmask.
+   *
+   * @param mask the bitmask to decode
+   * @return a new set of the foods in the mask
+   */
+  public static EnumSet<Food> fromMask(int mask) {
+    EnumSet<Food> foods = EnumSet.noneOf(Food.class);
+    for (int bits = mask & ((1 << VALUES.length) - 1); bits != 0; bits &= bits - 1) {
+      foods.add(VALUES[Integer.numberOfTrailingZeros(bits)]);
+    }
+    return foods;
+  }
+
+  /**
+   * Packs an ordered list of up to {@value #MAX_PACKED} foods into an int.
+   * The low three bits hold the number of foods and each food's ordinal
+   * follows in four bits, first food lowest. Two lists pack to the same int
+   * exactly when they hold the same foods in the same order.
+   *
+   * @param foods the foods to pack, in order
+   * @return the packed foods
+   * @throws IllegalArgumentException if foods is null, contains null, or holds
+   *                                  more than {@value #MAX_PACKED} foods
+   */
+  public static int pack(List<Food> foods) {
+    if (foods == null) {
+      throw new IllegalArgumentException("Foods cannot be null");
+    }
+    if (foods.size() > MAX_PACKED) {
+      throw new IllegalArgumentException("At most " + MAX_PACKED + " foods can be packed");
+    }
+    int packed = foods.size();
+    for (int i = 0; i < foods.size(); i++) {
+      Food food = foods.get(i);
+      if (food == null) {
+        throw new IllegalArgumentException("Foods cannot contain null");
+      }
+      packed |= food.ordinal() << (COUNT_BITS + i * FOOD_BITS);
+    }
+    return packed;
+  }
+
+  /**
+   * Returns the number of foods in a packed list.
+   *
+   * @param packed a value returned by {@link #pack(List)}
+   * @return the number of foods
+   */
+  public static int packedSize(int packed) {
+    return packed & COUNT_MASK;
+  }
+
+  /**
+   * Returns the food at the specified position of a packed list.
+   *
+   * @param packed a value returned by {@link #pack(List)}
+   * @param index  the position of the food
+   * @return the food at that position
+   * @throws IndexOutOfBoundsException if index is not less than the number of
+   *                                   packed foods
+   */
+  public static Food packedAt(int packed, int index) {
+    if (index < 0 || index >= packedSize(packed)) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + packedSize(packed));
+    }
+    return VALUES[(packed >>> (COUNT_BITS + index * FOOD_BITS)) & FOOD_MASK];
+  }
+
   @Override
   public String toString() {
     return displayName;
@@ -0,0 +1,90 @@
+package birds;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns each distinct string a small integer code, so that repeated text
+ * such as characteristics and bodies of water is stored once.
+ */
+final class StringDictionary {
+    private final Map<String, Integer> codes;
+    private final List<String> strings;
+
+    /**
+     * Constructs an empty dictionary.
+     */
+    StringDictionary() {
+        this.codes = new HashMap<>();
+        this.strings = new ArrayList<>();
+    }
+
+    /**
+     * Returns the code of the specified string, adding it if it is new.
+     *
+     * @param s the string to encode
+     * @return the string's code
+     */
+    int encode(String s) {
+        Integer code = codes.get(s);
+        return code == null ? add(s) : code;
+    }
+
+    /**
+     * Returns the string with the specified code.
+     *
+     * @param code a code returned by {@link #encode(String)}
+     * @return the string
+     * @throws IndexOutOfBoundsException if no string has the code
+     */
+    String decode(int code) {
+        return strings.get(code);
+    }
+
+    /**
+     * Returns the number of distinct strings.
+     *
+     * @return the number of strings
+     */
+    int size() {
+        return strings.size();
+    }
+
+    /**
+     * Returns the code of the specified string without adding it.
+     *
+     * @param s the string to look up
+     * @return the string's code, or -1 if it has not been added
+     */
+    int find(String s) {
+        Integer code = codes.get(s);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Adds a string that is known not to be in the dictionary yet.
+     *
+     * @param s the string to add
+     * @return the string's code
+     */
+    int add(String s) {
+        int code = strings.size();
+        codes.put(s, code);
+        strings.add(s);
+        return code;
+    }
+
+    /**
+     * Removes every string added after the dictionary held the specified
+     * number of strings.
+     *
+     * @param size the number of strings to keep
+     */
+    void truncate(int size) {
+        while (strings.size() > size) {
+            codes.remove(strings.remove(strings.size() - 1));
+        }
+    }
+}
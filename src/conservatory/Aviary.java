@@ -1,45 +1,104 @@
 package conservatory;
 
 import birds.Bird;
-import birds.BirdOfPrey;
-import birds.FlightlessBird;
-import birds.Waterfowl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Represents an aviary in the conservatory that houses birds.
- * An aviary has a maximum capacity of 5 birds and enforces mixing rules:
+ * An aviary has a maximum capacity (5 birds unless configured otherwise) and
+ * enforces mixing rules:
  * <ul>
  * <li>No extinct birds can be added</li>
- * <li>Birds of prey, flightless birds, and waterfowl cannot be mixed with other
- * types</li>
- * <li>Other bird types (owls, parrots, pigeons, shorebirds) can be mixed
- * together</li>
+ * <li>A bird can only join residents it may mix with under the aviary's
+ * {@link CompatibilityMatrix}; by default, birds of prey, flightless birds,
+ * and waterfowl cannot be mixed with other types, while owls, parrots,
+ * pigeons, and shorebirds can be mixed together</li>
  * </ul>
  */
 public class Aviary {
-    private static final int MAX_CAPACITY = 5;
+    /**
+     * The number of birds an aviary holds unless configured otherwise.
+     */
+    public static final int DEFAULT_CAPACITY = 5;
 
     private final int id;
-    private final String location;
+    private volatile String location;
+    private final int capacity;
+    private final CompatibilityMatrix rules;
     private final List<Bird> birds;
+    private final List<Bird> birdsView;
+    private volatile CompatibilityClass compatibilityClass;
+    private long mixable;
+    private AviaryListener listener;
+    private volatile long version;
+    private volatile RenderedSign sign;
 
     /**
-     * Constructs an empty Aviary with the specified ID and location.
+     * Constructs an empty Aviary with the specified ID and location and the
+     * default capacity of {@value #DEFAULT_CAPACITY} birds.
      *
      * @param id       the unique identifier for this aviary
      * @param location the physical location description of this aviary
      * @throws IllegalArgumentException if location is null or empty
      */
     public Aviary(int id, String location) {
+        this(id, location, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty Aviary with the specified ID, location, and
+     * capacity.
+     *
+     * @param id       the unique identifier for this aviary
+     * @param location the physical location description of this aviary
+     * @param capacity the maximum number of birds this aviary can hold
+     * @throws IllegalArgumentException if location is null or empty, or if
+     *                                  capacity is not positive
+     */
+    public Aviary(int id, String location, int capacity) {
+        this(id, location, capacity, CompatibilityMatrix.getDefault());
+    }
+
+    /**
+     * Constructs an empty Aviary with the specified ID, location, capacity,
+     * and mixing rules.
+     *
+     * @param id       the unique identifier for this aviary
+     * @param location the physical location description of this aviary
+     * @param capacity the maximum number of birds this aviary can hold
+     * @param rules    which bird types may share this aviary
+     * @throws IllegalArgumentException if location is null or empty, if
+     *                                  capacity is not positive, or if rules
+     *                                  is null
+     */
+    public Aviary(int id, String location, int capacity, CompatibilityMatrix rules) {
         if (location == null || location.trim().isEmpty()) {
             throw new IllegalArgumentException("Location cannot be null or empty");
         }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules cannot be null");
+        }
         this.id = id;
         this.location = location;
-        this.birds = new ArrayList<>();
+        this.capacity = capacity;
+        this.rules = rules;
+        this.mixable = -1L;
+        // Copy-on-write so readers always see a consistent list of residents
+        // while a writer is adding or removing birds; aviaries are small, so
+        // the copy on each change is cheap.
+        this.birds = new CopyOnWriteArrayList<>();
+        this.birdsView = Collections.unmodifiableList(birds);
     }
 
     /**
@@ -60,6 +119,30 @@ public class Aviary {
         return location;
     }
 
+    /**
+     * Moves this aviary to a new location, as when an emptied aviary is
+     * reused for birds of another classification.
+     *
+     * @param location the new location description
+     * @throws IllegalArgumentException if location is null or empty
+     */
+    void relocate(String location) {
+        if (location == null || location.trim().isEmpty()) {
+            throw new IllegalArgumentException("Location cannot be null or empty");
+        }
+        this.location = location;
+        version++;
+    }
+
+    /**
+     * Returns the maximum number of birds this aviary can hold.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
     /**
      * Returns a defensive copy of the list of birds in this aviary.
      *
@@ -69,6 +152,64 @@ public class Aviary {
         return new ArrayList<>(birds);
     }
 
+    /**
+     * Returns a read-only view of the birds in this aviary. No copy is made:
+     * the view reflects later additions and removals, and iterating it walks a
+     * consistent snapshot of the residents.
+     *
+     * @return an unmodifiable view of the birds in this aviary
+     */
+    public List<Bird> getBirdsView() {
+        return birdsView;
+    }
+
+    /**
+     * Performs the specified action for each bird in this aviary, without
+     * copying the list of residents.
+     *
+     * @param action the action to perform on each bird
+     * @throws IllegalArgumentException if action is null
+     */
+    public void forEachBird(Consumer<? super Bird> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        birds.forEach(action);
+    }
+
+    /**
+     * Registers the listener to notify when birds are added to or removed from
+     * this aviary.
+     * An aviary reports to at most one listener, normally the conservatory
+     * that owns it.
+     *
+     * @param listener the listener to notify, or null to stop notifying
+     */
+    void setListener(AviaryListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the number of birds housed in this aviary.
+     *
+     * @return the number of birds
+     */
+    public int getBirdCount() {
+        return birds.size();
+    }
+
+    /**
+     * Returns the modification version of this aviary. The version starts at
+     * zero and increases every time a bird is added or removed or the aviary
+     * is relocated, so two equal versions mean neither the residents nor the
+     * location have changed in between.
+     *
+     * @return the modification version
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Returns whether this aviary is empty.
      *
@@ -81,10 +222,11 @@ public class Aviary {
     /**
      * Returns whether this aviary is at maximum capacity.
      *
-     * @return true if 5 birds are housed, false otherwise
+     * @return true if the aviary holds as many birds as its capacity, false
+     *         otherwise
      */
     public boolean isFull() {
-        return birds.size() >= MAX_CAPACITY;
+        return birds.size() >= capacity;
     }
 
     /**
@@ -104,23 +246,21 @@ public class Aviary {
      * @return the classification string, or null if empty
      */
     public String getClassificationType() {
-        if (birds.isEmpty()) {
-            return null;
+        // Iterating reads a single snapshot, so this is safe alongside a writer
+        for (Bird bird : birds) {
+            return bird.getClassification();
         }
-        return birds.get(0).getClassification();
+        return null;
     }
 
     /**
-     * Determines if a bird is a "restricted" type that cannot be mixed with others.
-     * Birds of prey, flightless birds, and waterfowl are restricted.
+     * Returns the compatibility class of the birds currently housed in this
+     * aviary. Returns null if the aviary is empty.
      *
-     * @param bird the bird to check
-     * @return true if the bird is restricted, false otherwise
+     * @return the residents' compatibility class, or null if empty
      */
-    private boolean isRestrictedType(Bird bird) {
-        return bird instanceof BirdOfPrey
-                || bird instanceof FlightlessBird
-                || bird instanceof Waterfowl;
+    public CompatibilityClass getCompatibilityClass() {
+        return compatibilityClass;
     }
 
     /**
@@ -129,9 +269,9 @@ public class Aviary {
      * <ul>
      * <li>The bird is not extinct</li>
      * <li>The aviary is not full</li>
-     * <li>The aviary is empty, OR</li>
-     * <li>The bird is compatible with existing birds (same classification for
-     * restricted types, or both are non-restricted types)</li>
+     * <li>Every resident may mix with the bird under the aviary's
+     * {@link CompatibilityMatrix}, which is always true of an empty
+     * aviary</li>
      * </ul>
      *
      * @param bird the bird to check
@@ -152,27 +292,8 @@ public class Aviary {
             return false;
         }
 
-        // Any bird can be added to an empty aviary
-        if (isEmpty()) {
-            return true;
-        }
-
-        // Check compatibility with existing birds
-        Bird existingBird = birds.get(0);
-
-        // If the new bird is a restricted type
-        if (isRestrictedType(bird)) {
-            // It can only be with birds of the same classification
-            return bird.getClassification().equals(existingBird.getClassification());
-        }
-
-        // If existing birds are a restricted type, new bird cannot be added
-        if (isRestrictedType(existingBird)) {
-            return false;
-        }
-
-        // Both are non-restricted types, they can be mixed
-        return true;
+        // The types every resident may mix with; all types when empty
+        return (mixable & (1L << bird.getType().ordinal())) != 0;
     }
 
     /**
@@ -196,7 +317,44 @@ public class Aviary {
                 throw new IllegalStateException("Bird is incompatible with existing birds in this aviary");
             }
         }
+        if (birds.isEmpty()) {
+            compatibilityClass = CompatibilityClass.of(bird);
+        }
         birds.add(bird);
+        mixable &= rules.mixableWith(bird.getType());
+        version++;
+        if (listener != null) {
+            listener.birdAdded(this, bird);
+        }
+    }
+
+    /**
+     * Removes the specified bird from this aviary. Birds are matched by
+     * identity, so an equal-looking bird housed elsewhere is never affected.
+     *
+     * @param bird the bird to remove
+     * @return true if the bird was housed here and has been removed, false
+     *         otherwise
+     */
+    public boolean removeBird(Bird bird) {
+        for (int i = 0; i < birds.size(); i++) {
+            if (birds.get(i) == bird) {
+                birds.remove(i);
+                if (birds.isEmpty()) {
+                    compatibilityClass = null;
+                }
+                mixable = -1L;
+                for (Bird resident : birds) {
+                    mixable &= rules.mixableWith(resident.getType());
+                }
+                version++;
+                if (listener != null) {
+                    listener.birdRemoved(this, bird);
+                }
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -204,14 +362,77 @@ public class Aviary {
      * The sign includes information about each bird's type, characteristics,
      * and any interesting information specific to that bird type.
      *
+     * <p>
+     * The sign is rendered once and cached until the aviary next changes, so
+     * repeated calls return the same string without allocating.
+     * </p>
+     *
      * @return a formatted string representing the aviary sign
      */
     public String getSign() {
+        return renderedSign().text;
+    }
+
+    /**
+     * Writes this aviary's sign to the specified stream as UTF-8. The encoded
+     * bytes are cached alongside the sign text, so repeated writes of an
+     * unchanged aviary neither render nor encode anything.
+     *
+     * @param out the stream to write the sign to
+     * @throws IOException              if the stream cannot be written to
+     * @throws IllegalArgumentException if out is null
+     */
+    public void writeSign(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("Output cannot be null");
+        }
+        out.write(renderedSign().utf8);
+    }
+
+    /**
+     * Returns the cached sign if it is current, rendering and caching it
+     * otherwise.
+     *
+     * @return the current rendered sign
+     */
+    private RenderedSign renderedSign() {
+        // Read the version before the residents: if a bird is added or removed
+        // while rendering, the cached sign is tagged with the older version and
+        // is simply rendered again on the next call.
+        long current = version;
+        RenderedSign cached = sign;
+        if (cached != null && cached.version == current) {
+            return cached;
+        }
+        cached = new RenderedSign(current, renderSign());
+        sign = cached;
+        return cached;
+    }
+
+    /**
+     * Renders the sign text from the current residents.
+     *
+     * @return the sign text
+     */
+    private String renderSign() {
+        return renderSign(id, location, birds);
+    }
+
+    /**
+     * Renders the sign of an aviary from its residents, without checking
+     * whether they may share it.
+     *
+     * @param id       the aviary's id
+     * @param location the aviary's location
+     * @param birds    the aviary's residents
+     * @return the sign text
+     */
+    static String renderSign(int id, String location, List<Bird> birds) {
         StringBuilder sb = new StringBuilder();
         sb.append("=== Aviary ").append(id).append(" ===\n");
         sb.append("Location: ").append(location).append("\n\n");
 
-        if (isEmpty()) {
+        if (birds.isEmpty()) {
             sb.append("This aviary is currently empty.\n");
         } else {
             sb.append("Birds housed here:\n");
@@ -224,8 +445,23 @@ public class Aviary {
         return sb.toString();
     }
 
+    /**
+     * An aviary sign rendered at a particular version, as text and as UTF-8.
+     */
+    private static final class RenderedSign {
+        private final long version;
+        private final String text;
+        private final byte[] utf8;
+
+        RenderedSign(long version, String text) {
+            this.version = version;
+            this.text = text;
+            this.utf8 = text.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
     @Override
     public String toString() {
-        return "Aviary " + id + " (" + location + ") - " + birds.size() + "/" + MAX_CAPACITY + " birds";
+        return "Aviary " + id + " (" + location + ") - " + birds.size() + "/" + capacity + " birds";
     }
 }
@@ -0,0 +1,58 @@
+package conservatory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out aviary ids while enforcing a limit on the number of aviaries.
+ * Ids start at 1 and are never reused. The allocator is safe to share between
+ * the shards of a {@link ConcurrentConservatory}, which must all draw from the
+ * same id sequence and the same aviary budget.
+ */
+final class AviaryAllocator {
+    private final int maxAviaries;
+    private final AtomicInteger nextId;
+
+    /**
+     * Constructs an allocator for up to the specified number of aviaries.
+     *
+     * @param maxAviaries the maximum number of aviaries
+     */
+    AviaryAllocator(int maxAviaries) {
+        this.maxAviaries = maxAviaries;
+        this.nextId = new AtomicInteger(1);
+    }
+
+    /**
+     * Returns the maximum number of aviaries this allocator hands out.
+     *
+     * @return the maximum number of aviaries
+     */
+    int getMaxAviaries() {
+        return maxAviaries;
+    }
+
+    /**
+     * Reserves the next aviary id.
+     *
+     * @return the reserved id, or -1 if the aviary limit has been reached
+     */
+    int tryAllocate() {
+        int id = nextId.getAndUpdate(next -> next <= maxAviaries ? next + 1 : next);
+        return id <= maxAviaries ? id : -1;
+    }
+
+    /**
+     * Marks an id as already reserved, so that later allocations continue
+     * after it.
+     *
+     * @param id the id to mark as reserved
+     * @return true if the id is within the aviary limit, false otherwise
+     */
+    boolean restore(int id) {
+        if (id < 1 || id > maxAviaries) {
+            return false;
+        }
+        nextId.accumulateAndGet(id + 1, Math::max);
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package conservatory;
+
+import birds.Bird;
+
+/**
+ * Receives notifications when the residents of an {@link Aviary} change.
+ * The conservatory uses this to keep its indexes up to date no matter how a
+ * bird ends up in one of its aviaries.
+ */
+interface AviaryListener {
+
+    /**
+     * Called after a bird has been added to an aviary.
+     *
+     * @param aviary the aviary the bird was added to
+     * @param bird   the bird that was added
+     */
+    void birdAdded(Aviary aviary, Bird bird);
+
+    /**
+     * Called after a bird has been removed from an aviary.
+     *
+     * @param aviary the aviary the bird was removed from
+     * @param bird   the bird that was removed
+     */
+    void birdRemoved(Aviary aviary, Bird bird);
+}
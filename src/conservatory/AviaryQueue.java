@@ -0,0 +1,106 @@
+package conservatory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A first-in, first-out queue of aviaries in which each aviary appears at
+ * most once.
+ *
+ * <p>
+ * Aviaries are offered whenever they may have become useful and dropped
+ * lazily once they are found to be stale. Offering an aviary that is already
+ * queued does nothing, so the queue never holds more entries than there are
+ * aviaries, however often the same aviary changes.
+ * </p>
+ */
+final class AviaryQueue {
+    private final ArrayDeque<Aviary> queue;
+    private final Set<Aviary> queued;
+
+    /**
+     * Constructs an empty queue.
+     */
+    AviaryQueue() {
+        this.queue = new ArrayDeque<>();
+        this.queued = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Adds an aviary to the back of the queue unless it is already queued.
+     *
+     * @param aviary the aviary to queue
+     */
+    void offer(Aviary aviary) {
+        if (queued.add(aviary)) {
+            queue.addLast(aviary);
+        }
+    }
+
+    /**
+     * Returns the aviary at the head of the queue, first dropping stale
+     * aviaries from the head.
+     *
+     * @param stillValid whether an aviary still belongs in the queue
+     * @return the first valid aviary, or null if the queue has run out
+     */
+    Aviary head(Predicate<Aviary> stillValid) {
+        Aviary head = queue.peekFirst();
+        while (head != null && !stillValid.test(head)) {
+            queued.remove(queue.pollFirst());
+            head = queue.peekFirst();
+        }
+        return head;
+    }
+
+    /**
+     * Returns the first queued aviary that matches, without changing the
+     * queue.
+     *
+     * @param matches the condition to look for
+     * @return the first matching aviary, or null if there is none
+     */
+    Aviary find(Predicate<Aviary> matches) {
+        for (Aviary aviary : queue) {
+            if (matches.test(aviary)) {
+                return aviary;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drops every stale aviary, keeping the rest in their original order.
+     *
+     * @param stillValid whether an aviary still belongs in the queue
+     * @return a new list of the aviaries kept
+     */
+    List<Aviary> sweep(Predicate<Aviary> stillValid) {
+        List<Aviary> result = new ArrayList<>();
+        int size = queue.size();
+        for (int i = 0; i < size; i++) {
+            Aviary aviary = queue.pollFirst();
+            if (stillValid.test(aviary)) {
+                queue.addLast(aviary);
+                result.add(aviary);
+            } else {
+                queued.remove(aviary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of aviaries queued, stale ones included.
+     *
+     * @return the queue's length
+     */
+    int size() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,165 @@
+package conservatory;
+
+import birds.Bird;
+import birds.BirdType;
+import birds.Food;
+import birds.WaterBird;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bitmap indexes over every bird a conservatory has given an id, used to
+ * answer {@link BirdQuery queries}.
+ *
+ * <p>
+ * Each bird is a row numbered by its {@link BirdId}, and each indexed value
+ * (a type, a classification, a wing count, a food, a body of water, an
+ * aviary, and so on) has a {@link BitSet} with a bit set for every bird that
+ * has it. A query combines these bitmaps a word at a time instead of visiting
+ * birds. Birds never change, so only the aviary bitmaps are updated after a
+ * bird is added.
+ * </p>
+ */
+final class BirdBitmapIndex {
+    private static final BitSet EMPTY = new BitSet();
+
+    private final BitSet all;
+    private final BitSet extinct;
+    private final BitSet rescued;
+    private final BitSet placed;
+    private final BitSet[] byType;
+    private final BitSet[] byFood;
+    private final Map<String, BitSet> byClassification;
+    private final Map<Integer, BitSet> byWings;
+    private final Map<Integer, BitSet> byAviary;
+    private final Map<String, BitSet> byWater;
+    private Bird[] birds;
+
+    /**
+     * Constructs an empty index.
+     */
+    BirdBitmapIndex() {
+        this.all = new BitSet();
+        this.extinct = new BitSet();
+        this.rescued = new BitSet();
+        this.placed = new BitSet();
+        this.byType = newBitmaps(BirdType.values().length);
+        this.byFood = newBitmaps(Food.values().length);
+        this.byClassification = new HashMap<>();
+        this.byWings = new HashMap<>();
+        this.byAviary = new HashMap<>();
+        this.byWater = new HashMap<>();
+        this.birds = new Bird[64];
+    }
+
+    private static BitSet[] newBitmaps(int count) {
+        BitSet[] bitmaps = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new BitSet();
+        }
+        return bitmaps;
+    }
+
+    private static int row(BirdId id) {
+        return Math.toIntExact(id.getValue());
+    }
+
+    void add(BirdId id, Bird bird) {
+        int row = row(id);
+        if (row >= birds.length) {
+            birds = Arrays.copyOf(birds, Math.max(row + 1, birds.length * 2));
+        }
+        birds[row] = bird;
+        all.set(row);
+        if (bird.isExtinct()) {
+            extinct.set(row);
+        }
+        byType[bird.getType().ordinal()].set(row);
+        int mask = bird.getFoodMask();
+        for (Food food : Food.values()) {
+            if ((mask & food.bit()) != 0) {
+                byFood[food.ordinal()].set(row);
+            }
+        }
+        byClassification.computeIfAbsent(bird.getClassification(), key -> new BitSet()).set(row);
+        byWings.computeIfAbsent(bird.getNumberOfWings(), key -> new BitSet()).set(row);
+        if (bird instanceof WaterBird) {
+            String water = WaterBodyIndex.key(((WaterBird) bird).getBodyOfWater());
+            byWater.computeIfAbsent(water, key -> new BitSet()).set(row);
+        }
+    }
+
+    void rescue(BirdId id) {
+        rescued.set(row(id));
+    }
+
+    void place(BirdId id, Aviary aviary) {
+        int row = row(id);
+        placed.set(row);
+        byAviary.computeIfAbsent(aviary.getId(), key -> new BitSet()).set(row);
+    }
+
+    void remove(BirdId id, Aviary aviary) {
+        int row = row(id);
+        placed.clear(row);
+        BitSet residents = byAviary.get(aviary.getId());
+        if (residents != null) {
+            residents.clear(row);
+        }
+    }
+
+    // The bitmaps below are the index's own; callers must copy before changing.
+
+    BitSet all() {
+        return all;
+    }
+
+    BitSet extinct() {
+        return extinct;
+    }
+
+    BitSet rescued() {
+        return rescued;
+    }
+
+    BitSet placed() {
+        return placed;
+    }
+
+    BitSet type(BirdType type) {
+        return byType[type.ordinal()];
+    }
+
+    BitSet food(Food food) {
+        return byFood[food.ordinal()];
+    }
+
+    BitSet classification(String classification) {
+        return byClassification.getOrDefault(classification, EMPTY);
+    }
+
+    BitSet wings(int numberOfWings) {
+        return byWings.getOrDefault(numberOfWings, EMPTY);
+    }
+
+    BitSet water(String bodyOfWater) {
+        return byWater.getOrDefault(WaterBodyIndex.key(bodyOfWater), EMPTY);
+    }
+
+    BitSet aviary(int aviaryId) {
+        return byAviary.getOrDefault(aviaryId, EMPTY);
+    }
+
+    /**
+     * Returns the bird in the specified row.
+     *
+     * @param row a row with its bit set in {@link #all()}
+     * @return the bird
+     */
+    Bird bird(int row) {
+        return birds[row];
+    }
+}
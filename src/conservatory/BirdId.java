@@ -0,0 +1,64 @@
+package conservatory;
+
+/**
+ * A stable, cheap identifier for a bird that has been taken in by a
+ * conservatory.
+ *
+ * <p>
+ * Bird ids are assigned by the conservatory in increasing order starting at 1.
+ * Unlike {@link birds.Bird#equals(Object)}, which compares every attribute of
+ * a bird, two ids are compared by a single {@code long}, so they are suitable
+ * as keys in hash-based and sorted indexes.
+ * </p>
+ */
+public final class BirdId implements Comparable<BirdId> {
+    private final long value;
+
+    /**
+     * Constructs a BirdId with the specified numeric value.
+     *
+     * @param value the numeric value of the id
+     * @throws IllegalArgumentException if value is not positive
+     */
+    public BirdId(long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Bird id must be positive");
+        }
+        this.value = value;
+    }
+
+    /**
+     * Returns the numeric value of this id.
+     *
+     * @return the id value
+     */
+    public long getValue() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(BirdId other) {
+        return Long.compare(value, other.value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return value == ((BirdId) o).value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return "Bird #" + value;
+    }
+}
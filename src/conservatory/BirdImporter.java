@@ -0,0 +1,723 @@
+package conservatory;
+
+import birds.Bird;
+import birds.BirdFactory;
+import birds.BirdType;
+import birds.Food;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Imports rescued birds into a {@link Conservatory} from CSV or JSON-lines
+ * feeds.
+ *
+ * <p>
+ * Input is read one line at a time and birds are rescued, and optionally
+ * assigned to aviaries with {@link Conservatory#assignAll(java.util.Collection)},
+ * in batches. At most one line and one batch are held at once, so memory use
+ * does not grow with the size of the feed. A record that cannot be parsed or
+ * turned into a bird is reported in the {@link ImportReport} and skipped; the
+ * rest of the feed is still imported.
+ * </p>
+ *
+ * <p>
+ * Each record has these fields, matched case-insensitively:
+ * </p>
+ * <ul>
+ * <li>{@code type}: a {@link BirdType} name or display name, such as
+ * {@code GRAY_PARROT} or {@code Gray Parrot}</li>
+ * <li>{@code characteristic}: the bird's defining characteristic</li>
+ * <li>{@code extinct}: {@code true} or {@code false}; optional, defaulting to
+ * false</li>
+ * <li>{@code wings}: the number of wings</li>
+ * <li>{@code food}: 2-4 {@link Food} names or display names; a JSON array,
+ * or separated by semicolons in CSV</li>
+ * <li>{@code vocabulary} and {@code saying}: a parrot's vocabulary size and
+ * favorite saying; the saying is optional</li>
+ * <li>{@code water}: a water bird's body of water</li>
+ * </ul>
+ *
+ * <p>
+ * A CSV feed starts with a header line naming its columns; fields may be
+ * quoted with double quotes but may not span lines. If the header cannot be
+ * read, it is reported and the import stops, since no record can be read
+ * without it. A JSON-lines feed holds one flat JSON object per line. Blank
+ * lines are skipped in both.
+ * </p>
+ */
+public final class BirdImporter {
+    /**
+     * The number of birds rescued together unless configured otherwise.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * The longest line accepted unless configured otherwise.
+     */
+    public static final int DEFAULT_MAX_LINE_LENGTH = 64 * 1024;
+
+    /**
+     * The number of problems kept in a report unless configured otherwise.
+     */
+    public static final int DEFAULT_MAX_REPORTED_PROBLEMS = 100;
+
+    /**
+     * The formats a feed can be in.
+     */
+    public enum Format {
+        /**
+         * Comma-separated values with a header line.
+         */
+        CSV,
+
+        /**
+         * One JSON object per line.
+         */
+        JSON_LINES
+    }
+
+    private static final Map<String, BirdType> TYPES = new HashMap<>();
+    private static final Map<String, Food> FOODS = new HashMap<>();
+
+    static {
+        for (BirdType type : BirdType.values()) {
+            TYPES.put(normalize(type.name()), type);
+            TYPES.put(normalize(type.getDisplayName()), type);
+        }
+        for (Food food : Food.values()) {
+            FOODS.put(normalize(food.name()), food);
+            FOODS.put(normalize(food.getDisplayName()), food);
+        }
+    }
+
+    private final Conservatory conservatory;
+    private final boolean assign;
+    private final int batchSize;
+    private final int maxLineLength;
+    private final int maxReportedProblems;
+
+    /**
+     * Constructs an importer with the default batch size and limits.
+     *
+     * @param conservatory the conservatory to import into
+     * @param assign       whether to assign imported birds to aviaries as well
+     *                     as rescue them
+     * @throws IllegalArgumentException if conservatory is null
+     */
+    public BirdImporter(Conservatory conservatory, boolean assign) {
+        this(conservatory, assign, DEFAULT_BATCH_SIZE, DEFAULT_MAX_LINE_LENGTH,
+                DEFAULT_MAX_REPORTED_PROBLEMS);
+    }
+
+    /**
+     * Constructs an importer with the specified batch size and limits.
+     *
+     * @param conservatory        the conservatory to import into
+     * @param assign              whether to assign imported birds to aviaries
+     *                            as well as rescue them
+     * @param batchSize           the number of birds to rescue and assign
+     *                            together
+     * @param maxLineLength       the longest line to accept; longer lines are
+     *                            reported and skipped
+     * @param maxReportedProblems the number of problems to keep in a report
+     * @throws IllegalArgumentException if conservatory is null, batchSize or
+     *                                  maxLineLength is not positive, or
+     *                                  maxReportedProblems is negative
+     */
+    public BirdImporter(Conservatory conservatory, boolean assign, int batchSize,
+            int maxLineLength, int maxReportedProblems) {
+        if (conservatory == null) {
+            throw new IllegalArgumentException("Conservatory cannot be null");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        if (maxLineLength < 1) {
+            throw new IllegalArgumentException("Maximum line length must be at least 1");
+        }
+        if (maxReportedProblems < 0) {
+            throw new IllegalArgumentException("Maximum reported problems cannot be negative");
+        }
+        this.conservatory = conservatory;
+        this.assign = assign;
+        this.batchSize = batchSize;
+        this.maxLineLength = maxLineLength;
+        this.maxReportedProblems = maxReportedProblems;
+    }
+
+    /**
+     * Imports a UTF-8 feed file, choosing the format from its extension:
+     * {@code .csv} for CSV, {@code .jsonl} or {@code .ndjson} for JSON lines.
+     *
+     * @param file the feed to import
+     * @return a report of the import
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if file is null or its extension is not
+     *                                  recognized
+     */
+    public ImportReport importFrom(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        Format format = formatOf(file);
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(in, format);
+        }
+    }
+
+    /**
+     * Chooses a feed file's format from its extension.
+     *
+     * @param file the feed file
+     * @return the file's format
+     * @throws IllegalArgumentException if the extension is not recognized
+     */
+    static Format formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return Format.CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return Format.JSON_LINES;
+        }
+        throw new IllegalArgumentException("Unrecognized feed file: " + file.getFileName());
+    }
+
+    /**
+     * Imports a feed from a reader. The reader is read to the end but not
+     * closed.
+     *
+     * @param in     the feed to import
+     * @param format the feed's format
+     * @return a report of the import
+     * @throws IOException              if the feed cannot be read
+     * @throws IllegalArgumentException if in or format is null
+     */
+    public ImportReport importFrom(Reader in, Format format) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("Input cannot be null");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Format cannot be null");
+        }
+        ImportReport report = new ImportReport(maxReportedProblems);
+        LineReader lines = new LineReader(in, maxLineLength);
+        List<Bird> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        String[] header = null;
+
+        String line;
+        while ((line = lines.readLine()) != null) {
+            boolean tooLong = lines.wasTooLong();
+            if (!tooLong && line.trim().isEmpty()) {
+                continue;
+            }
+            if (format == Format.CSV && header == null) {
+                // Records cannot be read without their header, so a bad one
+                // ends the import rather than failing every record after it
+                try {
+                    header = parseHeader(line, tooLong, maxLineLength);
+                } catch (IllegalArgumentException e) {
+                    report.addProblem(lines.getLineNumber(), e.getMessage());
+                    break;
+                }
+                continue;
+            }
+            if (tooLong) {
+                report.recordRead();
+                report.addProblem(lines.getLineNumber(), "Line is longer than " + maxLineLength + " characters");
+                continue;
+            }
+            try {
+                report.recordRead();
+                batch.add(parseRecord(format, header, line));
+                batchLines.add(lines.getLineNumber());
+            } catch (IllegalArgumentException e) {
+                report.addProblem(lines.getLineNumber(), e.getMessage());
+                continue;
+            }
+            if (batch.size() == batchSize) {
+                place(conservatory, assign, batch, batchLines, report);
+            }
+        }
+        place(conservatory, assign, batch, batchLines, report);
+        return report;
+    }
+
+    /**
+     * Rescues, and if requested assigns, a batch of birds, then empties it.
+     *
+     * @param conservatory the conservatory to import into
+     * @param assign       whether to assign the birds as well as rescue them
+     * @param batch        the birds to import
+     * @param batchLines   the line each bird was read from
+     * @param report       the report to record the outcome in
+     */
+    static void place(Conservatory conservatory, boolean assign, List<Bird> batch,
+            List<Long> batchLines, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Bird, Long> lineOf = new IdentityHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            conservatory.rescueBird(batch.get(i));
+            report.birdRescued();
+            lineOf.put(batch.get(i), batchLines.get(i));
+        }
+        if (assign) {
+            PlacementPlan plan = conservatory.assignAll(batch);
+            for (int i = 0; i < plan.getPlacements().size(); i++) {
+                report.birdAssigned();
+            }
+            for (PlacementPlan.Rejection rejection : plan.getRejections()) {
+                report.addProblem(lineOf.get(rejection.getBird()),
+                        "Rescued but not assigned: " + rejection.getReason());
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    // ==========================================================================
+    // Record mapping
+    // ==========================================================================
+
+    /**
+     * Splits a CSV header line into column names.
+     *
+     * @param line      the header line
+     * @param tooLong   whether the line was longer than maxLength
+     * @param maxLength the longest line accepted
+     * @return the column names
+     * @throws IllegalArgumentException if the line was too long or is
+     *                                  malformed
+     */
+    static String[] parseHeader(String line, boolean tooLong, int maxLength) {
+        if (tooLong) {
+            throw new IllegalArgumentException("Invalid header: line is longer than " + maxLength + " characters");
+        }
+        try {
+            return parseCsv(line).toArray(new String[0]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid header: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses one non-blank record and builds its bird. This has no side
+     * effects, so records may be parsed on any thread.
+     *
+     * @param format the feed's format
+     * @param header the CSV column names; ignored for JSON lines
+     * @param line   the record
+     * @return the new bird
+     * @throws IllegalArgumentException if the record is malformed or describes
+     *                                  an invalid bird
+     */
+    static Bird parseRecord(Format format, String[] header, String line) {
+        Map<String, String> fields = format == Format.CSV
+                ? csvFields(header, parseCsv(line))
+                : parseJsonObject(line);
+        return toBird(fields);
+    }
+
+    /**
+     * Builds a bird from a record's fields.
+     *
+     * @param fields the record's fields, keyed by lower-case name
+     * @return the new bird
+     * @throws IllegalArgumentException if a field is missing or invalid
+     */
+    private static Bird toBird(Map<String, String> fields) {
+        BirdType type = TYPES.get(normalize(required(fields, "type")));
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown bird type: " + fields.get("type"));
+        }
+        String characteristic = required(fields, "characteristic");
+        boolean extinct = parseBoolean(fields.getOrDefault("extinct", "false"));
+        int wings = parseInt(required(fields, "wings"), "wings");
+
+        List<Food> food = new ArrayList<>();
+        for (String name : required(fields, "food").split(";")) {
+            if (name.trim().isEmpty()) {
+                continue;
+            }
+            Food item = FOODS.get(normalize(name));
+            if (item == null) {
+                throw new IllegalArgumentException("Unknown food: " + name.trim());
+            }
+            food.add(item);
+        }
+
+        int vocabulary = 0;
+        String saying = null;
+        String water = null;
+        if (BirdFactory.isParrot(type)) {
+            vocabulary = parseInt(required(fields, "vocabulary"), "vocabulary");
+            saying = fields.getOrDefault("saying", "");
+        } else if (BirdFactory.isWaterBird(type)) {
+            water = required(fields, "water");
+        }
+        return BirdFactory.create(type, characteristic, extinct, wings, food, vocabulary, saying, water);
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return value;
+    }
+
+    private static boolean parseBoolean(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        if (v.equals("true")) {
+            return true;
+        }
+        if (v.equals("false") || v.isEmpty()) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid extinct value: " + value);
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " value: " + value);
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replace('_', ' ').replace('-', ' ');
+    }
+
+    // ==========================================================================
+    // CSV parsing
+    // ==========================================================================
+
+    /**
+     * Splits a CSV line into fields, unquoting quoted fields.
+     *
+     * @param line the line to split
+     * @return the line's fields
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    static List<String> parseCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static Map<String, String> csvFields(String[] header, List<String> values) {
+        if (values.size() > header.length) {
+            throw new IllegalArgumentException("Expected at most " + header.length
+                    + " fields but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(header[i].trim().toLowerCase(Locale.ROOT), values.get(i));
+        }
+        return fields;
+    }
+
+    // ==========================================================================
+    // JSON parsing
+    // ==========================================================================
+
+    /**
+     * Parses a flat JSON object whose values are strings, numbers, booleans,
+     * nulls, or arrays of strings. Array elements are joined with semicolons,
+     * and null values are left out.
+     *
+     * @param line the object to parse
+     * @return the object's fields, keyed by lower-case name
+     * @throws IllegalArgumentException if the line is not such an object
+     */
+    static Map<String, String> parseJsonObject(String line) {
+        JsonCursor cursor = new JsonCursor(line);
+        Map<String, String> fields = new HashMap<>();
+        cursor.expect('{');
+        if (!cursor.consume('}')) {
+            do {
+                String name = cursor.readString();
+                cursor.expect(':');
+                String value = cursor.readValue();
+                if (value != null) {
+                    fields.put(name.toLowerCase(Locale.ROOT), value);
+                }
+            } while (cursor.consume(','));
+            cursor.expect('}');
+        }
+        cursor.expectEnd();
+        return fields;
+    }
+
+    /**
+     * Reads JSON tokens from a single line.
+     */
+    private static final class JsonCursor {
+        private final String text;
+        private int pos;
+
+        JsonCursor(String text) {
+            this.text = text;
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean consume(char c) {
+            skipSpace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        void expectEnd() {
+            skipSpace();
+            if (pos < text.length()) {
+                throw error("Unexpected trailing text");
+            }
+        }
+
+        String readValue() {
+            skipSpace();
+            if (pos >= text.length()) {
+                throw error("Expected a value");
+            }
+            char c = text.charAt(pos);
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '[') {
+                pos++;
+                StringBuilder joined = new StringBuilder();
+                if (!consume(']')) {
+                    do {
+                        if (joined.length() > 0) {
+                            joined.append(';');
+                        }
+                        joined.append(readString());
+                    } while (consume(','));
+                    expect(']');
+                }
+                return joined.toString();
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.equals("true") || literal.equals("false")
+                    || literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+                return literal;
+            }
+            throw error("Invalid value '" + literal + "'");
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char e = text.charAt(pos++);
+                switch (e) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        sb.append(e);
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Invalid unicode escape");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Invalid unicode escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        throw error("Invalid escape '\\" + e + "'");
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Malformed JSON at column " + (pos + 1) + ": " + message);
+        }
+    }
+
+    // ==========================================================================
+    // Line reading
+    // ==========================================================================
+
+    /**
+     * Reads lines of at most a fixed length, skipping the rest of any longer
+     * line, so that one bad line cannot exhaust memory. Lines end at
+     * {@code \n} or {@code \r\n}; any other {@code \r} is kept as part of the
+     * line.
+     */
+    static final class LineReader {
+        private final Reader in;
+        private final int maxLength;
+        private final char[] buffer;
+        private final StringBuilder line;
+        private int next;
+        private int end;
+        private long lineNumber;
+        private boolean tooLong;
+
+        LineReader(Reader in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+            this.buffer = new char[8192];
+            this.line = new StringBuilder();
+        }
+
+        /**
+         * Returns the next line without its terminator.
+         *
+         * @return the line, an empty string if it was too long, or null at the
+         *         end of input
+         * @throws IOException if the input cannot be read
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean any = false;
+            // A carriage return is held back until the next character shows
+            // whether it ends the line, possibly across a buffer refill
+            boolean carriageReturn = false;
+            while (true) {
+                if (next == end) {
+                    end = in.read(buffer);
+                    next = 0;
+                    if (end <= 0) {
+                        end = 0;
+                        if (!any) {
+                            return null;
+                        }
+                        break;
+                    }
+                }
+                any = true;
+                char c = buffer[next++];
+                if (c == '\n') {
+                    carriageReturn = false;
+                    break;
+                }
+                if (carriageReturn) {
+                    append('\r');
+                }
+                carriageReturn = c == '\r';
+                if (!carriageReturn) {
+                    append(c);
+                }
+            }
+            if (carriageReturn) {
+                append('\r');
+            }
+            lineNumber++;
+            if (tooLong) {
+                line.setLength(0);
+            }
+            return line.toString();
+        }
+
+        private void append(char c) {
+            if (line.length() < maxLength) {
+                line.append(c);
+            } else {
+                tooLong = true;
+            }
+        }
+
+        boolean wasTooLong() {
+            return tooLong;
+        }
+
+        long getLineNumber() {
+            return lineNumber;
+        }
+    }
+}
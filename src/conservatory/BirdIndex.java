@@ -0,0 +1,161 @@
+package conservatory;
+
+import birds.Bird;
+import birds.BirdType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * An always-sorted index of the birds housed in a conservatory, ordered by
+ * display name and then by {@link BirdId}.
+ *
+ * <p>
+ * Display names come from the small, fixed set of {@link BirdType}s, so the
+ * index keeps one id-ordered tree per type and visits the types in
+ * alphabetical order. Placing or removing a bird costs O(log n), and walking
+ * the index never sorts or compares strings. A page can skip whole types at
+ * a time using their sizes.
+ * </p>
+ */
+final class BirdIndex implements Iterable<BirdIndex.Entry> {
+    /**
+     * Every bird type, in alphabetical order of display name.
+     */
+    static final BirdType[] ALPHABETICAL = alphabeticalTypes();
+
+    private final List<TreeMap<BirdId, Entry>> byType;
+    private int size;
+
+    /**
+     * Constructs an empty index.
+     */
+    BirdIndex() {
+        BirdType[] types = BirdType.values();
+        this.byType = new ArrayList<>(types.length);
+        for (int i = 0; i < types.length; i++) {
+            byType.add(new TreeMap<>());
+        }
+    }
+
+    private static BirdType[] alphabeticalTypes() {
+        BirdType[] types = BirdType.values();
+        Arrays.sort(types, Comparator.comparing(BirdType::getDisplayName));
+        return types;
+    }
+
+    /**
+     * Adds a placed bird to the index.
+     *
+     * @param id     the bird's id
+     * @param bird   the bird
+     * @param aviary the aviary the bird was placed in
+     */
+    void add(BirdId id, Bird bird, Aviary aviary) {
+        if (byType.get(bird.getType().ordinal()).put(id, new Entry(bird, aviary)) == null) {
+            size++;
+        }
+    }
+
+    /**
+     * Removes a bird from the index.
+     *
+     * @param id   the bird's id
+     * @param bird the bird
+     */
+    void remove(BirdId id, Bird bird) {
+        if (byType.get(bird.getType().ordinal()).remove(id) != null) {
+            size--;
+        }
+    }
+
+    /**
+     * Returns the number of birds in the index.
+     *
+     * @return the number of birds
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns up to the specified number of entries starting at a position in
+     * index order.
+     *
+     * @param offset the position of the first entry to return
+     * @param limit  the maximum number of entries to return
+     * @return a new list of entries
+     */
+    List<Entry> page(int offset, int limit) {
+        List<Entry> page = new ArrayList<>(Math.min(limit, Math.max(0, size - offset)));
+        int skip = offset;
+        for (BirdType type : ALPHABETICAL) {
+            if (page.size() == limit) {
+                break;
+            }
+            TreeMap<BirdId, Entry> entries = byType.get(type.ordinal());
+            if (skip >= entries.size()) {
+                skip -= entries.size();
+                continue;
+            }
+            for (Entry entry : entries.values()) {
+                if (skip > 0) {
+                    skip--;
+                } else if (page.size() < limit) {
+                    page.add(entry);
+                } else {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Returns an iterator over every entry in index order.
+     *
+     * @return an iterator over the index
+     */
+    @Override
+    public Iterator<Entry> iterator() {
+        return new Iterator<Entry>() {
+            private int nextType = 0;
+            private Iterator<Entry> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && nextType < ALPHABETICAL.length) {
+                    current = byType.get(ALPHABETICAL[nextType++].ordinal()).values().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * A bird in the index and the aviary it is housed in.
+     */
+    static final class Entry {
+        final Bird bird;
+        final Aviary aviary;
+
+        Entry(Bird bird, Aviary aviary) {
+            this.bird = bird;
+            this.aviary = aviary;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package conservatory;
+
+import birds.Bird;
+import birds.BirdType;
+import birds.Food;
+
+import java.util.BitSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A question about the birds in a conservatory, such as "non-extinct
+ * shorebirds that eat fish", answered by {@link Conservatory#query(BirdQuery)}.
+ *
+ * <p>
+ * Queries are built from conditions on one attribute each and combined with
+ * {@link #and(BirdQuery)}, {@link #or(BirdQuery)}, and {@link #negate()}.
+ * Every attribute condition is answered from a bitmap index, and combining
+ * them works on 64 birds at a time, so a query never visits a bird that does
+ * not match. Conditions the index cannot answer, such as a vocabulary size,
+ * can be added with {@link #where(Predicate)}; they are only tested against
+ * birds that match the rest of the query.
+ * </p>
+ *
+ * <p>
+ * Queries consider every bird the conservatory has given an id, whether it
+ * has been rescued, placed, or both. Queries are immutable and can be reused.
+ * </p>
+ */
+public final class BirdQuery {
+    private final String description;
+    private final Function<BirdBitmapIndex, BitSet> evaluator;
+    private final Function<BirdBitmapIndex, BitSet> bitmap;
+
+    private BirdQuery(String description, Function<BirdBitmapIndex, BitSet> evaluator) {
+        this(description, evaluator, null);
+    }
+
+    private BirdQuery(String description, Function<BirdBitmapIndex, BitSet> evaluator,
+            Function<BirdBitmapIndex, BitSet> bitmap) {
+        this.description = description;
+        this.evaluator = evaluator;
+        this.bitmap = bitmap;
+    }
+
+    /**
+     * Returns a query that answers from one of the index's own bitmaps.
+     */
+    private static BirdQuery bitmap(String description, Function<BirdBitmapIndex, BitSet> bitmap) {
+        return new BirdQuery(description, index -> (BitSet) bitmap.apply(index).clone(), bitmap);
+    }
+
+    /**
+     * Returns a query matching every bird.
+     *
+     * @return the query
+     */
+    public static BirdQuery all() {
+        return bitmap("all", BirdBitmapIndex::all);
+    }
+
+    /**
+     * Returns a query matching birds of the specified type.
+     *
+     * @param type the type to match
+     * @return the query
+     * @throws IllegalArgumentException if type is null
+     */
+    public static BirdQuery type(BirdType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        }
+        return bitmap("type=" + type.name(), index -> index.type(type));
+    }
+
+    /**
+     * Returns a query matching birds of the specified classification, such as
+     * "Shorebirds".
+     *
+     * @param classification the classification to match
+     * @return the query
+     * @throws IllegalArgumentException if classification is null
+     */
+    public static BirdQuery classification(String classification) {
+        if (classification == null) {
+            throw new IllegalArgumentException("Classification cannot be null");
+        }
+        return bitmap("classification=" + classification, index -> index.classification(classification));
+    }
+
+    /**
+     * Returns a query matching extinct birds.
+     *
+     * @return the query
+     */
+    public static BirdQuery extinct() {
+        return bitmap("extinct", BirdBitmapIndex::extinct);
+    }
+
+    /**
+     * Returns a query matching birds with the specified number of wings.
+     *
+     * @param numberOfWings the number of wings to match
+     * @return the query
+     */
+    public static BirdQuery wings(int numberOfWings) {
+        return bitmap("wings=" + numberOfWings, index -> index.wings(numberOfWings));
+    }
+
+    /**
+     * Returns a query matching birds that prefer the specified food.
+     *
+     * @param food the food to match
+     * @return the query
+     * @throws IllegalArgumentException if food is null
+     */
+    public static BirdQuery eats(Food food) {
+        if (food == null) {
+            throw new IllegalArgumentException("Food cannot be null");
+        }
+        return bitmap("eats=" + food.name(), index -> index.food(food));
+    }
+
+    /**
+     * Returns a query matching water birds from the specified body of water,
+     * ignoring case and surrounding whitespace.
+     *
+     * @param bodyOfWater the body of water to match
+     * @return the query
+     * @throws IllegalArgumentException if bodyOfWater is null
+     */
+    public static BirdQuery fromWater(String bodyOfWater) {
+        if (bodyOfWater == null) {
+            throw new IllegalArgumentException("Body of water cannot be null");
+        }
+        return bitmap("water=" + bodyOfWater, index -> index.water(bodyOfWater));
+    }
+
+    /**
+     * Returns a query matching birds currently housed in the specified aviary.
+     *
+     * @param aviaryId the aviary's id
+     * @return the query
+     */
+    public static BirdQuery inAviary(int aviaryId) {
+        return bitmap("aviary=" + aviaryId, index -> index.aviary(aviaryId));
+    }
+
+    /**
+     * Returns a query matching birds currently housed in any aviary.
+     *
+     * @return the query
+     */
+    public static BirdQuery placed() {
+        return bitmap("placed", BirdBitmapIndex::placed);
+    }
+
+    /**
+     * Returns a query matching rescued birds.
+     *
+     * @return the query
+     */
+    public static BirdQuery rescued() {
+        return bitmap("rescued", BirdBitmapIndex::rescued);
+    }
+
+    /**
+     * Returns a query matching birds that match both this query and another.
+     *
+     * @param other the other query
+     * @return the combined query
+     * @throws IllegalArgumentException if other is null
+     */
+    public BirdQuery and(BirdQuery other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        return new BirdQuery("(" + description + " and " + other.description + ")", index -> {
+            BitSet result = evaluate(index);
+            if (!result.isEmpty()) {
+                result.and(other.read(index));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Returns a query matching birds that match this query, another, or both.
+     *
+     * @param other the other query
+     * @return the combined query
+     * @throws IllegalArgumentException if other is null
+     */
+    public BirdQuery or(BirdQuery other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        return new BirdQuery("(" + description + " or " + other.description + ")", index -> {
+            BitSet result = evaluate(index);
+            result.or(other.read(index));
+            return result;
+        });
+    }
+
+    /**
+     * Returns a query matching birds that do not match this query.
+     *
+     * @return the negated query
+     */
+    public BirdQuery negate() {
+        return new BirdQuery("not " + description, index -> {
+            BitSet result = (BitSet) index.all().clone();
+            result.andNot(read(index));
+            return result;
+        });
+    }
+
+    /**
+     * Returns a query matching birds that match this query and satisfy a
+     * predicate. The predicate is only tested against birds that match this
+     * query.
+     *
+     * @param predicate the condition to test
+     * @return the narrowed query
+     * @throws IllegalArgumentException if predicate is null
+     */
+    public BirdQuery where(Predicate<? super Bird> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+        return new BirdQuery(description + " where ...", index -> {
+            BitSet result = evaluate(index);
+            for (int row = result.nextSetBit(0); row >= 0; row = result.nextSetBit(row + 1)) {
+                if (!predicate.test(index.bird(row))) {
+                    result.clear(row);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Returns the rows of the birds matching this query.
+     *
+     * @param index the index to answer from
+     * @return a new bitmap the caller may change
+     */
+    BitSet evaluate(BirdBitmapIndex index) {
+        return evaluator.apply(index);
+    }
+
+    /**
+     * Returns the rows of the birds matching this query for reading only. A
+     * single-attribute query returns the index's own bitmap rather than a
+     * copy, so combining many conditions copies only the first operand.
+     *
+     * @param index the index to answer from
+     * @return a bitmap the caller must not change
+     */
+    private BitSet read(BirdBitmapIndex index) {
+        return bitmap != null ? bitmap.apply(index) : evaluate(index);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
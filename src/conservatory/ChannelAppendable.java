@@ -0,0 +1,96 @@
+package conservatory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An {@link Appendable} that encodes text as UTF-8 into a fixed-size buffer
+ * and writes it to a channel each time the buffer fills up, so output of any
+ * length is streamed with constant memory. {@link #flush()} must be called
+ * once all text has been appended.
+ */
+final class ChannelAppendable implements Appendable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+
+    /**
+     * Constructs an appendable writing to the specified channel.
+     *
+     * @param channel the channel to write to
+     */
+    ChannelAppendable(WritableByteChannel channel) {
+        this.channel = channel;
+        this.encoder = StandardCharsets.UTF_8.newEncoder();
+        this.chars = CharBuffer.allocate(BUFFER_SIZE);
+        this.bytes = ByteBuffer.allocate(BUFFER_SIZE * 3);
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        CharSequence text = csq == null ? "null" : csq;
+        return append(text, 0, text.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        CharSequence text = csq == null ? "null" : csq;
+        for (int i = start; i < end; i++) {
+            append(text.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            drain(false);
+        }
+        chars.put(c);
+        return this;
+    }
+
+    /**
+     * Encodes and writes everything appended so far.
+     *
+     * @throws IOException if the channel cannot be written to
+     */
+    void flush() throws IOException {
+        drain(true);
+    }
+
+    /**
+     * Encodes the buffered characters and writes the bytes to the channel.
+     * Unless this is the final drain, a trailing high surrogate is kept back
+     * until its low surrogate arrives.
+     *
+     * @param endOfInput whether no more characters will be appended
+     * @throws IOException if the channel cannot be written to
+     */
+    private void drain(boolean endOfInput) throws IOException {
+        chars.flip();
+        CoderResult result = encoder.encode(chars, bytes, endOfInput);
+        if (result.isError()) {
+            result.throwException();
+        }
+        if (endOfInput) {
+            encoder.flush(bytes);
+            encoder.reset();
+        }
+        chars.compact();
+
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -0,0 +1,165 @@
+package conservatory;
+
+import birds.Bird;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of bird moves that consolidates half-empty aviaries, made by
+ * {@link Conservatory#planCompaction()}.
+ *
+ * <p>
+ * Within each wing the fullest aviaries are kept and the emptiest are
+ * emptied into them wherever the kept aviaries have room and the mixing rules
+ * allow. The plan is greedy rather than optimal: it moves only the birds of
+ * the aviaries it frees, but under narrow mixing rules another arrangement
+ * might free more. Freed aviaries stay in the conservatory, empty and ready
+ * for birds of any class; a freed aviary reused for another classification
+ * is renamed as a new section of that classification's wing.
+ * </p>
+ *
+ * <p>
+ * A plan can be previewed and then applied with
+ * {@link Conservatory#applyCompaction(CompactionPlan)}, provided none of the
+ * aviaries it touches has changed in between.
+ * </p>
+ */
+public final class CompactionPlan {
+    private final Conservatory conservatory;
+    private final List<Move> moves;
+    private final List<Aviary> freed;
+    private final Map<Aviary, Long> versions;
+    private boolean applied;
+
+    /**
+     * Constructs an empty plan for the specified conservatory.
+     *
+     * @param conservatory the conservatory the plan was made for
+     */
+    CompactionPlan(Conservatory conservatory) {
+        this.conservatory = conservatory;
+        this.moves = new ArrayList<>();
+        this.freed = new ArrayList<>();
+        this.versions = new IdentityHashMap<>();
+    }
+
+    void addMove(Bird bird, Aviary from, Aviary to) {
+        moves.add(new Move(bird, from, to));
+        versions.putIfAbsent(from, from.getVersion());
+        versions.putIfAbsent(to, to.getVersion());
+    }
+
+    void addFreed(Aviary aviary) {
+        freed.add(aviary);
+    }
+
+    Conservatory getConservatory() {
+        return conservatory;
+    }
+
+    /**
+     * Returns whether every aviary the plan touches is as it was when the plan
+     * was made.
+     *
+     * @return true if the plan can still be applied as made
+     */
+    boolean isCurrent() {
+        for (Map.Entry<Aviary, Long> entry : versions.entrySet()) {
+            if (entry.getKey().getVersion() != entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isApplied() {
+        return applied;
+    }
+
+    void markApplied() {
+        applied = true;
+    }
+
+    /**
+     * Returns the moves in the plan, in the order they are applied.
+     *
+     * @return an unmodifiable list of moves
+     */
+    public List<Move> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+
+    /**
+     * Returns the aviaries the plan empties, in order of aviary id.
+     *
+     * @return an unmodifiable list of aviaries
+     */
+    public List<Aviary> getFreedAviaries() {
+        return Collections.unmodifiableList(freed);
+    }
+
+    /**
+     * Returns whether the plan moves no birds.
+     *
+     * @return true if there is nothing to compact, false otherwise
+     */
+    public boolean isEmpty() {
+        return moves.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "Compaction: " + moves.size() + " moves, " + freed.size() + " aviaries freed";
+    }
+
+    /**
+     * A bird and the aviaries it moves from and to.
+     */
+    public static final class Move {
+        private final Bird bird;
+        private final Aviary from;
+        private final Aviary to;
+
+        Move(Bird bird, Aviary from, Aviary to) {
+            this.bird = bird;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Returns the bird that moves.
+         *
+         * @return the bird
+         */
+        public Bird getBird() {
+            return bird;
+        }
+
+        /**
+         * Returns the aviary the bird moves out of.
+         *
+         * @return the aviary being emptied
+         */
+        public Aviary getFrom() {
+            return from;
+        }
+
+        /**
+         * Returns the aviary the bird moves into.
+         *
+         * @return the aviary being filled
+         */
+        public Aviary getTo() {
+            return to;
+        }
+
+        @Override
+        public String toString() {
+            return bird.getType().getDisplayName() + ": Aviary " + from.getId() + " -> Aviary " + to.getId();
+        }
+    }
+}
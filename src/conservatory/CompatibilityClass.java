@@ -0,0 +1,99 @@
+package conservatory;
+
+import birds.Bird;
+import birds.BirdType;
+
+/**
+ * Groups birds into the wings of a conservatory.
+ * Birds of prey, flightless birds, and waterfowl each form a class of their
+ * own, while owls, parrots, pigeons, and shorebirds share a single mixable
+ * class. Birds of different classes never share an aviary; whether two birds
+ * of the same class may is decided by the {@link CompatibilityMatrix} in use,
+ * which by default lets every class mix freely but may split a class into
+ * narrower groups.
+ *
+ * <p>
+ * A bird's class follows from its {@link BirdType}, as its mixing rules in a
+ * {@link CompatibilityMatrix} do, so the two always agree even for a bird
+ * whose type does not match its subclass.
+ * </p>
+ */
+public enum CompatibilityClass {
+    BIRDS_OF_PREY("Birds of Prey"),
+    FLIGHTLESS_BIRDS("Flightless Birds"),
+    WATERFOWL("Waterfowl"),
+    MIXABLE("Mixable");
+
+    private static final CompatibilityClass[] BY_TYPE = new CompatibilityClass[BirdType.values().length];
+
+    static {
+        for (BirdType type : BirdType.values()) {
+            BY_TYPE[type.ordinal()] = classify(type);
+        }
+    }
+
+    private final String displayName;
+
+    /**
+     * Constructs a CompatibilityClass with a display name.
+     *
+     * @param displayName the human-readable name of the class
+     */
+    CompatibilityClass(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Returns the human-readable display name of this class.
+     *
+     * @return the display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Returns the compatibility class of the specified bird, which is that of
+     * its type.
+     *
+     * @param bird the bird to classify
+     * @return the bird's compatibility class
+     * @throws IllegalArgumentException if bird is null
+     */
+    public static CompatibilityClass of(Bird bird) {
+        if (bird == null) {
+            throw new IllegalArgumentException("Bird cannot be null");
+        }
+        return BY_TYPE[bird.getType().ordinal()];
+    }
+
+    /**
+     * Returns the compatibility class of birds of the specified type. The
+     * restricted classes are matched by their display names, which are also
+     * the classifications of the types they hold.
+     *
+     * @param type the bird type to classify
+     * @return the type's compatibility class
+     * @throws IllegalArgumentException if type is null
+     */
+    public static CompatibilityClass of(BirdType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        }
+        return BY_TYPE[type.ordinal()];
+    }
+
+    private static CompatibilityClass classify(BirdType type) {
+        for (CompatibilityClass compatibility : values()) {
+            if (compatibility != MIXABLE && compatibility.displayName.equals(type.getClassification())) {
+                return compatibility;
+            }
+        }
+        return MIXABLE;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,279 @@
+package conservatory;
+
+import birds.BirdType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The rules for which bird types may share an aviary, compiled into one
+ * bitmask per {@link BirdType} so that {@link Aviary#canAddBird(birds.Bird)}
+ * is a single bit test.
+ *
+ * <p>
+ * Rules are written as mixing groups, one per line. Each group lists
+ * classifications (such as {@code Parrots}) or bird types (such as
+ * {@code GRAY_PARROT} or {@code Gray Parrot}), separated by commas, and every
+ * bird in a group may share an aviary with every other. A bird may always
+ * share with birds of its own type. Blank lines and lines starting with
+ * {@code #} are ignored. The built-in rules are:
+ * </p>
+ *
+ * <pre>
+ * Birds of Prey
+ * Flightless Birds
+ * Waterfowl
+ * Owls, Parrots, Pigeons, Shorebirds
+ * </pre>
+ *
+ * <p>
+ * Conservatories place birds one {@link CompatibilityClass} at a time, so a
+ * group may narrow who mixes within a class but may not span two classes.
+ * The rules used by default are read once, from the file named by the
+ * {@value #RULES_PROPERTY} system property if it is set, or from the built-in
+ * rules otherwise.
+ * </p>
+ */
+public final class CompatibilityMatrix {
+    /**
+     * The system property naming a rules file to use instead of the built-in
+     * rules.
+     */
+    public static final String RULES_PROPERTY = "conservatory.compatibility.rules";
+
+    private static final String BUILT_IN_RULES = "Birds of Prey\n"
+            + "Flightless Birds\n"
+            + "Waterfowl\n"
+            + "Owls, Parrots, Pigeons, Shorebirds\n";
+
+    private static final BirdType[] TYPES = BirdType.values();
+    private static final Map<String, Long> NAMES = new HashMap<>();
+
+    static {
+        if (TYPES.length > Long.SIZE) {
+            throw new IllegalStateException("Too many bird types for a compatibility matrix");
+        }
+        for (BirdType type : TYPES) {
+            long bit = 1L << type.ordinal();
+            NAMES.merge(normalize(type.getClassification()), bit, (a, b) -> a | b);
+            NAMES.put(normalize(type.name()), bit);
+            NAMES.put(normalize(type.getDisplayName()), bit);
+        }
+    }
+
+    private static volatile CompatibilityMatrix defaultRules;
+
+    private final long[] mixable;
+
+    private CompatibilityMatrix(long[] mixable) {
+        this.mixable = mixable;
+    }
+
+    /**
+     * Returns the rules used by aviaries unless others are given, reading them
+     * the first time this is called. If they cannot be read, nothing is kept
+     * and the next call tries again.
+     *
+     * @return the default rules
+     * @throws IllegalStateException if the rules file named by
+     *                               {@value #RULES_PROPERTY} cannot be read or
+     *                               is invalid, on this call or any later one
+     *                               until it can be
+     */
+    public static CompatibilityMatrix getDefault() {
+        // Not a class-init holder: a failure there would surface as an
+        // ExceptionInInitializerError and then NoClassDefFoundError forever
+        CompatibilityMatrix rules = defaultRules;
+        if (rules == null) {
+            synchronized (CompatibilityMatrix.class) {
+                rules = defaultRules;
+                if (rules == null) {
+                    rules = readDefault();
+                    defaultRules = rules;
+                }
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Reads the default rules, from the file named by {@value #RULES_PROPERTY}
+     * or from the built-in rules.
+     *
+     * @return the rules read
+     * @throws IllegalStateException if the rules file cannot be read or is
+     *                               invalid
+     */
+    static CompatibilityMatrix readDefault() {
+        String file = System.getProperty(RULES_PROPERTY);
+        try {
+            return file == null ? builtIn() : load(Paths.get(file));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot load compatibility rules from " + file, e);
+        }
+    }
+
+    /**
+     * Returns the built-in rules.
+     *
+     * @return the built-in rules
+     */
+    public static CompatibilityMatrix builtIn() {
+        try {
+            return parse(new StringReader(BUILT_IN_RULES));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads and compiles rules from a UTF-8 file.
+     *
+     * @param file the file to read
+     * @return the compiled rules
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if file is null or the rules are invalid
+     */
+    public static CompatibilityMatrix load(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(in);
+        }
+    }
+
+    /**
+     * Reads and compiles rules. The reader is read to the end but not closed.
+     *
+     * @param in the rules to read
+     * @return the compiled rules
+     * @throws IOException              if the rules cannot be read
+     * @throws IllegalArgumentException if in is null, a group names an
+     *                                  unknown classification or type, or a
+     *                                  group spans compatibility classes
+     */
+    public static CompatibilityMatrix parse(Reader in) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("Input cannot be null");
+        }
+        long[] mixable = new long[TYPES.length];
+        for (BirdType type : TYPES) {
+            mixable[type.ordinal()] = 1L << type.ordinal();
+        }
+
+        BufferedReader lines = new BufferedReader(in);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            long group = 0;
+            for (String name : line.split(",")) {
+                Long types = NAMES.get(normalize(name));
+                if (types == null) {
+                    throw new IllegalArgumentException("Line " + lineNumber
+                            + ": unknown classification or bird type: " + name.trim());
+                }
+                group |= types;
+            }
+            CompatibilityClass compatibility = null;
+            for (BirdType type : TYPES) {
+                if ((group & (1L << type.ordinal())) == 0) {
+                    continue;
+                }
+                if (compatibility == null) {
+                    compatibility = CompatibilityClass.of(type);
+                } else if (compatibility != CompatibilityClass.of(type)) {
+                    throw new IllegalArgumentException("Line " + lineNumber
+                            + ": a mixing group cannot span compatibility classes");
+                }
+                mixable[type.ordinal()] |= group;
+            }
+        }
+        return new CompatibilityMatrix(mixable);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replace('_', ' ').replace('-', ' ');
+    }
+
+    /**
+     * Returns whether birds of two types may share an aviary.
+     *
+     * @param first  one bird type
+     * @param second the other bird type
+     * @return true if they may share, false otherwise
+     * @throws IllegalArgumentException if either type is null
+     */
+    public boolean canMix(BirdType first, BirdType second) {
+        if (first == null || second == null) {
+            throw new IllegalArgumentException("Type cannot be null");
+        }
+        return (mixable[first.ordinal()] & (1L << second.ordinal())) != 0;
+    }
+
+    /**
+     * Returns the types a bird of the specified type may share an aviary
+     * with, as a bitmask over type ordinals.
+     *
+     * @param type the bird type
+     * @return the mask of types it may mix with
+     */
+    long mixableWith(BirdType type) {
+        return mixable[type.ordinal()];
+    }
+
+    /**
+     * Returns a copy of the mask of every type, indexed by type ordinal.
+     *
+     * @return a new array of masks
+     */
+    long[] masks() {
+        return mixable.clone();
+    }
+
+    /**
+     * Rebuilds rules from the masks returned by {@link #masks()}.
+     *
+     * @param masks the mask of every type, indexed by type ordinal
+     * @return the rules
+     * @throws IllegalArgumentException if there is not one mask per type
+     */
+    static CompatibilityMatrix fromMasks(long[] masks) {
+        if (masks.length != TYPES.length) {
+            throw new IllegalArgumentException("Expected " + TYPES.length + " masks, found " + masks.length);
+        }
+        return new CompatibilityMatrix(masks.clone());
+    }
+
+    /**
+     * Returns whether another object is a matrix with exactly the same rules.
+     *
+     * @param o the object to compare with
+     * @return true if both allow the same types to mix, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CompatibilityMatrix && Arrays.equals(mixable, ((CompatibilityMatrix) o).mixable);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(mixable);
+    }
+}
@@ -0,0 +1,77 @@
+package conservatory;
+
+import birds.Bird;
+import birds.BirdType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A thread-safe, always-sorted index of housed birds, ordered by display name
+ * and then by {@link BirdId}, as {@link BirdIndex} is.
+ *
+ * <p>
+ * The index keeps one concurrent id-ordered map per {@link BirdType}, so
+ * writers placing birds of different types never contend, and readers walk
+ * the index without locking or sorting. Iteration is weakly consistent: it
+ * never fails, and reflects every placement published before it started.
+ * </p>
+ */
+final class ConcurrentBirdIndex implements Iterable<BirdIndex.Entry> {
+    private final List<ConcurrentSkipListMap<BirdId, BirdIndex.Entry>> byType;
+
+    /**
+     * Constructs an empty index.
+     */
+    ConcurrentBirdIndex() {
+        BirdType[] types = BirdType.values();
+        this.byType = new ArrayList<>(types.length);
+        for (int i = 0; i < types.length; i++) {
+            byType.add(new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Adds a placed bird to the index, or moves it if it is already listed.
+     *
+     * @param id     the bird's id
+     * @param bird   the bird
+     * @param aviary the aviary the bird was placed in
+     */
+    void add(BirdId id, Bird bird, Aviary aviary) {
+        byType.get(bird.getType().ordinal()).put(id, new BirdIndex.Entry(bird, aviary));
+    }
+
+    /**
+     * Returns an iterator over every entry in index order.
+     *
+     * @return an iterator over the index
+     */
+    @Override
+    public Iterator<BirdIndex.Entry> iterator() {
+        return new Iterator<BirdIndex.Entry>() {
+            private int nextType = 0;
+            private Iterator<BirdIndex.Entry> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && nextType < BirdIndex.ALPHABETICAL.length) {
+                    current = byType.get(BirdIndex.ALPHABETICAL[nextType++].ordinal()).values().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public BirdIndex.Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,489 @@
+package conservatory;
+
+import birds.Bird;
+import birds.Food;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A thread-safe conservatory that can be used by many intake desks at once.
+ *
+ * <p>
+ * Birds of different compatibility classes never share an aviary, so the
+ * conservatory is split into one stripe per {@link CompatibilityClass}, each
+ * holding its own {@link Conservatory} shard behind its own lock. Placing a
+ * waterfowl and placing a bird of prey therefore proceed in parallel, and only
+ * birds of the same class wait for each other. All stripes draw aviary ids
+ * from one shared sequence and one shared aviary limit. The shards only place
+ * birds and total their food; bird ids and indexes are kept once, here, for
+ * the whole conservatory.
+ * </p>
+ *
+ * <p>
+ * Readers never take a stripe lock. Rescues, bird locations, and aviaries are
+ * published to concurrent maps once a placement completes, and aviaries keep
+ * their residents in a copy-on-write list, so {@link #lookupBird(Bird)},
+ * {@link #getAviarySign(int)}, {@link #printMap()}, and {@link #printIndex()}
+ * always see a consistent view without blocking writers. Each placement is
+ * also published to a sorted concurrent index keyed by display name and
+ * {@link BirdId}, so printing the index is a single pass with no sorting.
+ * Food totals are read optimistically and only fall back to a read lock if a
+ * writer interferes.
+ * </p>
+ *
+ * <p>
+ * Aviaries returned by this class must not be modified directly; changes made
+ * through {@link Aviary#addBird(Bird)} or {@link Aviary#removeBird(Bird)} would
+ * bypass the stripe locks.
+ * </p>
+ */
+public class ConcurrentConservatory {
+    private final AviaryAllocator allocator;
+    private final int aviaryCapacity;
+    private final Stripe[] stripes;
+    private final ConcurrentMap<IdentityKey, BirdId> birdIds;
+    private final Set<IdentityKey> rescued;
+    private final Queue<Bird> rescuedBirds;
+    private final ConcurrentMap<IdentityKey, Aviary> birdLocations;
+    private final ConcurrentSkipListMap<Integer, Aviary> aviariesById;
+    private final ConcurrentBirdIndex birdIndex;
+    private final AtomicLong nextBirdId;
+
+    /**
+     * Constructs an empty ConcurrentConservatory allowing up to
+     * {@value Conservatory#DEFAULT_MAX_AVIARIES} aviaries of
+     * {@value Aviary#DEFAULT_CAPACITY} birds each.
+     */
+    public ConcurrentConservatory() {
+        this(Conservatory.DEFAULT_MAX_AVIARIES, Aviary.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty ConcurrentConservatory with the specified limits.
+     *
+     * @param maxAviaries    the maximum number of aviaries
+     * @param aviaryCapacity the number of birds each new aviary can hold
+     * @throws IllegalArgumentException if either limit is not positive
+     */
+    public ConcurrentConservatory(int maxAviaries, int aviaryCapacity) {
+        this(maxAviaries, aviaryCapacity, CompatibilityMatrix.getDefault());
+    }
+
+    /**
+     * Constructs an empty ConcurrentConservatory with the specified limits
+     * and mixing rules, shared by every shard.
+     *
+     * @param maxAviaries    the maximum number of aviaries
+     * @param aviaryCapacity the number of birds each new aviary can hold
+     * @param rules          which bird types may share an aviary
+     * @throws IllegalArgumentException if either limit is not positive or
+     *                                  rules is null
+     */
+    public ConcurrentConservatory(int maxAviaries, int aviaryCapacity, CompatibilityMatrix rules) {
+        if (maxAviaries < 1) {
+            throw new IllegalArgumentException("Maximum aviaries must be at least 1");
+        }
+        if (aviaryCapacity < 1) {
+            throw new IllegalArgumentException("Aviary capacity must be at least 1");
+        }
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules cannot be null");
+        }
+        this.allocator = new AviaryAllocator(maxAviaries);
+        this.aviaryCapacity = aviaryCapacity;
+        CompatibilityClass[] classes = CompatibilityClass.values();
+        this.stripes = new Stripe[classes.length];
+        for (CompatibilityClass compatibility : classes) {
+            stripes[compatibility.ordinal()] = new Stripe(
+                    Conservatory.placementShard(allocator, aviaryCapacity, rules));
+        }
+        this.birdIds = new ConcurrentHashMap<>();
+        this.rescued = ConcurrentHashMap.newKeySet();
+        this.rescuedBirds = new ConcurrentLinkedQueue<>();
+        this.birdLocations = new ConcurrentHashMap<>();
+        this.aviariesById = new ConcurrentSkipListMap<>();
+        this.birdIndex = new ConcurrentBirdIndex();
+        this.nextBirdId = new AtomicLong(1);
+    }
+
+    /**
+     * Returns the maximum number of aviaries this conservatory can have.
+     *
+     * @return the maximum number of aviaries
+     */
+    public int getMaxAviaries() {
+        return allocator.getMaxAviaries();
+    }
+
+    /**
+     * Returns the number of birds each new aviary can hold.
+     *
+     * @return the aviary capacity
+     */
+    public int getAviaryCapacity() {
+        return aviaryCapacity;
+    }
+
+    /**
+     * Rescues a new bird and brings it into the conservatory, assigning it a
+     * {@link BirdId} unless it was given one when placed.
+     *
+     * @param bird the bird to rescue
+     * @return the id assigned to the rescued bird
+     * @throws IllegalArgumentException if bird is null
+     * @throws IllegalStateException    if the bird has already been rescued
+     */
+    public BirdId rescueBird(Bird bird) {
+        if (bird == null) {
+            throw new IllegalArgumentException("Bird cannot be null");
+        }
+        IdentityKey key = new IdentityKey(bird);
+        if (!rescued.add(key)) {
+            throw new IllegalStateException("This bird has already been rescued");
+        }
+        rescuedBirds.add(bird);
+        return idOf(key);
+    }
+
+    /**
+     * Returns the id of a bird, assigning the next one if the bird has not
+     * been given an id yet.
+     *
+     * @param key the bird to identify
+     * @return the bird's id
+     */
+    private BirdId idOf(IdentityKey key) {
+        return birdIds.computeIfAbsent(key, k -> new BirdId(nextBirdId.getAndIncrement()));
+    }
+
+    /**
+     * Returns whether the specified bird has been rescued by this conservatory.
+     *
+     * @param bird the bird to check
+     * @return true if the bird has been rescued, false otherwise
+     */
+    public boolean isRescued(Bird bird) {
+        return rescued.contains(new IdentityKey(bird));
+    }
+
+    /**
+     * Returns the id assigned to the specified bird when it was rescued or
+     * first placed in an aviary, whichever came first.
+     *
+     * @param bird the bird to look up
+     * @return the bird's id, or null if the bird has been neither rescued nor
+     *         placed
+     */
+    public BirdId getBirdId(Bird bird) {
+        return birdIds.get(new IdentityKey(bird));
+    }
+
+    /**
+     * Returns a copy of all rescued birds.
+     *
+     * @return a list of all rescued birds
+     */
+    public List<Bird> getRescuedBirds() {
+        return new ArrayList<>(rescuedBirds);
+    }
+
+    /**
+     * Returns a copy of all aviaries, ordered by id.
+     *
+     * @return a list of all aviaries in the conservatory
+     */
+    public List<Aviary> getAviaries() {
+        return new ArrayList<>(aviariesById.values());
+    }
+
+    /**
+     * Assigns a bird to an aviary in the conservatory, holding only the lock
+     * of the bird's compatibility class.
+     *
+     * @param bird the bird to assign to an aviary
+     * @return a message indicating where the bird was assigned
+     * @throws IllegalArgumentException if bird is null
+     * @throws IllegalStateException    if the bird is extinct and cannot be added
+     *                                  to an aviary, or if the conservatory is at
+     *                                  maximum capacity
+     * @see Conservatory#assignBirdToAviary(Bird)
+     */
+    public String assignBirdToAviary(Bird bird) {
+        if (bird == null) {
+            throw new IllegalArgumentException("Bird cannot be null");
+        }
+        Stripe stripe = stripes[CompatibilityClass.of(bird).ordinal()];
+        long stamp = stripe.lock.writeLock();
+        try {
+            String result = stripe.shard.assignBirdToAviary(bird);
+            publish(bird, stripe.shard.getAviaryOf(bird));
+            return result;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Assigns a batch of birds to aviaries at once. Each compatibility class
+     * in the batch is packed under its own stripe lock.
+     *
+     * @param birds the birds to assign
+     * @return the plan describing where each bird was placed
+     * @throws IllegalArgumentException if birds is null or contains null
+     * @see Conservatory#assignAll(Collection)
+     */
+    public PlacementPlan assignAll(Collection<Bird> birds) {
+        if (birds == null) {
+            throw new IllegalArgumentException("Birds cannot be null");
+        }
+        List<List<Bird>> groups = new ArrayList<>(stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (Bird bird : birds) {
+            if (bird == null) {
+                throw new IllegalArgumentException("Bird cannot be null");
+            }
+            groups.get(CompatibilityClass.of(bird).ordinal()).add(bird);
+        }
+
+        PlacementPlan plan = new PlacementPlan();
+        for (int i = 0; i < stripes.length; i++) {
+            if (groups.get(i).isEmpty()) {
+                continue;
+            }
+            Stripe stripe = stripes[i];
+            long stamp = stripe.lock.writeLock();
+            try {
+                PlacementPlan part = stripe.shard.assignAll(groups.get(i));
+                for (PlacementPlan.Placement placement : part.getPlacements()) {
+                    publish(placement.getBird(), placement.getAviary());
+                }
+                plan.merge(part);
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Makes a completed placement visible to readers.
+     *
+     * @param bird   the bird that was placed
+     * @param aviary the aviary it was placed in
+     */
+    private void publish(Bird bird, Aviary aviary) {
+        IdentityKey key = new IdentityKey(bird);
+        BirdId id = idOf(key);
+        aviariesById.putIfAbsent(aviary.getId(), aviary);
+        birdLocations.put(key, aviary);
+        birdIndex.add(id, bird, aviary);
+    }
+
+    /**
+     * Returns the aviary the specified bird is housed in.
+     *
+     * @param bird the bird to look up
+     * @return the bird's aviary, or null if the bird is not housed here
+     */
+    public Aviary getAviaryOf(Bird bird) {
+        return birdLocations.get(new IdentityKey(bird));
+    }
+
+    /**
+     * Looks up which aviary a specific bird is housed in without blocking any
+     * writer.
+     *
+     * @param bird the bird to look up
+     * @return a string describing the bird's location, or a message if not found
+     * @throws IllegalArgumentException if bird is null
+     */
+    public String lookupBird(Bird bird) {
+        if (bird == null) {
+            throw new IllegalArgumentException("Bird cannot be null");
+        }
+        IdentityKey key = new IdentityKey(bird);
+        Aviary aviary = birdLocations.get(key);
+        if (aviary != null) {
+            return bird.getType().getDisplayName() + " is located in Aviary "
+                    + aviary.getId() + " (" + aviary.getLocation() + ")";
+        }
+        if (rescued.contains(key)) {
+            return bird.getType().getDisplayName()
+                    + " has been rescued but is not yet assigned to an aviary";
+        }
+        return bird.getType().getDisplayName() + " is not found in this conservatory";
+    }
+
+    /**
+     * Returns the sign for a specific aviary.
+     *
+     * @param aviaryId the ID of the aviary
+     * @return the sign string for the specified aviary
+     * @throws IllegalArgumentException if no aviary with the given ID exists
+     */
+    public String getAviarySign(int aviaryId) {
+        Aviary aviary = aviariesById.get(aviaryId);
+        if (aviary == null) {
+            throw new IllegalArgumentException("No aviary found with ID: " + aviaryId);
+        }
+        return aviary.getSign();
+    }
+
+    /**
+     * Returns the quantities of each food type needed to feed all birds in the
+     * conservatory.
+     *
+     * @return a new tally of the food needed
+     */
+    public FoodTally getFoodTally() {
+        FoodTally total = new FoodTally();
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.tryOptimisticRead();
+            FoodTally part = stripe.shard.getFoodTally();
+            if (!stripe.lock.validate(stamp)) {
+                stamp = stripe.lock.readLock();
+                try {
+                    part = stripe.shard.getFoodTally();
+                } finally {
+                    stripe.lock.unlockRead(stamp);
+                }
+            }
+            total.merge(part);
+        }
+        return total;
+    }
+
+    /**
+     * Calculates the quantities of each food type needed to feed all birds
+     * in the conservatory.
+     *
+     * @return a map of food types to quantities needed
+     */
+    public Map<Food, Integer> calculateFoodQuantities() {
+        Map<Food, Integer> quantities = new EnumMap<>(Food.class);
+        for (Map.Entry<Food, Long> entry : getFoodTally().toMap().entrySet()) {
+            if (entry.getValue() > 0) {
+                quantities.put(entry.getKey(), entry.getValue().intValue());
+            }
+        }
+        return quantities;
+    }
+
+    /**
+     * Returns a map of the conservatory listing all aviaries by location
+     * and the birds they house.
+     *
+     * @return a formatted string representing the conservatory map
+     */
+    public String printMap() {
+        return ConservatoryReports.map(aviariesById.values());
+    }
+
+    /**
+     * Returns an alphabetical index of all birds in the conservatory
+     * along with their locations. Birds of the same type are listed in
+     * {@link BirdId} order, as in {@link Conservatory#printIndex()}.
+     *
+     * @return a formatted string representing the alphabetical bird index
+     */
+    public String printIndex() {
+        return ConservatoryReports.index(birdIndex);
+    }
+
+    /**
+     * Writes a map of the conservatory to the specified output one aviary at a
+     * time, without building the whole map in memory. Any {@link java.io.Writer}
+     * can be passed as the output.
+     *
+     * @param out where to write the map
+     * @throws IOException              if the output cannot be written to
+     * @throws IllegalArgumentException if out is null
+     */
+    public void printMap(Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("Output cannot be null");
+        }
+        ConservatoryReports.map(aviariesById.values(), out);
+    }
+
+    /**
+     * Writes a map of the conservatory to the specified channel as UTF-8, one
+     * buffer at a time.
+     *
+     * @param channel the channel to write the map to
+     * @throws IOException              if the channel cannot be written to
+     * @throws IllegalArgumentException if channel is null
+     */
+    public void printMap(WritableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
+        }
+        ConservatoryReports.map(aviariesById.values(), channel);
+    }
+
+    /**
+     * Writes an alphabetical index of all birds in the conservatory to the
+     * specified output, one line at a time. Any {@link java.io.Writer} can be
+     * passed as the output.
+     *
+     * @param out where to write the index
+     * @throws IOException              if the output cannot be written to
+     * @throws IllegalArgumentException if out is null
+     */
+    public void printIndex(Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("Output cannot be null");
+        }
+        ConservatoryReports.index(birdIndex, out);
+    }
+
+    /**
+     * Writes an alphabetical index of all birds in the conservatory to the
+     * specified channel as UTF-8, one buffer at a time.
+     *
+     * @param channel the channel to write the index to
+     * @throws IOException              if the channel cannot be written to
+     * @throws IllegalArgumentException if channel is null
+     */
+    public void printIndex(WritableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
+        }
+        ConservatoryReports.index(birdIndex, channel);
+    }
+
+    /**
+     * A conservatory shard and the lock that guards it.
+     */
+    private static final class Stripe {
+        final StampedLock lock;
+        final Conservatory shard;
+
+        Stripe(Conservatory shard) {
+            this.lock = new StampedLock();
+            this.shard = shard;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Concurrent conservatory with " + aviariesById.size() + " aviaries and "
+                + rescuedBirds.size() + " rescued birds";
+    }
+}
@@ -2,18 +2,29 @@ package conservatory;
 
 import birds.Bird;
 import birds.Food;
+import birds.WaterBird;
 
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * Represents a conservatory that houses many different types of birds in
  * aviaries.
- * The conservatory can have a maximum of 20 aviaries, each holding up to 5
- * birds.
+ * By default the conservatory can have a maximum of 20 aviaries, each holding
+ * up to 5 birds; both limits can be configured when the conservatory is
+ * created. Occupied aviaries are grouped into one {@link Wing} per
+ * {@link CompatibilityClass}.
  * 
  * <p>
  * The conservatory provides functionality to:
@@ -21,6 +32,7 @@ import java.util.Map;
  * <ul>
  * <li>Rescue new birds and bring them into the conservatory</li>
  * <li>Assign birds to appropriate aviaries following mixing rules</li>
+ * <li>Consolidate half-empty aviaries to free space</li>
  * <li>Calculate food requirements for all birds</li>
  * <li>Look up which aviary a bird is housed in</li>
  * <li>Print signs for individual aviaries</li>
@@ -29,38 +41,214 @@ import java.util.Map;
  * </ul>
  */
 public class Conservatory {
-    private static final int MAX_AVIARIES = 20;
+    /**
+     * The number of aviaries a conservatory may have unless configured
+     * otherwise.
+     */
+    public static final int DEFAULT_MAX_AVIARIES = 20;
 
+    private final AviaryAllocator allocator;
+    private final int aviaryCapacity;
+    private final CompatibilityMatrix rules;
     private final List<Aviary> aviaries;
+    private final List<Aviary> aviariesView;
+    private final Map<Integer, Aviary> aviariesById;
     private final List<Bird> rescuedBirds;
-    private int nextAviaryId;
+    private final List<Bird> rescuedBirdsView;
+    private final Set<Bird> rescued;
+    private final Map<Bird, BirdId> birdIds;
+    private final Map<Bird, Aviary> birdLocations;
+    private final PlacementIndex placementIndex;
+    private final FoodLedger foodLedger;
+    private final BirdIndex birdIndex;
+    private final BirdBitmapIndex bitmapIndex;
+    private final FoodDependencyIndex foodDependencies;
+    private final WaterBodyIndex waterBodies;
+    private final AviaryListener placementTracker;
+    private ConservatoryJournal journal;
+    private long nextBirdId;
 
     /**
-     * Constructs an empty Conservatory with no aviaries or birds.
+     * Constructs an empty Conservatory with no aviaries or birds, allowing up
+     * to {@value #DEFAULT_MAX_AVIARIES} aviaries of
+     * {@value Aviary#DEFAULT_CAPACITY} birds each.
      */
     public Conservatory() {
+        this(DEFAULT_MAX_AVIARIES, Aviary.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty Conservatory with the specified limits.
+     *
+     * @param maxAviaries    the maximum number of aviaries
+     * @param aviaryCapacity the number of birds each new aviary can hold
+     * @throws IllegalArgumentException if either limit is not positive
+     */
+    public Conservatory(int maxAviaries, int aviaryCapacity) {
+        this(validateMaxAviaries(maxAviaries), aviaryCapacity, CompatibilityMatrix.getDefault());
+    }
+
+    /**
+     * Constructs an empty Conservatory with the specified limits and mixing
+     * rules.
+     *
+     * @param maxAviaries    the maximum number of aviaries
+     * @param aviaryCapacity the number of birds each new aviary can hold
+     * @param rules          which bird types may share an aviary
+     * @throws IllegalArgumentException if either limit is not positive or
+     *                                  rules is null
+     */
+    public Conservatory(int maxAviaries, int aviaryCapacity, CompatibilityMatrix rules) {
+        this(validateMaxAviaries(maxAviaries), aviaryCapacity, rules);
+    }
+
+    /**
+     * Constructs an empty Conservatory that draws aviary ids from the
+     * specified allocator, which may be shared with other conservatories.
+     *
+     * @param allocator      the allocator to draw aviary ids from
+     * @param aviaryCapacity the number of birds each new aviary can hold
+     * @param rules          which bird types may share an aviary
+     * @throws IllegalArgumentException if aviaryCapacity is not positive or
+     *                                  rules is null
+     */
+    Conservatory(AviaryAllocator allocator, int aviaryCapacity, CompatibilityMatrix rules) {
+        this(allocator, aviaryCapacity, rules, true);
+    }
+
+    /**
+     * Creates a conservatory that only places birds, for use as a shard of a
+     * {@link ConcurrentConservatory}. It keeps its aviaries, wings, bird
+     * locations and food totals, but gives birds no ids and maintains none of
+     * the indexes behind {@link #printIndex()}, {@link #query(BirdQuery)}, the
+     * food and water queries, or a journal, since the owner keeps its own.
+     *
+     * @param allocator      the allocator to draw aviary ids from
+     * @param aviaryCapacity the number of birds each new aviary can hold
+     * @param rules          which bird types may share an aviary
+     * @return a new placement-only conservatory
+     * @throws IllegalArgumentException if aviaryCapacity is not positive or
+     *                                  rules is null
+     */
+    static Conservatory placementShard(AviaryAllocator allocator, int aviaryCapacity,
+            CompatibilityMatrix rules) {
+        return new Conservatory(allocator, aviaryCapacity, rules, false);
+    }
+
+    private Conservatory(AviaryAllocator allocator, int aviaryCapacity, CompatibilityMatrix rules,
+            boolean indexed) {
+        if (aviaryCapacity < 1) {
+            throw new IllegalArgumentException("Aviary capacity must be at least 1");
+        }
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules cannot be null");
+        }
+        this.allocator = allocator;
+        this.aviaryCapacity = aviaryCapacity;
+        this.rules = rules;
         this.aviaries = new ArrayList<>();
+        this.aviariesView = Collections.unmodifiableList(aviaries);
+        this.aviariesById = new HashMap<>();
         this.rescuedBirds = new ArrayList<>();
-        this.nextAviaryId = 1;
+        this.rescuedBirdsView = Collections.unmodifiableList(rescuedBirds);
+        // Keyed by identity: each rescued bird is a distinct animal, and the
+        // check must not pay for a deep comparison of every bird's attributes.
+        this.rescued = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.birdIds = new IdentityHashMap<>();
+        this.birdLocations = new IdentityHashMap<>();
+        this.placementIndex = new PlacementIndex();
+        this.foodLedger = new FoodLedger();
+        this.birdIndex = indexed ? new BirdIndex() : null;
+        this.bitmapIndex = indexed ? new BirdBitmapIndex() : null;
+        this.foodDependencies = indexed ? new FoodDependencyIndex() : null;
+        this.waterBodies = indexed ? new WaterBodyIndex() : null;
+        this.placementTracker = indexed ? new PlacementTracker() : new ShardTracker();
+        this.nextBirdId = 1;
+    }
+
+    /**
+     * Validates a maximum number of aviaries and creates an allocator for it.
+     *
+     * @param maxAviaries the maximum number of aviaries
+     * @return a new allocator
+     * @throws IllegalArgumentException if maxAviaries is not positive
+     */
+    private static AviaryAllocator validateMaxAviaries(int maxAviaries) {
+        if (maxAviaries < 1) {
+            throw new IllegalArgumentException("Maximum aviaries must be at least 1");
+        }
+        return new AviaryAllocator(maxAviaries);
     }
 
     /**
      * Rescues a new bird and brings it into the conservatory.
      * The bird is added to the list of rescued birds but is not yet
-     * assigned to an aviary.
+     * assigned to an aviary, and is given a {@link BirdId} that stays the same
+     * for as long as the bird is in the conservatory. A bird that was placed
+     * before being rescued keeps the id it was given when placed.
      *
      * @param bird the bird to rescue
+     * @return the id assigned to the rescued bird
      * @throws IllegalArgumentException if bird is null
      * @throws IllegalStateException    if the bird has already been rescued
      */
-    public void rescueBird(Bird bird) {
+    public BirdId rescueBird(Bird bird) {
         if (bird == null) {
             throw new IllegalArgumentException("Bird cannot be null");
         }
-        if (rescuedBirds.contains(bird)) {
+        if (!rescued.add(bird)) {
             throw new IllegalStateException("This bird has already been rescued");
         }
         rescuedBirds.add(bird);
+        BirdId id = idOf(bird);
+        bitmapIndex.rescue(id);
+        if (journal != null) {
+            journal.birdRescued(id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of the specified bird, assigning the next one if the bird
+     * has not been given an id yet.
+     *
+     * @param bird the bird to identify
+     * @return the bird's id
+     */
+    private BirdId idOf(Bird bird) {
+        BirdId id = birdIds.get(bird);
+        if (id == null) {
+            id = new BirdId(nextBirdId++);
+            birdIds.put(bird, id);
+            bitmapIndex.add(id, bird);
+            waterBodies.add(id, bird);
+            if (journal != null) {
+                journal.birdRegistered(id, bird);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Returns whether the specified bird has been rescued by this conservatory.
+     *
+     * @param bird the bird to check
+     * @return true if the bird has been rescued, false otherwise
+     */
+    public boolean isRescued(Bird bird) {
+        return rescued.contains(bird);
+    }
+
+    /**
+     * Returns the id assigned to the specified bird when it was rescued or
+     * first placed in an aviary, whichever came first.
+     *
+     * @param bird the bird to look up
+     * @return the bird's id, or null if the bird has been neither rescued nor
+     *         placed
+     */
+    public BirdId getBirdId(Bird bird) {
+        return birdIds.get(bird);
     }
 
     /**
@@ -72,6 +260,58 @@ public class Conservatory {
         return new ArrayList<>(rescuedBirds);
     }
 
+    /**
+     * Returns a read-only view of all rescued birds. No copy is made, so the
+     * view reflects birds rescued later.
+     *
+     * @return an unmodifiable view of all rescued birds
+     */
+    public List<Bird> getRescuedBirdsView() {
+        return rescuedBirdsView;
+    }
+
+    /**
+     * Returns the maximum number of aviaries this conservatory can have.
+     *
+     * @return the maximum number of aviaries
+     */
+    public int getMaxAviaries() {
+        return allocator.getMaxAviaries();
+    }
+
+    /**
+     * Returns the number of birds each new aviary can hold.
+     *
+     * @return the aviary capacity
+     */
+    public int getAviaryCapacity() {
+        return aviaryCapacity;
+    }
+
+    /**
+     * Returns the rules for which bird types may share an aviary.
+     *
+     * @return the mixing rules
+     */
+    public CompatibilityMatrix getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the wing holding the occupied aviaries of the specified
+     * compatibility class.
+     *
+     * @param compatibility the class to look up
+     * @return the class's wing
+     * @throws IllegalArgumentException if compatibility is null
+     */
+    public Wing getWing(CompatibilityClass compatibility) {
+        if (compatibility == null) {
+            throw new IllegalArgumentException("Compatibility class cannot be null");
+        }
+        return placementIndex.wing(compatibility);
+    }
+
     /**
      * Returns a defensive copy of all aviaries.
      *
@@ -81,6 +321,34 @@ public class Conservatory {
         return new ArrayList<>(aviaries);
     }
 
+    /**
+     * Returns a read-only view of all aviaries. No copy is made, so the view
+     * reflects aviaries created later.
+     *
+     * @return an unmodifiable view of all aviaries in the conservatory
+     */
+    public List<Aviary> getAviariesView() {
+        return aviariesView;
+    }
+
+    /**
+     * Performs the specified action for each housed bird and the aviary it is
+     * in, aviary by aviary, without copying any lists.
+     *
+     * @param action the action to perform on each bird and its aviary
+     * @throws IllegalArgumentException if action is null
+     */
+    public void forEachBird(BiConsumer<? super Bird, ? super Aviary> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        for (Aviary aviary : aviaries) {
+            for (Bird bird : aviary.getBirdsView()) {
+                action.accept(bird, aviary);
+            }
+        }
+    }
+
     /**
      * Assigns a bird to an aviary in the conservatory.
      * The bird is placed in a compatible aviary if one exists with space,
@@ -104,17 +372,17 @@ public class Conservatory {
         }
 
         // First, check if bird is already in an aviary
-        for (Aviary aviary : aviaries) {
-            if (aviary.hasBird(bird)) {
-                return bird.getType().getDisplayName() + " is already in Aviary "
-                        + aviary.getId() + " (" + aviary.getLocation() + ")";
-            }
+        Aviary current = birdLocations.get(bird);
+        if (current != null) {
+            return bird.getType().getDisplayName() + " is already in Aviary "
+                    + current.getId() + " (" + current.getLocation() + ")";
         }
 
         // Try to find a compatible aviary with space
         Aviary compatibleAviary = findCompatibleAviary(bird);
 
         if (compatibleAviary != null) {
+            reuse(compatibleAviary, bird);
             compatibleAviary.addBird(bird);
             return bird.getType().getDisplayName() + " assigned to Aviary "
                     + compatibleAviary.getId() + " (" + compatibleAviary.getLocation() + ")";
@@ -127,6 +395,305 @@ public class Conservatory {
                 + newAviary.getId() + " (" + newAviary.getLocation() + ")";
     }
 
+    /**
+     * Assigns a batch of birds to aviaries at once.
+     *
+     * <p>
+     * The batch is grouped by {@link CompatibilityClass} and each group is
+     * packed as tightly as possible: the fullest existing aviaries of the
+     * group's class are topped up first, then empty aviaries are reused, and
+     * only then are new aviaries created and filled to capacity. Birds that
+     * are extinct, already housed, listed twice, or left over once the
+     * conservatory runs out of aviaries are reported as rejections rather than
+     * failing the whole batch.
+     * </p>
+     *
+     * @param birds the birds to assign
+     * @return the plan describing where each bird was placed
+     * @throws IllegalArgumentException if birds is null or contains null
+     */
+    public PlacementPlan assignAll(Collection<Bird> birds) {
+        if (birds == null) {
+            throw new IllegalArgumentException("Birds cannot be null");
+        }
+        for (Bird bird : birds) {
+            if (bird == null) {
+                throw new IllegalArgumentException("Bird cannot be null");
+            }
+        }
+
+        PlacementPlan plan = new PlacementPlan();
+        CompatibilityClass[] classes = CompatibilityClass.values();
+        List<List<Bird>> groups = new ArrayList<>(classes.length);
+        for (int i = 0; i < classes.length; i++) {
+            groups.add(new ArrayList<>());
+        }
+
+        Set<Bird> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Bird bird : birds) {
+            Aviary current = birdLocations.get(bird);
+            if (bird.isExtinct()) {
+                plan.addRejection(bird, "Extinct birds cannot be added to an aviary");
+            } else if (current != null) {
+                plan.addRejection(bird, "Already in Aviary " + current.getId());
+            } else if (!seen.add(bird)) {
+                plan.addRejection(bird, "Listed more than once in the batch");
+            } else {
+                groups.get(CompatibilityClass.of(bird).ordinal()).add(bird);
+            }
+        }
+
+        for (CompatibilityClass compatibility : classes) {
+            List<Bird> group = groups.get(compatibility.ordinal());
+            if (!group.isEmpty()) {
+                packGroup(compatibility, group, plan);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Packs a group of birds of the same compatibility class into aviaries.
+     *
+     * @param compatibility the class shared by every bird in the group
+     * @param group         the birds to place
+     * @param plan          the plan to record placements and rejections in
+     */
+    private void packGroup(CompatibilityClass compatibility, List<Bird> group, PlacementPlan plan) {
+        int next = 0;
+
+        // Keep birds that mix with the same types together, so that fill()
+        // does not stop early when the rules are narrower than the class.
+        // Under the built-in rules every bird of a class has the same mask.
+        group.sort(Comparator.comparingLong(bird -> rules.mixableWith(bird.getType())));
+
+        // Fullest first, so partly filled aviaries are closed off before new ones open
+        List<Aviary> open = placementIndex.openAviaries(compatibility);
+        open.sort(Comparator.comparingInt(Aviary::getBirdCount).reversed());
+        for (Aviary aviary : open) {
+            next = fill(aviary, group, next, false, plan);
+        }
+        for (Aviary aviary : placementIndex.emptyAviaries()) {
+            if (next == group.size()) {
+                return;
+            }
+            reuse(aviary, group.get(next));
+            next = fill(aviary, group, next, false, plan);
+        }
+
+        while (next < group.size()) {
+            Aviary aviary = tryCreateAviary(group.get(next));
+            if (aviary == null) {
+                String reason = capacityMessage();
+                for (; next < group.size(); next++) {
+                    plan.addRejection(group.get(next), reason);
+                }
+                return;
+            }
+            plan.aviaryCreated();
+            next = fill(aviary, group, next, true, plan);
+        }
+    }
+
+    /**
+     * Adds birds from a group to an aviary until the aviary is full, the
+     * group runs out, or the next bird may not mix with the residents.
+     *
+     * @param aviary    the aviary to fill
+     * @param group     the birds waiting to be placed
+     * @param next      the index of the first bird in the group still waiting
+     * @param newAviary whether the aviary was created for this batch
+     * @param plan      the plan to record placements in
+     * @return the index of the first bird in the group that was not placed
+     */
+    private int fill(Aviary aviary, List<Bird> group, int next, boolean newAviary, PlacementPlan plan) {
+        while (next < group.size() && aviary.canAddBird(group.get(next))) {
+            Bird bird = group.get(next++);
+            aviary.addBird(bird);
+            plan.addPlacement(bird, aviary, newAviary);
+        }
+        return next;
+    }
+
+    /**
+     * Plans how to consolidate half-empty aviaries without changing anything.
+     *
+     * <p>
+     * Within each wing the aviaries are ranked from fullest to emptiest, and
+     * the emptiest are emptied one at a time into the fullest that still have
+     * room and whose residents may mix with each bird. An aviary is only
+     * planned for if every one of its birds fits, and is otherwise left as it
+     * is, so every move frees an aviary. See
+     * {@link CompactionPlan} for applying the result.
+     * </p>
+     *
+     * @return the plan, empty if no aviary can be freed
+     */
+    public CompactionPlan planCompaction() {
+        CompactionPlan plan = new CompactionPlan(this);
+        List<Aviary> freed = new ArrayList<>();
+        for (CompatibilityClass compatibility : CompatibilityClass.values()) {
+            planWing(placementIndex.wing(compatibility).getAviaries(), plan, freed);
+        }
+        freed.sort(Comparator.comparingInt(Aviary::getId));
+        for (Aviary aviary : freed) {
+            plan.addFreed(aviary);
+        }
+        return plan;
+    }
+
+    /**
+     * Plans the moves that free aviaries in one wing.
+     *
+     * @param aviaries the wing's aviaries; reordered by this method
+     * @param plan     the plan to record moves in
+     * @param freed    the list to add the aviaries the moves empty to
+     */
+    private void planWing(List<Aviary> aviaries, CompactionPlan plan, List<Aviary> freed) {
+        int size = aviaries.size();
+        if (size < 2) {
+            return;
+        }
+        aviaries.sort(Comparator.comparingInt(Aviary::getBirdCount).reversed()
+                .thenComparingInt(Aviary::getId));
+
+        // Simulated bird counts and mixing masks, so nothing changes until applied
+        int[] counts = new int[size];
+        long[] masks = new long[size];
+        boolean[] received = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            Aviary aviary = aviaries.get(i);
+            counts[i] = aviary.getBirdCount();
+            masks[i] = -1L;
+            for (Bird resident : aviary.getBirdsView()) {
+                masks[i] &= rules.mixableWith(resident.getType());
+            }
+        }
+
+        // Receivers before this index are full
+        int open = 0;
+        for (int donor = size - 1; donor > open; donor--) {
+            if (received[donor]) {
+                continue;
+            }
+            Aviary from = aviaries.get(donor);
+            List<Bird> residents = from.getBirds();
+            int[] targets = new int[residents.size()];
+            long[] previousMasks = new long[residents.size()];
+            int openBefore = open;
+            int placed = 0;
+            for (; placed < residents.size(); placed++) {
+                Bird bird = residents.get(placed);
+                while (open < donor && counts[open] >= aviaries.get(open).getCapacity()) {
+                    open++;
+                }
+                int target = findReceiver(aviaries, counts, masks, open, donor, bird);
+                if (target < 0) {
+                    break;
+                }
+                targets[placed] = target;
+                previousMasks[placed] = masks[target];
+                counts[target]++;
+                masks[target] &= rules.mixableWith(bird.getType());
+            }
+
+            if (placed < residents.size()) {
+                // The donor cannot be emptied; a fuller one may still fit
+                // elsewhere when the rules are narrower than the wing
+                for (int i = placed - 1; i >= 0; i--) {
+                    counts[targets[i]]--;
+                    masks[targets[i]] = previousMasks[i];
+                }
+                open = openBefore;
+                continue;
+            }
+            for (int i = 0; i < residents.size(); i++) {
+                received[targets[i]] = true;
+                plan.addMove(residents.get(i), from, aviaries.get(targets[i]));
+            }
+            freed.add(from);
+        }
+    }
+
+    /**
+     * Finds the fullest receiver with room that a bird may join.
+     *
+     * @return the receiver's index, or -1 if none between from and to
+     */
+    private static int findReceiver(List<Aviary> aviaries, int[] counts, long[] masks,
+            int from, int to, Bird bird) {
+        long bit = 1L << bird.getType().ordinal();
+        for (int i = from; i < to; i++) {
+            if (counts[i] < aviaries.get(i).getCapacity() && (masks[i] & bit) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Applies a plan made by {@link #planCompaction()}. Either every move in
+     * the plan is made or, if one fails, the moves already made are undone and
+     * the failure is rethrown. Freed aviaries are left empty, ready for birds
+     * of any class; one reused for another classification is given a new
+     * section in that classification's wing.
+     *
+     * @param plan the plan to apply
+     * @throws IllegalArgumentException if plan is null or was made for another
+     *                                  conservatory
+     * @throws IllegalStateException    if the plan has already been applied,
+     *                                  or an aviary it touches has changed since
+     *                                  it was made
+     */
+    public void applyCompaction(CompactionPlan plan) {
+        if (plan == null) {
+            throw new IllegalArgumentException("Plan cannot be null");
+        }
+        if (plan.getConservatory() != this) {
+            throw new IllegalArgumentException("Plan was made for another conservatory");
+        }
+        if (plan.isApplied()) {
+            throw new IllegalStateException("Plan has already been applied");
+        }
+        if (!plan.isCurrent()) {
+            throw new IllegalStateException("Aviaries have changed since the plan was made");
+        }
+
+        List<CompactionPlan.Move> moves = plan.getMoves();
+        int made = 0;
+        try {
+            for (; made < moves.size(); made++) {
+                CompactionPlan.Move move = moves.get(made);
+                move.getFrom().removeBird(move.getBird());
+                try {
+                    move.getTo().addBird(move.getBird());
+                } catch (RuntimeException e) {
+                    move.getFrom().addBird(move.getBird());
+                    throw e;
+                }
+            }
+        } catch (RuntimeException e) {
+            for (int i = made - 1; i >= 0; i--) {
+                CompactionPlan.Move move = moves.get(i);
+                move.getTo().removeBird(move.getBird());
+                move.getFrom().addBird(move.getBird());
+            }
+            throw e;
+        }
+        plan.markApplied();
+    }
+
+    /**
+     * Plans and applies a compaction in one step.
+     *
+     * @return the applied plan
+     */
+    public CompactionPlan compact() {
+        CompactionPlan plan = planCompaction();
+        applyCompaction(plan);
+        return plan;
+    }
+
     /**
      * Finds an existing compatible aviary for the given bird.
      *
@@ -134,12 +701,7 @@ public class Conservatory {
      * @return a compatible aviary, or null if none exists
      */
     private Aviary findCompatibleAviary(Bird bird) {
-        for (Aviary aviary : aviaries) {
-            if (aviary.canAddBird(bird)) {
-                return aviary;
-            }
-        }
-        return null;
+        return placementIndex.find(bird);
     }
 
     /**
@@ -151,33 +713,99 @@ public class Conservatory {
      *                               capacity
      */
     private Aviary createNewAviary(Bird bird) {
-        if (aviaries.size() >= MAX_AVIARIES) {
-            throw new IllegalStateException(
-                    "Conservatory has reached maximum capacity of " + MAX_AVIARIES + " aviaries");
+        Aviary newAviary = tryCreateAviary(bird);
+        if (newAviary == null) {
+            throw new IllegalStateException(capacityMessage());
+        }
+        return newAviary;
+    }
+
+    /**
+     * Creates a new aviary for the given bird if the aviary limit allows it.
+     *
+     * @param bird the bird that will be placed in the new aviary
+     * @return the newly created aviary, or null if the limit has been reached
+     */
+    private Aviary tryCreateAviary(Bird bird) {
+        int id = allocator.tryAllocate();
+        if (id < 0) {
+            return null;
+        }
+        String classification = bird.getType().getClassification();
+        CompatibilityClass compatibility = CompatibilityClass.of(bird);
+        int section = placementIndex.wing(compatibility).nextSection(classification);
+        Aviary newAviary = addAviary(id, generateLocation(classification, section), aviaryCapacity);
+        if (journal != null) {
+            journal.aviaryCreated(newAviary, compatibility, classification, section);
         }
+        return newAviary;
+    }
 
-        String location = generateLocation(bird);
-        Aviary newAviary = new Aviary(nextAviaryId++, location);
+    /**
+     * Creates an empty aviary with the specified attributes and starts
+     * tracking it.
+     *
+     * @param id       the aviary's id
+     * @param location the aviary's location
+     * @param capacity the aviary's capacity
+     * @return the new aviary
+     */
+    private Aviary addAviary(int id, String location, int capacity) {
+        Aviary newAviary = new Aviary(id, location, capacity, rules);
+        newAviary.setListener(placementTracker);
         aviaries.add(newAviary);
+        aviariesById.put(id, newAviary);
+        placementIndex.aviaryCreated(newAviary);
         return newAviary;
     }
 
+    /**
+     * Prepares an empty aviary to take its first bird. An aviary emptied by
+     * birds of another classification is moved to a new section of the
+     * bird's wing, so its location never names birds it no longer houses.
+     *
+     * @param aviary the empty aviary about to be reused
+     * @param bird   the bird that will be placed in it
+     */
+    private void reuse(Aviary aviary, Bird bird) {
+        String classification = bird.getType().getClassification();
+        if (!aviary.isEmpty() || aviary.getLocation().startsWith(locationPrefix(classification))) {
+            return;
+        }
+        CompatibilityClass compatibility = CompatibilityClass.of(bird);
+        int section = placementIndex.wing(compatibility).nextSection(classification);
+        aviary.relocate(generateLocation(classification, section));
+        if (journal != null) {
+            journal.aviaryRelocated(aviary, compatibility, classification, section);
+        }
+    }
+
+    private String capacityMessage() {
+        return "Conservatory has reached maximum capacity of " + allocator.getMaxAviaries() + " aviaries";
+    }
+
     /**
      * Generates a location name for a new aviary based on the bird type.
+     * Sections are numbered per classification within the bird's wing.
      *
-     * @param bird the bird that will be housed in the aviary
+     * @param classification the classification of the bird that will be
+     *                       housed in the aviary
+     * @param section        the aviary's section number
      * @return a descriptive location name
      */
-    private String generateLocation(Bird bird) {
-        String classification = bird.getClassification();
-        int count = 1;
-        for (Aviary aviary : aviaries) {
-            if (aviary.getClassificationType() != null
-                    && aviary.getClassificationType().equals(classification)) {
-                count++;
-            }
-        }
-        return classification + " Wing - Section " + count;
+    private static String generateLocation(String classification, int section) {
+        return locationPrefix(classification) + section;
+    }
+
+    /**
+     * Returns the start shared by the location names of every section for a
+     * classification.
+     *
+     * @param classification the classification the sections house
+     * @return the location prefix
+     */
+    private static String locationPrefix(String classification) {
+        return classification + " Wing - Section ";
     }
 
     /**
@@ -185,20 +813,167 @@ public class Conservatory {
      * in the conservatory. Each bird is assumed to require 1 unit of each
      * food type in their preferred food list.
      *
+     * <p>
+     * The totals are kept up to date as birds are placed in and removed from
+     * aviaries, so this only copies them out rather than visiting every bird.
+     * </p>
+     *
      * @return a map of food types to quantities needed
      */
     public Map<Food, Integer> calculateFoodQuantities() {
-        Map<Food, Integer> foodQuantities = new HashMap<>();
+        return foodLedger.toMap();
+    }
 
-        for (Aviary aviary : aviaries) {
-            for (Bird bird : aviary.getBirds()) {
-                for (Food food : bird.getPreferredFood()) {
-                    foodQuantities.merge(food, 1, Integer::sum);
-                }
-            }
+    /**
+     * Returns the quantity of a single food type needed to feed all birds in
+     * the conservatory. Unlike {@link #calculateFoodQuantities()}, this does
+     * not allocate.
+     *
+     * @param food the food to look up
+     * @return the quantity needed
+     * @throws IllegalArgumentException if food is null
+     */
+    public int getFoodQuantity(Food food) {
+        if (food == null) {
+            throw new IllegalArgumentException("Food cannot be null");
+        }
+        return (int) foodLedger.get(food);
+    }
+
+    /**
+     * Returns the quantities of each food type needed to feed all birds in the
+     * conservatory as a primitive {@link FoodTally}, which can be merged with
+     * the tallies of other conservatories or days without boxing.
+     *
+     * @return a new tally of the food needed
+     */
+    public FoodTally getFoodTally() {
+        return foodLedger.getTally();
+    }
+
+    /**
+     * Returns the quantities of each food type needed, broken down by bird
+     * classification (e.g., "Waterfowl", "Parrots").
+     *
+     * @return a new map of classification names to food tallies
+     */
+    public Map<String, FoodTally> getFoodTallyByClassification() {
+        return foodLedger.getTallyByClassification();
+    }
+
+    /**
+     * Returns the housed birds that prefer the specified food, in the order
+     * they were placed: the birds affected if the food runs out. This takes
+     * time proportional to the number of birds returned.
+     *
+     * @param food the food to look up
+     * @return a new list of birds, empty if no housed bird prefers the food
+     * @throws IllegalArgumentException if food is null
+     */
+    public List<Bird> getBirdsEating(Food food) {
+        if (food == null) {
+            throw new IllegalArgumentException("Food cannot be null");
+        }
+        return foodDependencies.birds(food);
+    }
+
+    /**
+     * Returns the number of housed birds that prefer the specified food.
+     *
+     * @param food the food to look up
+     * @return the number of birds
+     * @throws IllegalArgumentException if food is null
+     */
+    public int getBirdCountEating(Food food) {
+        if (food == null) {
+            throw new IllegalArgumentException("Food cannot be null");
         }
+        return foodDependencies.birdCount(food);
+    }
 
-        return foodQuantities;
+    /**
+     * Returns each aviary that houses a bird preferring the specified food,
+     * with the number of its residents that prefer it, in order of aviary id.
+     * This takes time proportional to the number of aviaries returned.
+     *
+     * @param food the food to look up
+     * @return a new map of aviaries to bird counts, empty if no housed bird
+     *         prefers the food
+     * @throws IllegalArgumentException if food is null
+     */
+    public Map<Aviary, Integer> getAviariesEating(Food food) {
+        if (food == null) {
+            throw new IllegalArgumentException("Food cannot be null");
+        }
+        return foodDependencies.aviaries(food);
+    }
+
+    /**
+     * Returns the names of the bodies of water the conservatory's water birds
+     * come from that start with the specified prefix, ignoring case, in
+     * alphabetical order. Names differing only in case or surrounding
+     * whitespace are one body of water, listed by the first spelling seen.
+     *
+     * @param prefix the prefix to match; empty to list every body of water
+     * @return a new list of names, empty if none match
+     * @throws IllegalArgumentException if prefix is null
+     */
+    public List<String> findBodiesOfWater(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        return waterBodies.names(prefix);
+    }
+
+    /**
+     * Returns every water bird the conservatory has taken in from the
+     * specified body of water, ignoring case, whether rescued, housed, or
+     * both, in the order they were given ids.
+     *
+     * @param bodyOfWater the body of water to look up
+     * @return a new list of birds, empty if there are none
+     * @throws IllegalArgumentException if bodyOfWater is null
+     */
+    public List<Bird> getBirdsFromWater(String bodyOfWater) {
+        if (bodyOfWater == null) {
+            throw new IllegalArgumentException("Body of water cannot be null");
+        }
+        return waterBodies.birds(bodyOfWater);
+    }
+
+    /**
+     * Returns every water bird the conservatory has taken in from the same
+     * body of water as the specified bird, including that bird if it has been
+     * taken in.
+     *
+     * @param bird the bird whose body of water to look up
+     * @return a new list of birds, empty if the bird is not a water bird
+     * @throws IllegalArgumentException if bird is null
+     */
+    public List<Bird> getBirdsFromSameWater(Bird bird) {
+        if (bird == null) {
+            throw new IllegalArgumentException("Bird cannot be null");
+        }
+        if (!(bird instanceof WaterBird)) {
+            return new ArrayList<>();
+        }
+        return waterBodies.birds(((WaterBird) bird).getBodyOfWater());
+    }
+
+    /**
+     * Returns each aviary housing a bird from the specified body of water,
+     * ignoring case, with the number of such birds it houses, in order of
+     * aviary id.
+     *
+     * @param bodyOfWater the body of water to look up
+     * @return a new map of aviaries to bird counts, empty if there are none
+     * @throws IllegalArgumentException if bodyOfWater is null
+     */
+    public Map<Aviary, Integer> getAviariesFromWater(String bodyOfWater) {
+        if (bodyOfWater == null) {
+            throw new IllegalArgumentException("Body of water cannot be null");
+        }
+        return waterBodies.aviaries(bodyOfWater);
     }
 
     /**
@@ -213,15 +988,14 @@ public class Conservatory {
             throw new IllegalArgumentException("Bird cannot be null");
         }
 
-        for (Aviary aviary : aviaries) {
-            if (aviary.hasBird(bird)) {
-                return bird.getType().getDisplayName() + " is located in Aviary "
-                        + aviary.getId() + " (" + aviary.getLocation() + ")";
-            }
+        Aviary aviary = birdLocations.get(bird);
+        if (aviary != null) {
+            return bird.getType().getDisplayName() + " is located in Aviary "
+                    + aviary.getId() + " (" + aviary.getLocation() + ")";
         }
 
         // Check if bird is rescued but not assigned
-        if (rescuedBirds.contains(bird)) {
+        if (rescued.contains(bird)) {
             return bird.getType().getDisplayName()
                     + " has been rescued but is not yet assigned to an aviary";
         }
@@ -229,6 +1003,16 @@ public class Conservatory {
         return bird.getType().getDisplayName() + " is not found in this conservatory";
     }
 
+    /**
+     * Returns the aviary the specified bird is housed in.
+     *
+     * @param bird the bird to look up
+     * @return the bird's aviary, or null if the bird is not housed here
+     */
+    public Aviary getAviaryOf(Bird bird) {
+        return birdLocations.get(bird);
+    }
+
     /**
      * Returns the sign for a specific aviary.
      *
@@ -237,10 +1021,9 @@ public class Conservatory {
      * @throws IllegalArgumentException if no aviary with the given ID exists
      */
     public String getAviarySign(int aviaryId) {
-        for (Aviary aviary : aviaries) {
-            if (aviary.getId() == aviaryId) {
-                return aviary.getSign();
-            }
+        Aviary aviary = aviariesById.get(aviaryId);
+        if (aviary != null) {
+            return aviary.getSign();
         }
         throw new IllegalArgumentException("No aviary found with ID: " + aviaryId);
     }
@@ -252,87 +1035,299 @@ public class Conservatory {
      * @return a formatted string representing the conservatory map
      */
     public String printMap() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("╔══════════════════════════════════════════════════════════════╗\n");
-        sb.append("║              CONSERVATORY MAP                                ║\n");
-        sb.append("╚══════════════════════════════════════════════════════════════╝\n\n");
-
-        if (aviaries.isEmpty()) {
-            sb.append("No aviaries have been created yet.\n");
-        } else {
-            for (Aviary aviary : aviaries) {
-                sb.append("┌─ Aviary ").append(aviary.getId());
-                sb.append(" ─ ").append(aviary.getLocation()).append(" ");
-                sb.append("─".repeat(Math.max(0, 45 - aviary.getLocation().length())));
-                sb.append("┐\n");
-
-                List<Bird> birds = aviary.getBirds();
-                if (birds.isEmpty()) {
-                    sb.append("│  (empty)").append(" ".repeat(53)).append("│\n");
-                } else {
-                    for (Bird bird : birds) {
-                        String birdInfo = "  • " + bird.getType().getDisplayName()
-                                + " (" + bird.getClassification() + ")";
-                        sb.append("│").append(birdInfo);
-                        sb.append(" ".repeat(Math.max(0, 62 - birdInfo.length()))).append("│\n");
-                    }
-                }
-                sb.append("└").append("─".repeat(62)).append("┘\n\n");
-            }
-        }
-
-        return sb.toString();
+        return ConservatoryReports.map(aviaries);
     }
 
     /**
      * Returns an alphabetical index of all birds in the conservatory
-     * along with their locations.
+     * along with their locations. Birds of the same type are listed in
+     * {@link BirdId} order.
+     *
+     * <p>
+     * The index is kept sorted as birds are placed and removed, so rendering
+     * it is a single pass with no sorting.
+     * </p>
      *
      * @return a formatted string representing the alphabetical bird index
      */
     public String printIndex() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("╔══════════════════════════════════════════════════════════════╗\n");
-        sb.append("║              BIRD INDEX (A-Z)                                ║\n");
-        sb.append("╚══════════════════════════════════════════════════════════════╝\n\n");
+        return ConservatoryReports.index(birdIndex);
+    }
 
-        // Collect all birds with their aviary info
-        List<BirdLocation> birdLocations = new ArrayList<>();
+    /**
+     * Writes a map of the conservatory to the specified output one aviary at a
+     * time, without building the whole map in memory. Any {@link java.io.Writer}
+     * can be passed as the output.
+     *
+     * @param out where to write the map
+     * @throws IOException              if the output cannot be written to
+     * @throws IllegalArgumentException if out is null
+     */
+    public void printMap(Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("Output cannot be null");
+        }
+        ConservatoryReports.map(aviaries, out);
+    }
 
-        for (Aviary aviary : aviaries) {
-            for (Bird bird : aviary.getBirds()) {
-                birdLocations.add(new BirdLocation(bird, aviary));
-            }
+    /**
+     * Writes a map of the conservatory to the specified channel as UTF-8, one
+     * buffer at a time.
+     *
+     * @param channel the channel to write the map to
+     * @throws IOException              if the channel cannot be written to
+     * @throws IllegalArgumentException if channel is null
+     */
+    public void printMap(WritableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
         }
+        ConservatoryReports.map(aviaries, channel);
+    }
+
+    /**
+     * Writes an alphabetical index of all birds in the conservatory to the
+     * specified output, one line at a time. Any {@link java.io.Writer} can be
+     * passed as the output.
+     *
+     * @param out where to write the index
+     * @throws IOException              if the output cannot be written to
+     * @throws IllegalArgumentException if out is null
+     */
+    public void printIndex(Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("Output cannot be null");
+        }
+        ConservatoryReports.index(birdIndex, out);
+    }
 
-        if (birdLocations.isEmpty()) {
-            sb.append("No birds are currently housed in the conservatory.\n");
-        } else {
-            // Sort alphabetically by bird type name
-            birdLocations.sort(Comparator.comparing(bl -> bl.bird.getType().getDisplayName()));
+    /**
+     * Writes an alphabetical index of all birds in the conservatory to the
+     * specified channel as UTF-8, one buffer at a time.
+     *
+     * @param channel the channel to write the index to
+     * @throws IOException              if the channel cannot be written to
+     * @throws IllegalArgumentException if channel is null
+     */
+    public void printIndex(WritableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
+        }
+        ConservatoryReports.index(birdIndex, channel);
+    }
 
-            for (BirdLocation bl : birdLocations) {
-                sb.append(String.format("%-30s → Aviary %d (%s)%n",
-                        bl.bird.getType().getDisplayName(),
-                        bl.aviary.getId(),
-                        bl.aviary.getLocation()));
+    /**
+     * Returns a page of the alphabetical bird index: up to limit housed birds,
+     * starting at the specified position, in the order {@link #printIndex()}
+     * lists them.
+     *
+     * @param offset the position of the first bird to return
+     * @param limit  the maximum number of birds to return
+     * @return a list of birds, empty if offset is past the end of the index
+     * @throws IllegalArgumentException if offset or limit is negative
+     */
+    public List<Bird> getIndexPage(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        List<Bird> page = new ArrayList<>();
+        for (BirdIndex.Entry entry : birdIndex.page(offset, limit)) {
+            page.add(entry.bird);
+        }
+        return page;
+    }
+
+    /**
+     * Returns the birds matching a query, in the order they were given ids.
+     * Every bird with an id is considered, whether rescued, placed, or both.
+     *
+     * @param query the query to answer
+     * @return a list of matching birds, empty if none match
+     * @throws IllegalArgumentException if query is null
+     */
+    public List<Bird> query(BirdQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        BitSet rows = query.evaluate(bitmapIndex);
+        List<Bird> birds = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            birds.add(bitmapIndex.bird(row));
+        }
+        return birds;
+    }
+
+    /**
+     * Returns the number of birds matching a query, without listing them.
+     *
+     * @param query the query to answer
+     * @return the number of matching birds
+     * @throws IllegalArgumentException if query is null
+     */
+    public int count(BirdQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        return query.evaluate(bitmapIndex).cardinality();
+    }
+
+    /**
+     * Keeps the bird-to-aviary index in step with the conservatory's aviaries.
+     */
+    private class PlacementTracker implements AviaryListener {
+        @Override
+        public void birdAdded(Aviary aviary, Bird bird) {
+            birdLocations.put(bird, aviary);
+            foodLedger.add(bird);
+            placementIndex.birdAdded(aviary);
+            BirdId id = idOf(bird);
+            birdIndex.add(id, bird, aviary);
+            bitmapIndex.place(id, aviary);
+            foodDependencies.add(id, bird, aviary);
+            waterBodies.place(bird, aviary);
+            if (journal != null) {
+                journal.birdPlaced(id, aviary);
             }
         }
 
-        return sb.toString();
+        @Override
+        public void birdRemoved(Aviary aviary, Bird bird) {
+            birdLocations.remove(bird);
+            foodLedger.remove(bird);
+            placementIndex.birdRemoved(aviary, bird);
+            BirdId id = birdIds.get(bird);
+            birdIndex.remove(id, bird);
+            bitmapIndex.remove(id, aviary);
+            foodDependencies.remove(id, bird, aviary);
+            waterBodies.remove(bird, aviary);
+            if (journal != null) {
+                journal.birdRemoved(id, aviary);
+            }
+        }
+    }
+
+    /**
+     * Keeps only what placement needs in step with a placement shard's
+     * aviaries.
+     */
+    private class ShardTracker implements AviaryListener {
+        @Override
+        public void birdAdded(Aviary aviary, Bird bird) {
+            birdLocations.put(bird, aviary);
+            foodLedger.add(bird);
+            placementIndex.birdAdded(aviary);
+        }
+
+        @Override
+        public void birdRemoved(Aviary aviary, Bird bird) {
+            birdLocations.remove(bird);
+            foodLedger.remove(bird);
+            placementIndex.birdRemoved(aviary, bird);
+        }
+    }
+
+    // ==========================================================================
+    // Journaling and restore hooks, used by JournaledConservatory
+    // ==========================================================================
+
+    /**
+     * Registers the journal to notify of every change, or stops notifying if
+     * journal is null.
+     *
+     * @param journal the journal to notify
+     */
+    void setJournal(ConservatoryJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Returns the aviary with the specified id.
+     *
+     * @param aviaryId the id to look up
+     * @return the aviary, or null if there is none
+     */
+    Aviary aviaryById(int aviaryId) {
+        return aviariesById.get(aviaryId);
+    }
+
+    /**
+     * Returns the id the next new bird will be given.
+     *
+     * @return the next bird id value
+     */
+    long peekNextBirdId() {
+        return nextBirdId;
     }
 
     /**
-     * Helper class to associate a bird with its aviary location.
+     * Performs the specified action for every bird that has been given an id.
+     *
+     * @param action the action to perform on each bird and its id
+     */
+    void forEachBirdId(BiConsumer<? super Bird, ? super BirdId> action) {
+        birdIds.forEach(action);
+    }
+
+    /**
+     * Restores a bird's id without notifying the journal.
+     *
+     * @param id   the bird's id
+     * @param bird the bird
+     * @throws IllegalStateException if the bird already has an id
+     */
+    void restoreBird(BirdId id, Bird bird) {
+        if (birdIds.putIfAbsent(bird, id) != null) {
+            throw new IllegalStateException("Bird already has an id");
+        }
+        bitmapIndex.add(id, bird);
+        waterBodies.add(id, bird);
+        nextBirdId = Math.max(nextBirdId, id.getValue() + 1);
+    }
+
+    /**
+     * Restores a bird's rescue without notifying the journal.
+     *
+     * @param bird the rescued bird, whose id has already been restored
+     * @throws IllegalStateException if the bird has already been rescued
      */
-    private static class BirdLocation {
-        final Bird bird;
-        final Aviary aviary;
+    void restoreRescue(Bird bird) {
+        if (!rescued.add(bird)) {
+            throw new IllegalStateException("This bird has already been rescued");
+        }
+        rescuedBirds.add(bird);
+        bitmapIndex.rescue(birdIds.get(bird));
+    }
 
-        BirdLocation(Bird bird, Aviary aviary) {
-            this.bird = bird;
-            this.aviary = aviary;
+    /**
+     * Restores an empty aviary without notifying the journal.
+     *
+     * @param id       the aviary's id
+     * @param location the aviary's location
+     * @param capacity the aviary's capacity
+     * @return the restored aviary
+     * @throws IllegalStateException if the aviary already exists or is over
+     *                               the aviary limit
+     */
+    Aviary restoreAviary(int id, String location, int capacity) {
+        if (aviariesById.containsKey(id) || !allocator.restore(id)) {
+            throw new IllegalStateException("Cannot restore Aviary " + id);
         }
+        return addAviary(id, location, capacity);
+    }
+
+    /**
+     * Restores a wing's section counter so that new aviaries keep numbering
+     * after the restored ones.
+     *
+     * @param compatibility  the wing the section was numbered in
+     * @param classification the classification the section was numbered for
+     * @param section        the highest section number used
+     */
+    void restoreSection(CompatibilityClass compatibility, String classification, int section) {
+        placementIndex.wing(compatibility).restoreSection(classification, section);
     }
 
     @Override
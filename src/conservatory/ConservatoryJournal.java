@@ -0,0 +1,62 @@
+package conservatory;
+
+import birds.Bird;
+
+/**
+ * Receives every change to a {@link Conservatory}'s state, in the order the
+ * changes happen, so that they can be recorded and replayed later.
+ */
+interface ConservatoryJournal {
+
+    /**
+     * Called when a bird is first given an id, on rescue or first placement.
+     *
+     * @param id   the id given to the bird
+     * @param bird the bird
+     */
+    void birdRegistered(BirdId id, Bird bird);
+
+    /**
+     * Called when a bird is rescued.
+     *
+     * @param id the rescued bird's id
+     */
+    void birdRescued(BirdId id);
+
+    /**
+     * Called when a new aviary is created.
+     *
+     * @param aviary         the new aviary
+     * @param compatibility  the wing the aviary's section was numbered in
+     * @param classification the classification the section was numbered for
+     * @param section        the aviary's section number
+     */
+    void aviaryCreated(Aviary aviary, CompatibilityClass compatibility, String classification, int section);
+
+    /**
+     * Called when an empty aviary is moved to a new section before it is
+     * reused.
+     *
+     * @param aviary         the aviary, already at its new location
+     * @param compatibility  the wing the new section was numbered in
+     * @param classification the classification the section was numbered for
+     * @param section        the aviary's new section number
+     */
+    void aviaryRelocated(Aviary aviary, CompatibilityClass compatibility, String classification, int section);
+
+    /**
+     * Called after a bird has been added to an aviary.
+     *
+     * @param id     the bird's id
+     * @param aviary the aviary the bird was added to
+     */
+    void birdPlaced(BirdId id, Aviary aviary);
+
+    /**
+     * Called after a bird has been removed from an aviary.
+     *
+     * @param id     the bird's id
+     * @param aviary the aviary the bird was removed from
+     */
+    void birdRemoved(BirdId id, Aviary aviary);
+}
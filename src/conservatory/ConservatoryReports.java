@@ -0,0 +1,188 @@
+package conservatory;
+
+import birds.Bird;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Renders the conservatory-wide reports shared by {@link Conservatory} and
+ * {@link ConcurrentConservatory}.
+ *
+ * <p>
+ * Reports are written to an {@link Appendable} one aviary (or one index line)
+ * at a time rather than assembled in memory first, so a caller streaming to a
+ * writer or channel sees output immediately and holds only a line's worth of
+ * text at once.
+ * </p>
+ */
+final class ConservatoryReports {
+
+    private ConservatoryReports() {
+    }
+
+    /**
+     * Returns a map of the specified aviaries and the birds they house.
+     *
+     * @param aviaries the aviaries to list, in display order
+     * @return a formatted string representing the conservatory map
+     */
+    static String map(Collection<Aviary> aviaries) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            map(aviaries, sb);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes a map of the specified aviaries and the birds they house to a
+     * channel as UTF-8.
+     *
+     * @param aviaries the aviaries to list, in display order
+     * @param channel  the channel to write to
+     * @throws IOException if the channel cannot be written to
+     */
+    static void map(Collection<Aviary> aviaries, WritableByteChannel channel) throws IOException {
+        ChannelAppendable out = new ChannelAppendable(channel);
+        map(aviaries, out);
+        out.flush();
+    }
+
+    /**
+     * Writes a map of the specified aviaries and the birds they house.
+     *
+     * @param aviaries the aviaries to list, in display order
+     * @param out      where to write the map
+     * @throws IOException if the output cannot be written to
+     */
+    static void map(Collection<Aviary> aviaries, Appendable out) throws IOException {
+        out.append("╔══════════════════════════════════════════════════════════════╗\n");
+        out.append("║              CONSERVATORY MAP                                ║\n");
+        out.append("╚══════════════════════════════════════════════════════════════╝\n\n");
+
+        if (aviaries.isEmpty()) {
+            out.append("No aviaries have been created yet.\n");
+            return;
+        }
+        for (Aviary aviary : aviaries) {
+            out.append("┌─ Aviary ").append(Integer.toString(aviary.getId()));
+            out.append(" ─ ").append(aviary.getLocation()).append(" ");
+            repeat(out, '─', 45 - aviary.getLocation().length());
+            out.append("┐\n");
+
+            List<Bird> birds = aviary.getBirdsView();
+            if (birds.isEmpty()) {
+                out.append("│  (empty)");
+                repeat(out, ' ', 53);
+                out.append("│\n");
+            } else {
+                for (Bird bird : birds) {
+                    String displayName = bird.getType().getDisplayName();
+                    String classification = bird.getClassification();
+                    out.append("│  • ").append(displayName);
+                    out.append(" (").append(classification).append(")");
+                    // "  • " + name + " (" + classification + ")"
+                    repeat(out, ' ', 62 - (displayName.length() + classification.length() + 7));
+                    out.append("│\n");
+                }
+            }
+            out.append("└");
+            repeat(out, '─', 62);
+            out.append("┘\n\n");
+        }
+    }
+
+    /**
+     * Returns the alphabetical index held by a sorted bird index.
+     *
+     * @param index the index to render
+     * @return a formatted string representing the alphabetical bird index
+     */
+    static String index(Iterable<BirdIndex.Entry> index) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            index(index, sb);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the alphabetical index held by a sorted bird index to a channel
+     * as UTF-8.
+     *
+     * @param index   the index to render
+     * @param channel the channel to write to
+     * @throws IOException if the channel cannot be written to
+     */
+    static void index(Iterable<BirdIndex.Entry> index, WritableByteChannel channel) throws IOException {
+        ChannelAppendable out = new ChannelAppendable(channel);
+        index(index, out);
+        out.flush();
+    }
+
+    /**
+     * Writes the alphabetical index held by a sorted bird index. The entries
+     * are already in order, so this is a single pass with no sorting.
+     *
+     * @param index the index to render
+     * @param out   where to write the index
+     * @throws IOException if the output cannot be written to
+     */
+    static void index(Iterable<BirdIndex.Entry> index, Appendable out) throws IOException {
+        out.append("╔══════════════════════════════════════════════════════════════╗\n");
+        out.append("║              BIRD INDEX (A-Z)                                ║\n");
+        out.append("╚══════════════════════════════════════════════════════════════╝\n\n");
+
+        boolean empty = true;
+        for (BirdIndex.Entry entry : index) {
+            writeIndexLine(out, entry.bird, entry.aviary);
+            empty = false;
+        }
+        if (empty) {
+            out.append("No birds are currently housed in the conservatory.\n");
+        }
+    }
+
+    /**
+     * Writes one line of the bird index, equivalent to formatting
+     * {@code "%-30s → Aviary %d (%s)%n"} without the cost of a formatter.
+     *
+     * @param out    where to write the line
+     * @param bird   the bird to list
+     * @param aviary the aviary the bird is housed in
+     * @throws IOException if the output cannot be written to
+     */
+    private static void writeIndexLine(Appendable out, Bird bird, Aviary aviary) throws IOException {
+        String displayName = bird.getType().getDisplayName();
+        out.append(displayName);
+        repeat(out, ' ', 30 - displayName.length());
+        out.append(" → Aviary ").append(Integer.toString(aviary.getId()));
+        out.append(" (").append(aviary.getLocation()).append(")");
+        out.append(System.lineSeparator());
+    }
+
+    /**
+     * Writes a character the specified number of times, or not at all if the
+     * count is not positive.
+     *
+     * @param out   where to write
+     * @param c     the character to write
+     * @param count the number of times to write it
+     * @throws IOException if the output cannot be written to
+     */
+    private static void repeat(Appendable out, char c, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.append(c);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package conservatory;
+
+import birds.Bird;
+import birds.BirdCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes compact snapshots of a {@link Conservatory}'s state.
+ *
+ * <p>
+ * A snapshot holds the conservatory's limits and mixing rules, every bird
+ * that has been given an id, the order birds were rescued in, every aviary
+ * with its residents, and each wing's section counters. It also names the
+ * generation of the event log that continues from it, so that recovery
+ * replays only the events recorded after the snapshot was taken.
+ * </p>
+ */
+final class ConservatorySnapshot {
+    private static final int MAGIC = 0x42495244; // "BIRD"
+    private static final int FORMAT_VERSION = 2;
+
+    private ConservatorySnapshot() {
+    }
+
+    /**
+     * The limits, mixing rules and log generation stored at the start of a
+     * snapshot.
+     */
+    static final class Header {
+        final int maxAviaries;
+        final int aviaryCapacity;
+        final CompatibilityMatrix rules;
+        final long generation;
+
+        Header(int maxAviaries, int aviaryCapacity, CompatibilityMatrix rules, long generation) {
+            this.maxAviaries = maxAviaries;
+            this.aviaryCapacity = aviaryCapacity;
+            this.rules = rules;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Writes a snapshot of a conservatory to a file and forces it to disk.
+     *
+     * @param conservatory the conservatory to snapshot
+     * @param generation   the generation of the event log that continues from
+     *                     this snapshot
+     * @param file         the file to write, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Conservatory conservatory, long generation, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(conservatory.getMaxAviaries());
+            out.writeInt(conservatory.getAviaryCapacity());
+            long[] masks = conservatory.getRules().masks();
+            out.writeInt(masks.length);
+            for (long mask : masks) {
+                out.writeLong(mask);
+            }
+            out.writeLong(generation);
+
+            List<Bird> birds = new ArrayList<>();
+            List<BirdId> ids = new ArrayList<>();
+            conservatory.forEachBirdId((bird, id) -> {
+                birds.add(bird);
+                ids.add(id);
+            });
+            out.writeInt(birds.size());
+            for (int i = 0; i < birds.size(); i++) {
+                out.writeLong(ids.get(i).getValue());
+                BirdCodec.write(birds.get(i), out);
+            }
+
+            List<Bird> rescued = conservatory.getRescuedBirdsView();
+            out.writeInt(rescued.size());
+            for (Bird bird : rescued) {
+                out.writeLong(conservatory.getBirdId(bird).getValue());
+            }
+
+            List<Aviary> aviaries = conservatory.getAviariesView();
+            out.writeInt(aviaries.size());
+            for (Aviary aviary : aviaries) {
+                out.writeInt(aviary.getId());
+                out.writeUTF(aviary.getLocation());
+                out.writeInt(aviary.getCapacity());
+                List<Bird> residents = aviary.getBirdsView();
+                out.writeInt(residents.size());
+                for (Bird bird : residents) {
+                    out.writeLong(conservatory.getBirdId(bird).getValue());
+                }
+            }
+
+            for (CompatibilityClass compatibility : CompatibilityClass.values()) {
+                Map<String, Integer> sections = conservatory.getWing(compatibility).sectionCounts();
+                out.writeInt(sections.size());
+                for (Map.Entry<String, Integer> entry : sections.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+            }
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Reads the header at the start of a snapshot.
+     *
+     * @param in the snapshot to read
+     * @return the snapshot's header
+     * @throws IOException if the input cannot be read or is not a snapshot
+     */
+    static Header readHeader(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a conservatory snapshot");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        int maxAviaries = in.readInt();
+        int aviaryCapacity = in.readInt();
+        if (maxAviaries < 1 || aviaryCapacity < 1) {
+            throw new IOException("Corrupt snapshot: invalid aviary limits");
+        }
+        int maskCount = in.readInt();
+        if (maskCount < 0 || maskCount > Long.SIZE) {
+            throw new IOException("Corrupt snapshot: invalid mixing rules");
+        }
+        long[] masks = new long[maskCount];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = in.readLong();
+        }
+        CompatibilityMatrix rules;
+        try {
+            rules = CompatibilityMatrix.fromMasks(masks);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt snapshot: " + e.getMessage(), e);
+        }
+        return new Header(maxAviaries, aviaryCapacity, rules, in.readLong());
+    }
+
+    /**
+     * Restores the state that follows a snapshot's header into an empty
+     * conservatory.
+     *
+     * @param in           the snapshot to read, positioned after its header
+     * @param conservatory the empty conservatory to restore into
+     * @param birdsById    receives every restored bird, keyed by id value
+     * @throws IOException if the input cannot be read or is corrupt
+     */
+    static void readBody(DataInput in, Conservatory conservatory, Map<Long, Bird> birdsById)
+            throws IOException {
+        try {
+            int birdCount = in.readInt();
+            for (int i = 0; i < birdCount; i++) {
+                long id = in.readLong();
+                Bird bird = BirdCodec.read(in);
+                conservatory.restoreBird(new BirdId(id), bird);
+                birdsById.put(id, bird);
+            }
+
+            int rescuedCount = in.readInt();
+            for (int i = 0; i < rescuedCount; i++) {
+                conservatory.restoreRescue(bird(birdsById, in.readLong()));
+            }
+
+            int aviaryCount = in.readInt();
+            for (int i = 0; i < aviaryCount; i++) {
+                Aviary aviary = conservatory.restoreAviary(in.readInt(), in.readUTF(), in.readInt());
+                int residents = in.readInt();
+                for (int j = 0; j < residents; j++) {
+                    aviary.addBird(bird(birdsById, in.readLong()));
+                }
+            }
+
+            for (CompatibilityClass compatibility : CompatibilityClass.values()) {
+                int sections = in.readInt();
+                for (int i = 0; i < sections; i++) {
+                    conservatory.restoreSection(compatibility, in.readUTF(), in.readInt());
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the restored bird with the specified id.
+     *
+     * @param birdsById the restored birds, keyed by id value
+     * @param id        the id value to look up
+     * @return the bird
+     * @throws IOException if no bird has been restored with the id
+     */
+    static Bird bird(Map<Long, Bird> birdsById, long id) throws IOException {
+        Bird bird = birdsById.get(id);
+        if (bird == null) {
+            throw new IOException("Unknown bird id: " + id);
+        }
+        return bird;
+    }
+}
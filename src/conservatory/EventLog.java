@@ -0,0 +1,244 @@
+package conservatory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of records with group-committed durability.
+ *
+ * <p>
+ * {@link #append(byte[])} only buffers a record and returns at once. A
+ * background thread writes whatever has been buffered and forces it to disk
+ * with a single {@code fsync}; records appended while that is in progress go
+ * out together in the next batch. Callers that need a record to be durable
+ * wait for it with {@link #awaitDurable(long)}.
+ * </p>
+ *
+ * <p>
+ * Each record is framed as its length, its bytes, and a CRC-32 of its bytes,
+ * so a record torn by a crash is detected on {@link #read(Path, Consumer)}
+ * and the log is cut back to the last whole record.
+ * </p>
+ */
+final class EventLog implements Closeable {
+    private static final int FRAME_OVERHEAD = 8;
+
+    private final FileChannel channel;
+    private final Thread flusher;
+    private ByteArrayOutputStream pending;
+    private long appended;
+    private long durable;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Opens a log for appending. The log is first cut back to the specified
+     * length, dropping anything after the last whole record.
+     *
+     * @param file        the log file, created if it does not exist
+     * @param validLength the length of the log's whole records, as returned
+     *                    by {@link #read(Path, Consumer)}
+     * @throws IOException if the file cannot be opened
+     */
+    EventLog(Path file, long validLength) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        this.pending = new ByteArrayOutputStream();
+        this.flusher = new Thread(this::flushLoop, "event-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Reads every whole record in a log, stopping at the end of the file or at
+     * the first torn or corrupt record.
+     *
+     * @param file   the log file to read
+     * @param reader receives each record's bytes, in order
+     * @return the length of the log's whole records
+     * @throws IOException if the file cannot be read
+     */
+    static long read(Path file, Consumer<byte[]> reader) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(4);
+            CRC32 crc = new CRC32();
+            while (size - position >= FRAME_OVERHEAD) {
+                header.clear();
+                readFully(in, header, position);
+                int length = header.getInt(0);
+                if (length < 0 || length > size - position - FRAME_OVERHEAD) {
+                    break;
+                }
+                ByteBuffer body = ByteBuffer.allocate(length + 4);
+                readFully(in, body, position + 4);
+                crc.reset();
+                crc.update(body.array(), 0, length);
+                if ((int) crc.getValue() != body.getInt(length)) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                System.arraycopy(body.array(), 0, record, 0, length);
+                reader.accept(record);
+                position += length + FRAME_OVERHEAD;
+            }
+            return position;
+        }
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = in.read(buffer, position + buffer.position());
+            if (n < 0) {
+                throw new IOException("Unexpected end of log");
+            }
+        }
+    }
+
+    /**
+     * Buffers a record to be written with the next batch.
+     *
+     * @param record the record's bytes
+     * @return the record's sequence number, for {@link #awaitDurable(long)}
+     * @throws IOException if the log is closed or a previous write failed
+     */
+    synchronized long append(byte[] record) throws IOException {
+        checkOpen();
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        DataOutputStream out = new DataOutputStream(pending);
+        out.writeInt(record.length);
+        out.write(record);
+        out.writeInt((int) crc.getValue());
+        appended++;
+        notifyAll();
+        return appended;
+    }
+
+    /**
+     * Returns the sequence number of the last record appended.
+     *
+     * @return the last sequence number, or 0 if nothing has been appended
+     */
+    synchronized long lastAppended() {
+        return appended;
+    }
+
+    /**
+     * Waits until the record with the specified sequence number, and every
+     * record before it, has been forced to disk.
+     *
+     * @param sequence the sequence number to wait for
+     * @throws IOException if the log fails before the record is durable, or
+     *                     the wait is interrupted
+     */
+    synchronized void awaitDurable(long sequence) throws IOException {
+        while (durable < sequence) {
+            if (failure != null) {
+                throw new IOException("Event log write failed", failure);
+            }
+            if (closed && !flusher.isAlive()) {
+                throw new IOException("Event log is closed");
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the event log");
+            }
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (failure != null) {
+            throw new IOException("Event log write failed", failure);
+        }
+        if (closed) {
+            throw new IOException("Event log is closed");
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            byte[] batch;
+            long batchEnd;
+            synchronized (this) {
+                while (pending.size() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // Only close() stops the flusher
+                    }
+                }
+                if (pending.size() == 0) {
+                    notifyAll();
+                    return;
+                }
+                batch = pending.toByteArray();
+                batchEnd = appended;
+                pending = new ByteArrayOutputStream();
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+            synchronized (this) {
+                durable = batchEnd;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes and forces every buffered record, then closes the log.
+     *
+     * @throws IOException if the remaining records cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        boolean interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (this) {
+            if (failure != null) {
+                throw new IOException("Event log write failed", failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package conservatory;
+
+import birds.Bird;
+import birds.Food;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An inverted index from each {@link Food} to the housed birds that prefer it
+ * and the aviaries they live in, kept up to date as birds are placed and
+ * removed.
+ *
+ * <p>
+ * Birds are keyed by {@link BirdId} rather than by the birds themselves, so
+ * that two identical birds are kept apart and lookups never compare every
+ * attribute. Reading a food's dependents visits only those dependents.
+ * </p>
+ */
+final class FoodDependencyIndex {
+    private static final Food[] FOODS = Food.values();
+
+    private final Map<Food, Dependents> dependents;
+
+    /**
+     * Constructs an empty index.
+     */
+    FoodDependencyIndex() {
+        this.dependents = new EnumMap<>(Food.class);
+        for (Food food : FOODS) {
+            dependents.put(food, new Dependents());
+        }
+    }
+
+    /**
+     * Records a bird placed in an aviary under each food it prefers.
+     *
+     * @param id     the bird's id
+     * @param bird   the bird that was placed
+     * @param aviary the aviary it was placed in
+     */
+    void add(BirdId id, Bird bird, Aviary aviary) {
+        int mask = bird.getFoodMask();
+        for (Food food : FOODS) {
+            if ((mask & food.bit()) != 0) {
+                Dependents entry = dependents.get(food);
+                entry.birds.put(id, bird);
+                entry.aviaries.merge(aviary, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Removes a bird taken out of an aviary from each food it prefers.
+     *
+     * @param id     the bird's id
+     * @param bird   the bird that was removed
+     * @param aviary the aviary it was removed from
+     */
+    void remove(BirdId id, Bird bird, Aviary aviary) {
+        int mask = bird.getFoodMask();
+        for (Food food : FOODS) {
+            if ((mask & food.bit()) != 0) {
+                Dependents entry = dependents.get(food);
+                entry.birds.remove(id);
+                entry.aviaries.computeIfPresent(aviary, (key, count) -> count == 1 ? null : count - 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the housed birds that prefer a food, in the order they were
+     * placed.
+     *
+     * @param food the food to look up
+     * @return a new list of birds
+     */
+    List<Bird> birds(Food food) {
+        return new ArrayList<>(dependents.get(food).birds.values());
+    }
+
+    /**
+     * Returns the number of housed birds that prefer a food.
+     *
+     * @param food the food to look up
+     * @return the number of birds
+     */
+    int birdCount(Food food) {
+        return dependents.get(food).birds.size();
+    }
+
+    /**
+     * Returns each aviary housing a bird that prefers a food, with the number
+     * of such birds it houses, in order of aviary id.
+     *
+     * @param food the food to look up
+     * @return a new map of aviaries to bird counts
+     */
+    Map<Aviary, Integer> aviaries(Food food) {
+        return new LinkedHashMap<>(dependents.get(food).aviaries);
+    }
+
+    /**
+     * The birds and aviaries that depend on one food.
+     */
+    private static final class Dependents {
+        private final Map<BirdId, Bird> birds = new LinkedHashMap<>();
+        private final Map<Aviary, Integer> aviaries = new TreeMap<>(Comparator.comparingInt(Aviary::getId));
+    }
+}
@@ -0,0 +1,109 @@
+package conservatory;
+
+import birds.Bird;
+import birds.Food;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A running total of the food needed by the birds housed in a conservatory,
+ * overall and per bird classification. The ledger is updated as birds are
+ * placed in or removed from aviaries, so reading a total never has to revisit
+ * the birds themselves.
+ */
+final class FoodLedger {
+    private static final Food[] FOODS = Food.values();
+
+    private final FoodTally total;
+    private final Map<String, FoodTally> byClassification;
+
+    /**
+     * Constructs an empty ledger.
+     */
+    FoodLedger() {
+        this.total = new FoodTally();
+        this.byClassification = new HashMap<>();
+    }
+
+    /**
+     * Adds one unit of each of the bird's preferred foods.
+     *
+     * @param bird the bird that was placed
+     */
+    void add(Bird bird) {
+        record(bird, 1);
+    }
+
+    /**
+     * Removes one unit of each of the bird's preferred foods.
+     *
+     * @param bird the bird that was removed
+     */
+    void remove(Bird bird) {
+        record(bird, -1);
+    }
+
+    private void record(Bird bird, int delta) {
+        FoodTally classTally = byClassification.computeIfAbsent(
+                bird.getClassification(), c -> new FoodTally());
+        int packed = bird.getPackedFood();
+        for (int i = 0; i < Food.packedSize(packed); i++) {
+            Food food = Food.packedAt(packed, i);
+            total.add(food, delta);
+            classTally.add(food, delta);
+        }
+    }
+
+    /**
+     * Returns the quantity of the specified food currently needed.
+     *
+     * @param food the food to look up
+     * @return the quantity needed
+     */
+    long get(Food food) {
+        return total.get(food);
+    }
+
+    /**
+     * Returns a copy of the overall totals.
+     *
+     * @return a new tally holding the overall totals
+     */
+    FoodTally getTally() {
+        return new FoodTally(total);
+    }
+
+    /**
+     * Returns a copy of the totals for each classification that currently
+     * needs food.
+     *
+     * @return a new map of classification names to tallies
+     */
+    Map<String, FoodTally> getTallyByClassification() {
+        Map<String, FoodTally> copy = new HashMap<>();
+        for (Map.Entry<String, FoodTally> entry : byClassification.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                copy.put(entry.getKey(), new FoodTally(entry.getValue()));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the non-zero totals as a map of food types to quantities.
+     *
+     * @return a new map containing every food with a positive quantity
+     */
+    Map<Food, Integer> toMap() {
+        Map<Food, Integer> map = new EnumMap<>(Food.class);
+        for (Food food : FOODS) {
+            long quantity = total.get(food);
+            if (quantity > 0) {
+                map.put(food, (int) quantity);
+            }
+        }
+        return map;
+    }
+}
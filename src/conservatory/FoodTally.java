@@ -0,0 +1,197 @@
+package conservatory;
+
+import birds.Food;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A quantity for every type of food, stored as one primitive counter per
+ * {@link Food} constant.
+ *
+ * <p>
+ * A tally is a mutable accumulator: {@link #merge(FoodTally)},
+ * {@link #subtract(FoodTally)}, and {@link #scale(long)} update the tally in
+ * place and return it, so totals across many conservatories or many days can
+ * be combined without boxing or hashing. Quantities may become negative after
+ * a subtraction, which callers can use to represent a shortfall.
+ * </p>
+ */
+public final class FoodTally {
+    private static final Food[] FOODS = Food.values();
+
+    private final long[] quantities;
+
+    /**
+     * Constructs a tally with a quantity of zero for every food.
+     */
+    public FoodTally() {
+        this.quantities = new long[FOODS.length];
+    }
+
+    /**
+     * Constructs a tally holding the same quantities as another tally.
+     *
+     * @param other the tally to copy
+     * @throws IllegalArgumentException if other is null
+     */
+    public FoodTally(FoodTally other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Food tally cannot be null");
+        }
+        this.quantities = other.quantities.clone();
+    }
+
+    /**
+     * Returns the quantity of the specified food.
+     *
+     * @param food the food to look up
+     * @return the quantity of that food
+     * @throws IllegalArgumentException if food is null
+     */
+    public long get(Food food) {
+        if (food == null) {
+            throw new IllegalArgumentException("Food cannot be null");
+        }
+        return quantities[food.ordinal()];
+    }
+
+    /**
+     * Adds a quantity of the specified food to this tally.
+     *
+     * @param food     the food to add
+     * @param quantity the quantity to add, which may be negative
+     * @return this tally
+     * @throws IllegalArgumentException if food is null
+     */
+    public FoodTally add(Food food, long quantity) {
+        if (food == null) {
+            throw new IllegalArgumentException("Food cannot be null");
+        }
+        quantities[food.ordinal()] += quantity;
+        return this;
+    }
+
+    /**
+     * Adds every quantity in another tally to this tally.
+     *
+     * @param other the tally to add
+     * @return this tally
+     * @throws IllegalArgumentException if other is null
+     */
+    public FoodTally merge(FoodTally other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Food tally cannot be null");
+        }
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] += other.quantities[i];
+        }
+        return this;
+    }
+
+    /**
+     * Subtracts every quantity in another tally from this tally.
+     *
+     * @param other the tally to subtract
+     * @return this tally
+     * @throws IllegalArgumentException if other is null
+     */
+    public FoodTally subtract(FoodTally other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Food tally cannot be null");
+        }
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] -= other.quantities[i];
+        }
+        return this;
+    }
+
+    /**
+     * Multiplies every quantity in this tally by a factor, for example to turn
+     * a daily requirement into a weekly one.
+     *
+     * @param factor the factor to multiply by
+     * @return this tally
+     */
+    public FoodTally scale(long factor) {
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] *= factor;
+        }
+        return this;
+    }
+
+    /**
+     * Returns the sum of the quantities of every food.
+     *
+     * @return the total quantity
+     */
+    public long total() {
+        long total = 0;
+        for (long quantity : quantities) {
+            total += quantity;
+        }
+        return total;
+    }
+
+    /**
+     * Returns whether every quantity in this tally is zero.
+     *
+     * @return true if the tally is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        for (long quantity : quantities) {
+            if (quantity != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the non-zero quantities as a map of food types to quantities.
+     *
+     * @return a new map containing every food with a non-zero quantity
+     */
+    public Map<Food, Long> toMap() {
+        Map<Food, Long> map = new EnumMap<>(Food.class);
+        for (int i = 0; i < quantities.length; i++) {
+            if (quantities[i] != 0) {
+                map.put(FOODS[i], quantities[i]);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(quantities, ((FoodTally) o).quantities);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(quantities);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FoodTally{");
+        boolean first = true;
+        for (int i = 0; i < quantities.length; i++) {
+            if (quantities[i] != 0) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                sb.append(FOODS[i].getDisplayName()).append("=").append(quantities[i]);
+                first = false;
+            }
+        }
+        return sb.append("}").toString();
+    }
+}
@@ -0,0 +1,41 @@
+package conservatory;
+
+import birds.Bird;
+
+/**
+ * Wraps a bird so that it can be used as a key in a hash-based collection
+ * that compares birds by identity rather than by {@link Bird#equals(Object)}.
+ * Used where an {@link java.util.IdentityHashMap} cannot be, such as in
+ * concurrent maps.
+ */
+final class IdentityKey {
+    private final Bird bird;
+
+    /**
+     * Constructs a key for the specified bird.
+     *
+     * @param bird the bird to wrap
+     */
+    IdentityKey(Bird bird) {
+        this.bird = bird;
+    }
+
+    /**
+     * Returns the wrapped bird.
+     *
+     * @return the bird
+     */
+    Bird getBird() {
+        return bird;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IdentityKey && ((IdentityKey) o).bird == bird;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(bird);
+    }
+}
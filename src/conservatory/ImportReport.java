@@ -0,0 +1,258 @@
+package conservatory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a {@link BirdImporter} run: how many records were read,
+ * rescued and placed, and which records could not be imported.
+ *
+ * <p>
+ * Every problem is counted, but only the first few are kept with their line
+ * numbers and reasons, so a report stays small however bad the input is.
+ * </p>
+ */
+public final class ImportReport {
+    private final int maxProblems;
+    private final List<Problem> problems;
+    private final List<Stage> stages;
+    private long recordsRead;
+    private long rescued;
+    private long assigned;
+    private long problemCount;
+
+    /**
+     * Constructs an empty report that keeps up to the specified number of
+     * problems.
+     *
+     * @param maxProblems the number of problems to keep
+     */
+    ImportReport(int maxProblems) {
+        this.maxProblems = maxProblems;
+        this.problems = new ArrayList<>();
+        this.stages = new ArrayList<>();
+    }
+
+    void recordRead() {
+        recordsRead++;
+    }
+
+    void birdRescued() {
+        rescued++;
+    }
+
+    void birdAssigned() {
+        assigned++;
+    }
+
+    void addProblem(long lineNumber, String reason) {
+        problemCount++;
+        if (problems.size() < maxProblems) {
+            problems.add(new Problem(lineNumber, reason));
+        }
+    }
+
+    void addStage(Stage stage) {
+        stages.add(stage);
+    }
+
+    /**
+     * Returns the number of non-blank records read, valid or not.
+     *
+     * @return the number of records read
+     */
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    /**
+     * Returns the number of birds rescued into the conservatory.
+     *
+     * @return the number of birds rescued
+     */
+    public long getRescued() {
+        return rescued;
+    }
+
+    /**
+     * Returns the number of rescued birds that were placed in an aviary.
+     *
+     * @return the number of birds assigned
+     */
+    public long getAssigned() {
+        return assigned;
+    }
+
+    /**
+     * Returns the number of problems found, including any not kept in
+     * {@link #getProblems()}.
+     *
+     * @return the number of problems
+     */
+    public long getProblemCount() {
+        return problemCount;
+    }
+
+    /**
+     * Returns the problems kept by this report, in the order they were found.
+     *
+     * @return an unmodifiable list of problems
+     */
+    public List<Problem> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * Returns the throughput and backpressure of each stage of an
+     * {@link IntakePipeline} run, in pipeline order. Imports that do not run
+     * in stages have none.
+     *
+     * @return an unmodifiable list of stages
+     */
+    public List<Stage> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    @Override
+    public String toString() {
+        return "Import of " + recordsRead + " records: " + rescued + " rescued, "
+                + assigned + " assigned, " + problemCount + " problems";
+    }
+
+    /**
+     * A record that could not be imported, or a rescued bird that could not be
+     * placed.
+     */
+    public static final class Problem {
+        private final long lineNumber;
+        private final String reason;
+
+        Problem(long lineNumber, String reason) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+
+        /**
+         * Returns the line the record started on, counting from 1.
+         *
+         * @return the line number
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Returns why the record could not be imported.
+         *
+         * @return the reason
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + reason;
+        }
+    }
+
+    /**
+     * The work done by one stage of a pipelined import and the time its
+     * threads spent waiting on the stages around it.
+     */
+    public static final class Stage {
+        private final String name;
+        private final int threads;
+        private final long records;
+        private final long elapsedNanos;
+        private final long busyNanos;
+        private final long starvedNanos;
+        private final long blockedNanos;
+
+        Stage(String name, int threads, long records, long elapsedNanos,
+                long busyNanos, long starvedNanos, long blockedNanos) {
+            this.name = name;
+            this.threads = threads;
+            this.records = records;
+            this.elapsedNanos = elapsedNanos;
+            this.busyNanos = busyNanos;
+            this.starvedNanos = starvedNanos;
+            this.blockedNanos = blockedNanos;
+        }
+
+        /**
+         * Returns the stage's name.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of threads that ran the stage.
+         *
+         * @return the number of threads
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * Returns the number of records the stage handled.
+         *
+         * @return the number of records
+         */
+        public long getRecords() {
+            return records;
+        }
+
+        /**
+         * Returns the number of records handled per second over the whole run.
+         *
+         * @return the stage's throughput
+         */
+        public double getRecordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : records * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Returns the time the stage's threads spent working, summed over
+         * threads.
+         *
+         * @return the busy time in nanoseconds
+         */
+        public long getBusyNanos() {
+            return busyNanos;
+        }
+
+        /**
+         * Returns the time the stage's threads spent waiting for input from
+         * the stage before, summed over threads.
+         *
+         * @return the starved time in nanoseconds
+         */
+        public long getStarvedNanos() {
+            return starvedNanos;
+        }
+
+        /**
+         * Returns the time the stage's threads spent waiting for the stages
+         * after to make room, summed over threads. This is the backpressure
+         * the stage felt.
+         *
+         * @return the blocked time in nanoseconds
+         */
+        public long getBlockedNanos() {
+            return blockedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s x%d: %d records, %.0f/s, busy %d ms, starved %d ms, blocked %d ms",
+                    name, threads, records, getRecordsPerSecond(), busyNanos / 1_000_000,
+                    starvedNanos / 1_000_000, blockedNanos / 1_000_000);
+        }
+    }
+}
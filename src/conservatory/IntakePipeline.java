@@ -0,0 +1,525 @@
+package conservatory;
+
+import birds.Bird;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Imports rescued birds from the same feeds as {@link BirdImporter}, but
+ * spreads the work over several threads.
+ *
+ * <p>
+ * An import runs in three stages joined by bounded queues:
+ * </p>
+ * <ol>
+ * <li><b>read</b>: one thread reads lines and groups them into chunks</li>
+ * <li><b>parse</b>: a pool of workers parses each record and builds its
+ * bird, which validates it; chunks are handled in any order</li>
+ * <li><b>place</b>: the calling thread puts chunks back in feed order,
+ * rescues their birds, and if requested assigns them with
+ * {@link Conservatory#assignAll(java.util.Collection)}</li>
+ * </ol>
+ *
+ * <p>
+ * Only the calling thread touches the conservatory, so placement is exactly
+ * as if the feed had been imported one chunk at a time. No more than a fixed
+ * number of chunks are read ahead of placement; when placement falls behind,
+ * the earlier stages wait rather than buffer. The report's
+ * {@link ImportReport#getStages() stages} show each stage's throughput and how
+ * long it waited on its neighbors.
+ * </p>
+ */
+public final class IntakePipeline {
+    /**
+     * The number of lines read, parsed and placed together unless configured
+     * otherwise.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /**
+     * The number of chunks that may be read but not yet placed unless
+     * configured otherwise.
+     */
+    public static final int DEFAULT_MAX_CHUNKS_IN_FLIGHT = 64;
+
+    private final Conservatory conservatory;
+    private final boolean assign;
+    private final int workers;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+    private final int maxLineLength;
+    private final int maxReportedProblems;
+
+    /**
+     * Constructs a pipeline with one parse worker per available processor and
+     * the default chunk size and limits.
+     *
+     * @param conservatory the conservatory to import into
+     * @param assign       whether to assign imported birds to aviaries as well
+     *                     as rescue them
+     * @throws IllegalArgumentException if conservatory is null
+     */
+    public IntakePipeline(Conservatory conservatory, boolean assign) {
+        this(conservatory, assign, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE,
+                DEFAULT_MAX_CHUNKS_IN_FLIGHT, BirdImporter.DEFAULT_MAX_LINE_LENGTH,
+                BirdImporter.DEFAULT_MAX_REPORTED_PROBLEMS);
+    }
+
+    /**
+     * Constructs a pipeline with the specified number of parse workers, chunk
+     * size and limits.
+     *
+     * @param conservatory        the conservatory to import into
+     * @param assign              whether to assign imported birds to aviaries
+     *                            as well as rescue them
+     * @param workers             the number of parse workers
+     * @param chunkSize           the number of lines handled together
+     * @param maxChunksInFlight   the number of chunks that may be read but
+     *                            not yet placed
+     * @param maxLineLength       the longest line to accept; longer lines are
+     *                            reported and skipped
+     * @param maxReportedProblems the number of problems to keep in a report
+     * @throws IllegalArgumentException if conservatory is null, workers,
+     *                                  chunkSize, maxChunksInFlight or
+     *                                  maxLineLength is not positive, or
+     *                                  maxReportedProblems is negative
+     */
+    public IntakePipeline(Conservatory conservatory, boolean assign, int workers, int chunkSize,
+            int maxChunksInFlight, int maxLineLength, int maxReportedProblems) {
+        if (conservatory == null) {
+            throw new IllegalArgumentException("Conservatory cannot be null");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be at least 1");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        if (maxChunksInFlight < 1) {
+            throw new IllegalArgumentException("Maximum chunks in flight must be at least 1");
+        }
+        if (maxLineLength < 1) {
+            throw new IllegalArgumentException("Maximum line length must be at least 1");
+        }
+        if (maxReportedProblems < 0) {
+            throw new IllegalArgumentException("Maximum reported problems cannot be negative");
+        }
+        this.conservatory = conservatory;
+        this.assign = assign;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
+        this.maxLineLength = maxLineLength;
+        this.maxReportedProblems = maxReportedProblems;
+    }
+
+    /**
+     * Returns the number of parse workers.
+     *
+     * @return the number of workers
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Imports a UTF-8 feed file, choosing the format from its extension as
+     * {@link BirdImporter#importFrom(Path)} does.
+     *
+     * @param file the feed to import
+     * @return a report of the import
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if file is null or its extension is not
+     *                                  recognized
+     */
+    public ImportReport importFrom(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        BirdImporter.Format format = BirdImporter.formatOf(file);
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(in, format);
+        }
+    }
+
+    /**
+     * Imports a feed from a reader. The reader is read to the end on another
+     * thread but not closed; it must not be used until this method returns.
+     *
+     * @param in     the feed to import
+     * @param format the feed's format
+     * @return a report of the import
+     * @throws IOException              if the feed cannot be read, or the wait
+     *                                  for the other stages is interrupted
+     * @throws IllegalArgumentException if in or format is null
+     */
+    public ImportReport importFrom(Reader in, BirdImporter.Format format) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("Input cannot be null");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Format cannot be null");
+        }
+        Run run = new Run(in, format);
+        try {
+            return run.execute();
+        } finally {
+            run.stop();
+        }
+    }
+
+    /**
+     * A batch of consecutive lines, filled in by each stage in turn.
+     */
+    private static final class Chunk {
+        final long sequence;
+        final String[] header;
+        final long[] lineNumbers;
+        final String[] lines;
+        final Bird[] birds;
+        final String[] problems;
+        int size;
+        boolean end;
+        Throwable failure;
+
+        Chunk(long sequence, String[] header, int capacity) {
+            this.sequence = sequence;
+            this.header = header;
+            this.lineNumbers = new long[capacity];
+            this.lines = new String[capacity];
+            this.birds = new Bird[capacity];
+            this.problems = new String[capacity];
+        }
+
+        static Chunk failed(Throwable failure) {
+            Chunk chunk = new Chunk(-1, null, 0);
+            chunk.failure = failure;
+            return chunk;
+        }
+    }
+
+    /**
+     * Counts one stage's records and the time its threads spent waiting.
+     */
+    private static final class StageClock {
+        private final String name;
+        private final int threads;
+        private final LongAdder records = new LongAdder();
+        private final LongAdder busy = new LongAdder();
+        private final LongAdder starved = new LongAdder();
+        private final LongAdder blocked = new LongAdder();
+
+        StageClock(String name, int threads) {
+            this.name = name;
+            this.threads = threads;
+        }
+
+        /**
+         * Records how long a thread of this stage ran and how long it waited.
+         */
+        void finish(long startNanos, long starvedNanos, long blockedNanos) {
+            starved.add(starvedNanos);
+            blocked.add(blockedNanos);
+            busy.add(System.nanoTime() - startNanos - starvedNanos - blockedNanos);
+        }
+
+        ImportReport.Stage toStage(long elapsedNanos) {
+            return new ImportReport.Stage(name, threads, records.sum(), elapsedNanos,
+                    busy.sum(), starved.sum(), blocked.sum());
+        }
+    }
+
+    /**
+     * The threads and queues of one import.
+     */
+    private final class Run {
+        private final Reader in;
+        private final BirdImporter.Format format;
+        private final ImportReport report;
+        private final Semaphore permits;
+        private final BlockingQueue<Chunk> parseQueue;
+        private final BlockingQueue<Chunk> placeQueue;
+        private final Chunk stop;
+        private final StageClock readClock;
+        private final StageClock parseClock;
+        private final StageClock placeClock;
+        private final List<Thread> threads;
+
+        Run(Reader in, BirdImporter.Format format) {
+            this.in = in;
+            this.format = format;
+            this.report = new ImportReport(maxReportedProblems);
+            this.permits = new Semaphore(maxChunksInFlight);
+            int queueCapacity = Math.min(maxChunksInFlight, 2 * workers);
+            this.parseQueue = new ArrayBlockingQueue<>(queueCapacity);
+            this.placeQueue = new ArrayBlockingQueue<>(queueCapacity);
+            this.stop = new Chunk(-1, null, 0);
+            this.readClock = new StageClock("read", 1);
+            this.parseClock = new StageClock("parse", workers);
+            this.placeClock = new StageClock("place", 1);
+            this.threads = new ArrayList<>(workers + 1);
+        }
+
+        ImportReport execute() throws IOException {
+            long start = System.nanoTime();
+            threads.add(new Thread(this::read, "intake-reader"));
+            for (int i = 0; i < workers; i++) {
+                threads.add(new Thread(this::parse, "intake-parser-" + i));
+            }
+            for (Thread thread : threads) {
+                thread.setDaemon(true);
+                thread.start();
+            }
+
+            place(start);
+
+            long elapsed = System.nanoTime() - start;
+            report.addStage(readClock.toStage(elapsed));
+            report.addStage(parseClock.toStage(elapsed));
+            report.addStage(placeClock.toStage(elapsed));
+            return report;
+        }
+
+        /**
+         * Interrupts and waits for any threads still running, as after a
+         * failure.
+         */
+        void stop() {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            boolean interrupted = false;
+            for (Thread thread : threads) {
+                while (thread.isAlive()) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // ======================================================================
+        // Read stage
+        // ======================================================================
+
+        private void read() {
+            long start = System.nanoTime();
+            long blocked = 0;
+            BirdImporter.LineReader lines = new BirdImporter.LineReader(in, maxLineLength);
+            String[] header = null;
+            long sequence = 0;
+            Chunk chunk = null;
+            try {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    boolean tooLong = lines.wasTooLong();
+                    if (!tooLong && line.trim().isEmpty()) {
+                        continue;
+                    }
+                    if (format == BirdImporter.Format.CSV && header == null) {
+                        try {
+                            header = BirdImporter.parseHeader(line, tooLong, maxLineLength);
+                        } catch (IllegalArgumentException e) {
+                            // Nothing has been handed to the placer yet, so
+                            // the report can be written from this thread. No
+                            // record can be read without a header, so stop.
+                            report.addProblem(lines.getLineNumber(), e.getMessage());
+                            break;
+                        }
+                        continue;
+                    }
+                    if (chunk == null) {
+                        chunk = new Chunk(sequence++, header, chunkSize);
+                    }
+                    int i = chunk.size++;
+                    chunk.lineNumbers[i] = lines.getLineNumber();
+                    if (tooLong) {
+                        chunk.problems[i] = "Line is longer than " + maxLineLength + " characters";
+                    } else {
+                        chunk.lines[i] = line;
+                    }
+                    if (chunk.size == chunkSize) {
+                        blocked += dispatch(chunk);
+                        chunk = null;
+                    }
+                }
+                if (chunk != null) {
+                    blocked += dispatch(chunk);
+                }
+                Chunk end = new Chunk(sequence, header, 0);
+                end.end = true;
+                blocked += handOff(parseQueue, end);
+                for (int i = 0; i < workers; i++) {
+                    blocked += handOff(parseQueue, stop);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Throwable e) {
+                fail(e);
+            }
+            readClock.finish(start, 0, blocked);
+        }
+
+        /**
+         * Hands a chunk to the parse workers once placement has room for it.
+         *
+         * @return the time spent waiting, in nanoseconds
+         */
+        private long dispatch(Chunk chunk) throws InterruptedException {
+            long waitStart = System.nanoTime();
+            permits.acquire();
+            long waited = System.nanoTime() - waitStart;
+            readClock.records.add(chunk.size);
+            return waited + handOff(parseQueue, chunk);
+        }
+
+        // ======================================================================
+        // Parse stage
+        // ======================================================================
+
+        private void parse() {
+            long start = System.nanoTime();
+            long starved = 0;
+            long blocked = 0;
+            try {
+                while (true) {
+                    long waitStart = System.nanoTime();
+                    Chunk chunk = parseQueue.take();
+                    starved += System.nanoTime() - waitStart;
+                    if (chunk == stop) {
+                        break;
+                    }
+                    for (int i = 0; i < chunk.size; i++) {
+                        String line = chunk.lines[i];
+                        if (line == null) {
+                            continue;
+                        }
+                        try {
+                            chunk.birds[i] = BirdImporter.parseRecord(format, chunk.header, line);
+                        } catch (IllegalArgumentException e) {
+                            chunk.problems[i] = e.getMessage();
+                        }
+                        chunk.lines[i] = null;
+                    }
+                    parseClock.records.add(chunk.size);
+                    blocked += handOff(placeQueue, chunk);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Throwable e) {
+                fail(e);
+            }
+            parseClock.finish(start, starved, blocked);
+        }
+
+        // ======================================================================
+        // Place stage
+        // ======================================================================
+
+        /**
+         * Places chunks in sequence order, holding any that arrive early,
+         * until the end of the feed.
+         */
+        private void place(long start) throws IOException {
+            long starved = 0;
+            Map<Long, Chunk> early = new HashMap<>();
+            List<Bird> batch = new ArrayList<>(chunkSize);
+            List<Long> batchLines = new ArrayList<>(chunkSize);
+            long next = 0;
+            while (true) {
+                long waitStart = System.nanoTime();
+                Chunk chunk;
+                try {
+                    chunk = placeQueue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the intake pipeline");
+                }
+                starved += System.nanoTime() - waitStart;
+                if (chunk.failure != null) {
+                    rethrow(chunk.failure);
+                }
+                early.put(chunk.sequence, chunk);
+                while ((chunk = early.remove(next)) != null) {
+                    if (chunk.end) {
+                        placeClock.finish(start, starved, 0);
+                        return;
+                    }
+                    for (int i = 0; i < chunk.size; i++) {
+                        report.recordRead();
+                        if (chunk.birds[i] == null) {
+                            report.addProblem(chunk.lineNumbers[i], chunk.problems[i]);
+                        } else {
+                            batch.add(chunk.birds[i]);
+                            batchLines.add(chunk.lineNumbers[i]);
+                        }
+                    }
+                    BirdImporter.place(conservatory, assign, batch, batchLines, report);
+                    placeClock.records.add(chunk.size);
+                    permits.release();
+                    next++;
+                }
+            }
+        }
+
+        // ======================================================================
+        // Helpers
+        // ======================================================================
+
+        /**
+         * Puts a chunk on a queue, waiting for room.
+         *
+         * @return the time spent waiting, in nanoseconds
+         */
+        private long handOff(BlockingQueue<Chunk> queue, Chunk chunk) throws InterruptedException {
+            if (queue.offer(chunk)) {
+                return 0;
+            }
+            long waitStart = System.nanoTime();
+            queue.put(chunk);
+            return System.nanoTime() - waitStart;
+        }
+
+        /**
+         * Passes an unexpected failure to the placing thread, which rethrows it.
+         */
+        private void fail(Throwable failure) {
+            try {
+                placeQueue.put(Chunk.failed(failure));
+            } catch (InterruptedException e) {
+                // The import is already being stopped.
+            }
+        }
+
+        private void rethrow(Throwable failure) throws IOException {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new IllegalStateException("Intake pipeline failed", failure);
+        }
+    }
+}
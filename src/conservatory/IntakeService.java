@@ -0,0 +1,244 @@
+package conservatory;
+
+import birds.Bird;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts rescue requests from many field teams at once and brings each bird
+ * into a {@link ConcurrentConservatory}: the bird is rescued and then assigned
+ * to an aviary, and the returned future completes with the placement message.
+ *
+ * <p>
+ * Requests wait on a bounded queue; a request submitted while the queue is
+ * full is rejected rather than blocking the caller. A single dispatcher thread
+ * hands queued requests to an executor, never letting more than a fixed
+ * number run at once. On a JDK with virtual threads each request runs on its
+ * own virtual thread, so thousands of in-flight intakes cost only a few
+ * carrier threads; on older JDKs a pool sized to the number of processors is
+ * used instead.
+ * </p>
+ */
+public class IntakeService implements AutoCloseable {
+    private static final Request SHUTDOWN = new Request(null, null);
+
+    private final ConcurrentConservatory conservatory;
+    private final int queueCapacity;
+    private final BlockingQueue<Request> queue;
+    private final Semaphore inFlight;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Thread dispatcher;
+    // Guards closed and every offer, so nothing is queued behind the shutdown marker
+    private final Object lock = new Object();
+    private boolean closed;
+
+    /**
+     * Constructs an intake service for the specified conservatory.
+     *
+     * @param conservatory  the conservatory to bring birds into
+     * @param queueCapacity the number of requests that may wait to be started
+     * @param maxInFlight   the number of requests that may run at once
+     * @throws IllegalArgumentException if conservatory is null, or if either
+     *                                  limit is not positive
+     */
+    public IntakeService(ConcurrentConservatory conservatory, int queueCapacity, int maxInFlight) {
+        if (conservatory == null) {
+            throw new IllegalArgumentException("Conservatory cannot be null");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Maximum in-flight requests must be at least 1");
+        }
+        this.conservatory = conservatory;
+        this.queueCapacity = queueCapacity;
+        // One extra slot so the shutdown marker always fits
+        this.queue = new ArrayBlockingQueue<>(queueCapacity + 1);
+        this.inFlight = new Semaphore(maxInFlight);
+
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        // Daemon workers, like the dispatcher, so a service that is never
+        // closed does not keep the JVM alive
+        AtomicInteger workers = new AtomicInteger();
+        this.executor = virtual != null
+                ? virtual
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+                    Thread worker = new Thread(task, "intake-worker-" + workers.getAndIncrement());
+                    worker.setDaemon(true);
+                    return worker;
+                });
+
+        this.dispatcher = new Thread(this::dispatch, "intake-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Returns an executor that runs each task on a new virtual thread, or null
+     * if the running JDK does not support virtual threads. Looked up
+     * reflectively so the project still builds for Java 11.
+     *
+     * @return a virtual-thread executor, or null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether requests run on virtual threads.
+     *
+     * @return true if virtual threads are used, false if a platform thread
+     *         pool is used
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Returns the number of requests waiting to be started.
+     *
+     * @return the number of queued requests
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Submits a rescued bird for intake.
+     *
+     * @param bird the bird to rescue and place
+     * @return a future completed with the placement message, or completed
+     *         exceptionally if the bird cannot be rescued or placed, or with a
+     *         {@link RejectedExecutionException} if the queue is full or the
+     *         service has been closed
+     * @throws IllegalArgumentException if bird is null
+     */
+    public CompletableFuture<String> submit(Bird bird) {
+        if (bird == null) {
+            throw new IllegalArgumentException("Bird cannot be null");
+        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        synchronized (lock) {
+            if (closed) {
+                result.completeExceptionally(new RejectedExecutionException("Intake service has been closed"));
+            } else if (queue.size() >= queueCapacity) {
+                result.completeExceptionally(new RejectedExecutionException("Intake queue is full"));
+            } else {
+                queue.add(new Request(bird, result));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Takes requests off the queue and starts them, waiting for an in-flight
+     * slot before each one.
+     */
+    private void dispatch() {
+        try {
+            while (true) {
+                Request request = queue.take();
+                if (request == SHUTDOWN) {
+                    return;
+                }
+                inFlight.acquire();
+                try {
+                    executor.execute(() -> run(request));
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    request.result.completeExceptionally(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Rescues and places the bird of a single request. Any failure, errors
+     * included, completes the request's future, as
+     * {@link CompletableFuture#supplyAsync} does, so no caller waits forever.
+     *
+     * @param request the request to run
+     */
+    private void run(Request request) {
+        try {
+            conservatory.rescueBird(request.bird);
+            request.result.complete(conservatory.assignBirdToAviary(request.bird));
+        } catch (Throwable e) {
+            request.result.completeExceptionally(e);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    /**
+     * Stops accepting requests, finishes every request already submitted, and
+     * releases the service's threads. If the calling thread is interrupted
+     * while waiting, it keeps waiting and its interrupt status is restored
+     * before returning.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Always fits: submit() leaves the extra slot free
+            queue.add(SHUTDOWN);
+        }
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                dispatcher.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        executor.shutdown();
+        while (true) {
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A bird waiting for intake and the future to complete once it is placed.
+     */
+    private static final class Request {
+        final Bird bird;
+        final CompletableFuture<String> result;
+
+        Request(Bird bird, CompletableFuture<String> result) {
+            this.bird = bird;
+            this.result = result;
+        }
+    }
+}
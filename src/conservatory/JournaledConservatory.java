@@ -0,0 +1,585 @@
+package conservatory;
+
+import birds.Bird;
+import birds.BirdCodec;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * A {@link Conservatory} whose state survives a restart.
+ *
+ * <p>
+ * Every change is recorded in an append-only event log in the conservatory's
+ * directory: birds being given ids, rescues, new and relocated aviaries, and
+ * birds being placed in or removed from aviaries, including removals made
+ * directly on an {@link Aviary}. Log writes are group-committed, so a change
+ * returns as soon as it is buffered and many changes share one {@code fsync};
+ * call {@link #sync()} to wait until everything so far is on disk.
+ * </p>
+ *
+ * <p>
+ * Every {@linkplain #getSnapshotInterval() snapshot interval} events, and
+ * whenever {@link #snapshot()} is called, the whole state is written as a
+ * compact snapshot and the log starts afresh. {@link #open(Path)} loads the
+ * latest snapshot and replays only the events logged since, so restart time
+ * depends on the size of the conservatory plus a short tail rather than on
+ * its full history.
+ * </p>
+ *
+ * <p>
+ * Changes are logged after they are made in memory. If logging or a snapshot
+ * fails, the conservatory stops accepting changes: every later change, sync
+ * or snapshot throws {@link IllegalStateException}, and the conservatory has to
+ * be closed and opened again to recover the last logged state.
+ * </p>
+ */
+public class JournaledConservatory extends Conservatory implements AutoCloseable {
+    /**
+     * The number of events logged between automatic snapshots unless
+     * configured otherwise.
+     */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 100_000;
+
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+    private static final Pattern LOG_FILE = Pattern.compile("events-(\\d+)\\.log");
+
+    private static final byte REGISTER = 1;
+    private static final byte RESCUE = 2;
+    private static final byte AVIARY = 3;
+    private static final byte PLACE = 4;
+    private static final byte REMOVE = 5;
+    private static final byte RELOCATE = 6;
+
+    private final Path directory;
+    private EventLog log;
+    private long generation;
+    private long eventsSinceSnapshot;
+    private int snapshotInterval;
+    private boolean closed;
+    private IOException failure;
+
+    private JournaledConservatory(Path directory, int maxAviaries, int aviaryCapacity,
+            CompatibilityMatrix rules) {
+        super(maxAviaries, aviaryCapacity, rules);
+        this.directory = directory;
+        this.snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+    }
+
+    /**
+     * Opens the conservatory stored in the specified directory, creating an
+     * empty one with the default limits and mixing rules if the directory
+     * holds none.
+     *
+     * @param directory the directory holding the conservatory's files
+     * @return the opened conservatory
+     * @throws IOException              if the conservatory's files cannot be
+     *                                  read or written, or are corrupt
+     * @throws IllegalArgumentException if directory is null
+     */
+    public static JournaledConservatory open(Path directory) throws IOException {
+        return open(directory, DEFAULT_MAX_AVIARIES, Aviary.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Opens the conservatory stored in the specified directory, creating an
+     * empty one with the specified limits and the default mixing rules if the
+     * directory holds none. An existing conservatory keeps the limits and
+     * rules it was created with.
+     *
+     * @param directory      the directory holding the conservatory's files
+     * @param maxAviaries    the maximum number of aviaries of a new
+     *                       conservatory
+     * @param aviaryCapacity the number of birds each new aviary can hold in a
+     *                       new conservatory
+     * @return the opened conservatory
+     * @throws IOException              if the conservatory's files cannot be
+     *                                  read or written, or are corrupt
+     * @throws IllegalArgumentException if directory is null or either limit is
+     *                                  not positive
+     */
+    public static JournaledConservatory open(Path directory, int maxAviaries, int aviaryCapacity)
+            throws IOException {
+        return openOrCreate(directory, maxAviaries, aviaryCapacity, null);
+    }
+
+    /**
+     * Opens the conservatory stored in the specified directory, creating an
+     * empty one with the specified limits and mixing rules if the directory
+     * holds none. An existing conservatory keeps the limits it was created
+     * with, but must have been created under the same rules, since its log
+     * only replays under the rules it was recorded with.
+     *
+     * @param directory      the directory holding the conservatory's files
+     * @param maxAviaries    the maximum number of aviaries of a new
+     *                       conservatory
+     * @param aviaryCapacity the number of birds each new aviary can hold in a
+     *                       new conservatory
+     * @param rules          which bird types may share an aviary
+     * @return the opened conservatory
+     * @throws IOException              if the conservatory's files cannot be
+     *                                  read or written, or are corrupt
+     * @throws IllegalArgumentException if directory or rules is null, either
+     *                                  limit is not positive, or the existing
+     *                                  conservatory was created under different
+     *                                  rules
+     */
+    public static JournaledConservatory open(Path directory, int maxAviaries, int aviaryCapacity,
+            CompatibilityMatrix rules) throws IOException {
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules cannot be null");
+        }
+        return openOrCreate(directory, maxAviaries, aviaryCapacity, rules);
+    }
+
+    /**
+     * Opens the conservatory stored in a directory, or creates an empty one.
+     *
+     * @param directory      the directory holding the conservatory's files
+     * @param maxAviaries    the maximum number of aviaries of a new
+     *                       conservatory
+     * @param aviaryCapacity the number of birds each new aviary can hold in a
+     *                       new conservatory
+     * @param rules          the rules an existing conservatory must have been
+     *                       created under, or null to keep whichever it was
+     *                       created under and give a new one the default rules
+     * @return the opened conservatory
+     * @throws IOException if the conservatory's files cannot be read or
+     *                     written, or are corrupt
+     */
+    private static JournaledConservatory openOrCreate(Path directory, int maxAviaries, int aviaryCapacity,
+            CompatibilityMatrix rules) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+
+        JournaledConservatory conservatory;
+        if (!Files.exists(snapshot)) {
+            conservatory = new JournaledConservatory(directory, maxAviaries, aviaryCapacity,
+                    rules == null ? CompatibilityMatrix.getDefault() : rules);
+            conservatory.generation = 1;
+            conservatory.writeSnapshot();
+            conservatory.log = new EventLog(logFile(directory, 1), 0);
+        } else {
+            Map<Long, Bird> birdsById = new HashMap<>();
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(snapshot)))) {
+                ConservatorySnapshot.Header header = ConservatorySnapshot.readHeader(in);
+                if (rules != null && !rules.equals(header.rules)) {
+                    throw new IllegalArgumentException("Conservatory in " + directory
+                            + " was created under different mixing rules");
+                }
+                conservatory = new JournaledConservatory(directory,
+                        header.maxAviaries, header.aviaryCapacity, header.rules);
+                conservatory.generation = header.generation;
+                ConservatorySnapshot.readBody(in, conservatory, birdsById);
+            }
+            long validLength = 0;
+            List<Long> generations = logGenerations(directory, conservatory.generation);
+            for (int i = 0; i < generations.size(); i++) {
+                long generation = generations.get(i);
+                Path file = logFile(directory, generation);
+                validLength = conservatory.replay(file, birdsById);
+                // Only the newest log can have been torn by a crash
+                if (i < generations.size() - 1 && validLength != Files.size(file)) {
+                    throw new IOException("Corrupt event log: " + file.getFileName()
+                            + " is damaged at byte " + validLength);
+                }
+                conservatory.generation = generation;
+            }
+            conservatory.log = new EventLog(logFile(directory, conservatory.generation), validLength);
+        }
+        conservatory.setJournal(conservatory.new Recorder());
+        return conservatory;
+    }
+
+    private static Path logFile(Path directory, long generation) {
+        return directory.resolve("events-" + generation + ".log");
+    }
+
+    /**
+     * Returns the generations of the log files in a directory, in order.
+     *
+     * @param directory the directory to list
+     * @param from      the first generation to include
+     * @return the generations at or after from
+     * @throws IOException if the directory cannot be listed
+     */
+    private static List<Long> logGenerations(Path directory, long from) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = LOG_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        generations.removeIf(generation -> generation < from);
+        generations.sort(null);
+        return generations;
+    }
+
+    /**
+     * Replays the events in a log file.
+     *
+     * @param file      the log to replay
+     * @param birdsById the birds restored so far, keyed by id value
+     * @return the length of the log's whole records
+     * @throws IOException if the log cannot be read or holds an invalid event
+     */
+    private long replay(Path file, Map<Long, Bird> birdsById) throws IOException {
+        try {
+            return EventLog.read(file, record -> {
+                try {
+                    apply(record, birdsById);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void apply(byte[] record, Map<Long, Bird> birdsById) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        try {
+            byte type = in.readByte();
+            switch (type) {
+                case REGISTER: {
+                    long id = in.readLong();
+                    Bird bird = BirdCodec.read(in);
+                    restoreBird(new BirdId(id), bird);
+                    birdsById.put(id, bird);
+                    break;
+                }
+                case RESCUE:
+                    restoreRescue(ConservatorySnapshot.bird(birdsById, in.readLong()));
+                    break;
+                case AVIARY: {
+                    restoreAviary(in.readInt(), in.readUTF(), in.readInt());
+                    CompatibilityClass compatibility = CompatibilityClass.values()[in.readUnsignedByte()];
+                    restoreSection(compatibility, in.readUTF(), in.readInt());
+                    break;
+                }
+                case PLACE: {
+                    Bird bird = ConservatorySnapshot.bird(birdsById, in.readLong());
+                    aviary(in.readInt()).addBird(bird);
+                    break;
+                }
+                case REMOVE: {
+                    Bird bird = ConservatorySnapshot.bird(birdsById, in.readLong());
+                    aviary(in.readInt()).removeBird(bird);
+                    break;
+                }
+                case RELOCATE: {
+                    aviary(in.readInt()).relocate(in.readUTF());
+                    CompatibilityClass compatibility = CompatibilityClass.values()[in.readUnsignedByte()];
+                    restoreSection(compatibility, in.readUTF(), in.readInt());
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown event type: " + type);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt event log: " + e.getMessage(), e);
+        }
+    }
+
+    private Aviary aviary(int aviaryId) throws IOException {
+        Aviary aviary = aviaryById(aviaryId);
+        if (aviary == null) {
+            throw new IOException("Unknown aviary id: " + aviaryId);
+        }
+        return aviary;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException  if the change cannot be logged
+     * @throws IllegalStateException if this conservatory has been closed or a
+     *                               log write has failed
+     */
+    @Override
+    public BirdId rescueBird(Bird bird) {
+        checkOpen();
+        BirdId id = super.rescueBird(bird);
+        snapshotIfDue();
+        return id;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException  if the change cannot be logged
+     * @throws IllegalStateException if this conservatory has been closed or a
+     *                               log write has failed
+     */
+    @Override
+    public String assignBirdToAviary(Bird bird) {
+        checkOpen();
+        String result = super.assignBirdToAviary(bird);
+        snapshotIfDue();
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException  if the changes cannot be logged
+     * @throws IllegalStateException if this conservatory has been closed or a
+     *                               log write has failed
+     */
+    @Override
+    public PlacementPlan assignAll(Collection<Bird> birds) {
+        checkOpen();
+        PlacementPlan plan = super.assignAll(birds);
+        snapshotIfDue();
+        return plan;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException  if the changes cannot be logged
+     * @throws IllegalStateException if this conservatory has been closed or a
+     *                               log write has failed
+     */
+    @Override
+    public void applyCompaction(CompactionPlan plan) {
+        checkOpen();
+        super.applyCompaction(plan);
+        snapshotIfDue();
+    }
+
+    /**
+     * Returns the number of events logged between automatic snapshots.
+     *
+     * @return the snapshot interval
+     */
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    /**
+     * Sets the number of events logged between automatic snapshots.
+     *
+     * @param snapshotInterval the snapshot interval
+     * @throws IllegalArgumentException if snapshotInterval is not positive
+     */
+    public void setSnapshotInterval(int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be at least 1");
+        }
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Returns the number of events logged since the last snapshot.
+     *
+     * @return the number of events in the current log
+     */
+    public long getEventsSinceSnapshot() {
+        return eventsSinceSnapshot;
+    }
+
+    /**
+     * Waits until every change made so far has been forced to disk.
+     *
+     * @throws IOException           if the log cannot be written
+     * @throws IllegalStateException if this conservatory has been closed or a
+     *                               log write has failed
+     */
+    public void sync() throws IOException {
+        checkOpen();
+        log.awaitDurable(log.lastAppended());
+    }
+
+    /**
+     * Writes a snapshot of the whole conservatory and starts a new, empty
+     * event log. Older logs are deleted once the snapshot is on disk.
+     *
+     * @throws IOException           if the snapshot or log cannot be written
+     * @throws IllegalStateException if this conservatory has been closed or a
+     *                               log write has failed
+     */
+    public void snapshot() throws IOException {
+        checkOpen();
+        try {
+            // Closing the log forces everything recorded so far to disk, so
+            // recovery from the old snapshot stays possible until the new one
+            // has replaced it.
+            log.close();
+            generation++;
+            log = new EventLog(logFile(directory, generation), 0);
+            eventsSinceSnapshot = 0;
+            writeSnapshot();
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        for (long old : logGenerations(directory, 0)) {
+            if (old < generation) {
+                Files.deleteIfExists(logFile(directory, old));
+            }
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        ConservatorySnapshot.write(this, generation, temp);
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not every platform can sync a directory; the rename is still
+            // atomic, only its durability across a power loss is weaker.
+        }
+    }
+
+    private void snapshotIfDue() {
+        if (eventsSinceSnapshot >= snapshotInterval) {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Conservatory has been closed");
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Conservatory cannot be changed after a failed log write", failure);
+        }
+    }
+
+    /**
+     * Forces every logged change to disk and closes the event log. Changes
+     * made after closing are no longer recorded.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        setJournal(null);
+        log.close();
+    }
+
+    /**
+     * Encodes each change as an event and appends it to the log.
+     */
+    private class Recorder implements ConservatoryJournal {
+        @Override
+        public void birdRegistered(BirdId id, Bird bird) {
+            record(out -> {
+                out.writeByte(REGISTER);
+                out.writeLong(id.getValue());
+                BirdCodec.write(bird, out);
+            });
+        }
+
+        @Override
+        public void birdRescued(BirdId id) {
+            record(out -> {
+                out.writeByte(RESCUE);
+                out.writeLong(id.getValue());
+            });
+        }
+
+        @Override
+        public void aviaryCreated(Aviary aviary, CompatibilityClass compatibility,
+                String classification, int section) {
+            record(out -> {
+                out.writeByte(AVIARY);
+                out.writeInt(aviary.getId());
+                out.writeUTF(aviary.getLocation());
+                out.writeInt(aviary.getCapacity());
+                out.writeByte(compatibility.ordinal());
+                out.writeUTF(classification);
+                out.writeInt(section);
+            });
+        }
+
+        @Override
+        public void aviaryRelocated(Aviary aviary, CompatibilityClass compatibility,
+                String classification, int section) {
+            record(out -> {
+                out.writeByte(RELOCATE);
+                out.writeInt(aviary.getId());
+                out.writeUTF(aviary.getLocation());
+                out.writeByte(compatibility.ordinal());
+                out.writeUTF(classification);
+                out.writeInt(section);
+            });
+        }
+
+        @Override
+        public void birdPlaced(BirdId id, Aviary aviary) {
+            record(out -> {
+                out.writeByte(PLACE);
+                out.writeLong(id.getValue());
+                out.writeInt(aviary.getId());
+            });
+        }
+
+        @Override
+        public void birdRemoved(BirdId id, Aviary aviary) {
+            record(out -> {
+                out.writeByte(REMOVE);
+                out.writeLong(id.getValue());
+                out.writeInt(aviary.getId());
+            });
+        }
+
+        private void record(EventWriter writer) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            try {
+                writer.write(new DataOutputStream(bytes));
+                log.append(bytes.toByteArray());
+            } catch (IOException e) {
+                // The change is already made in memory, so refuse any more
+                failure = e;
+                throw new UncheckedIOException(e);
+            }
+            eventsSinceSnapshot++;
+        }
+    }
+
+    /**
+     * Writes the fields of one event.
+     */
+    @FunctionalInterface
+    private interface EventWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
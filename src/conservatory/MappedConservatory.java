@@ -0,0 +1,496 @@
+package conservatory;
+
+import birds.Bird;
+import birds.BirdCodec;
+import birds.BirdType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A read-only conservatory served straight from a memory-mapped snapshot file.
+ *
+ * <p>
+ * {@link #write(Conservatory, Path)} lays a conservatory out as fixed-size,
+ * id-sorted tables of birds and aviaries followed by the birds' encoded
+ * attributes and the aviaries' locations. {@link #open(Path)} maps the file
+ * and reads only its header, so opening takes the same time however large the
+ * conservatory is. Each query then binary-searches the tables and decodes just
+ * the records it needs; nothing is deserialized up front.
+ * </p>
+ *
+ * <p>
+ * Birds are looked up by {@link BirdId}, since a reopened snapshot shares no
+ * bird objects with the process that wrote it. A snapshot file must be smaller
+ * than 2 GB.
+ * </p>
+ */
+public final class MappedConservatory {
+    private static final int MAGIC = 0x4D415056; // "MAPV"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 48;
+    private static final int BIRD_BYTES = 24;
+    private static final int AVIARY_BYTES = 24;
+    private static final int RESIDENT_BYTES = 8;
+
+    // Bird record layout
+    private static final int BIRD_ID = 0;
+    private static final int BIRD_AVIARY = 8;
+    private static final int BIRD_DATA = 12;
+    private static final int BIRD_LENGTH = 16;
+    private static final int BIRD_TYPE = 20;
+    private static final int BIRD_FLAGS = 21;
+
+    // Aviary record layout
+    private static final int AVIARY_ID = 0;
+    private static final int AVIARY_CAPACITY = 4;
+    private static final int AVIARY_LOCATION = 8;
+    private static final int AVIARY_LOCATION_LENGTH = 12;
+    private static final int AVIARY_RESIDENTS = 16;
+    private static final int AVIARY_RESIDENT_COUNT = 20;
+
+    private static final int RESCUED_FLAG = 1;
+    private static final int NO_AVIARY = 0;
+    private static final BirdType[] TYPES = BirdType.values();
+
+    private final ByteBuffer buffer;
+    private final int maxAviaries;
+    private final int aviaryCapacity;
+    private final int birdCount;
+    private final int aviaryCount;
+    private final int birdTable;
+    private final int aviaryTable;
+    private final int residentTable;
+
+    private MappedConservatory(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a mapped conservatory snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot version: " + buffer.getInt(4));
+        }
+        this.maxAviaries = buffer.getInt(8);
+        this.aviaryCapacity = buffer.getInt(12);
+        this.birdCount = buffer.getInt(16);
+        this.aviaryCount = buffer.getInt(20);
+        this.birdTable = buffer.getInt(24);
+        this.aviaryTable = buffer.getInt(28);
+        this.residentTable = buffer.getInt(32);
+        if (birdCount < 0 || aviaryCount < 0
+                || !fits(birdTable, (long) birdCount * BIRD_BYTES)
+                || !fits(aviaryTable, (long) aviaryCount * AVIARY_BYTES)
+                || !fits(residentTable, 0)) {
+            throw new IOException("Corrupt mapped conservatory snapshot");
+        }
+    }
+
+    /**
+     * Returns whether a table or data range lies after the header and inside
+     * the mapped file.
+     *
+     * @param offset the range's start
+     * @param length the range's length in bytes
+     * @return true if the range is wholly inside the file's body
+     */
+    private boolean fits(long offset, long length) {
+        return offset >= HEADER_BYTES && length >= 0 && offset + length <= buffer.capacity();
+    }
+
+    private void checkRange(long offset, long length, String what) {
+        if (!fits(offset, length)) {
+            throw new IllegalStateException("Corrupt " + what + " in snapshot");
+        }
+    }
+
+    /**
+     * Writes a snapshot of a conservatory that can be opened with
+     * {@link #open(Path)}. The file is written under a temporary name and then
+     * moved into place, so a reader never sees a partial snapshot.
+     *
+     * @param conservatory the conservatory to write
+     * @param file         the file to write, replaced if it exists
+     * @throws IOException              if the file cannot be written or the
+     *                                  snapshot would exceed 2 GB
+     * @throws IllegalArgumentException if conservatory or file is null
+     */
+    public static void write(Conservatory conservatory, Path file) throws IOException {
+        if (conservatory == null) {
+            throw new IllegalArgumentException("Conservatory cannot be null");
+        }
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+
+        List<Bird> birds = new ArrayList<>();
+        conservatory.forEachBirdId((bird, id) -> birds.add(bird));
+        birds.sort(Comparator.comparing(conservatory::getBirdId));
+        List<Aviary> aviaries = new ArrayList<>(conservatory.getAviariesView());
+        aviaries.sort(Comparator.comparingInt(Aviary::getId));
+
+        int residentCount = 0;
+        for (Aviary aviary : aviaries) {
+            residentCount += aviary.getBirdCount();
+        }
+        long birdTable = HEADER_BYTES;
+        long aviaryTable = birdTable + (long) birds.size() * BIRD_BYTES;
+        long residentTable = aviaryTable + (long) aviaries.size() * AVIARY_BYTES;
+        long dataStart = residentTable + (long) residentCount * RESIDENT_BYTES;
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream dataOut = new DataOutputStream(data);
+        ByteBuffer tables = ByteBuffer.allocate(checkedSize(dataStart));
+        tables.putInt(0, MAGIC);
+        tables.putInt(4, FORMAT_VERSION);
+        tables.putInt(8, conservatory.getMaxAviaries());
+        tables.putInt(12, conservatory.getAviaryCapacity());
+        tables.putInt(16, birds.size());
+        tables.putInt(20, aviaries.size());
+        tables.putInt(24, (int) birdTable);
+        tables.putInt(28, (int) aviaryTable);
+        tables.putInt(32, (int) residentTable);
+
+        for (int i = 0; i < birds.size(); i++) {
+            Bird bird = birds.get(i);
+            Aviary aviary = conservatory.getAviaryOf(bird);
+            int start = data.size();
+            BirdCodec.write(bird, dataOut);
+            int record = (int) birdTable + i * BIRD_BYTES;
+            tables.putLong(record + BIRD_ID, conservatory.getBirdId(bird).getValue());
+            tables.putInt(record + BIRD_AVIARY, aviary == null ? NO_AVIARY : aviary.getId());
+            tables.putInt(record + BIRD_DATA, checkedSize(dataStart + start));
+            tables.putInt(record + BIRD_LENGTH, data.size() - start);
+            tables.put(record + BIRD_TYPE, (byte) bird.getType().ordinal());
+            tables.put(record + BIRD_FLAGS, (byte) (conservatory.isRescued(bird) ? RESCUED_FLAG : 0));
+        }
+
+        int resident = 0;
+        for (int i = 0; i < aviaries.size(); i++) {
+            Aviary aviary = aviaries.get(i);
+            byte[] location = aviary.getLocation().getBytes(StandardCharsets.UTF_8);
+            int record = (int) aviaryTable + i * AVIARY_BYTES;
+            tables.putInt(record + AVIARY_ID, aviary.getId());
+            tables.putInt(record + AVIARY_CAPACITY, aviary.getCapacity());
+            tables.putInt(record + AVIARY_LOCATION, checkedSize(dataStart + data.size()));
+            tables.putInt(record + AVIARY_LOCATION_LENGTH, location.length);
+            tables.putInt(record + AVIARY_RESIDENTS, resident);
+            tables.putInt(record + AVIARY_RESIDENT_COUNT, aviary.getBirdCount());
+            data.write(location);
+            for (Bird bird : aviary.getBirdsView()) {
+                tables.putLong((int) residentTable + resident * RESIDENT_BYTES,
+                        conservatory.getBirdId(bird).getValue());
+                resident++;
+            }
+        }
+        checkedSize(dataStart + data.size());
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, tables);
+            writeFully(channel, ByteBuffer.wrap(data.toByteArray()));
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int checkedSize(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot would exceed 2 GB");
+        }
+        return (int) size;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        bytes.clear();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Maps a snapshot written by {@link #write(Conservatory, Path)}. Only the
+     * header is read; everything else is read on demand.
+     *
+     * @param file the snapshot to open
+     * @return a read-only conservatory backed by the file
+     * @throws IOException              if the file cannot be mapped or is not a
+     *                                  snapshot
+     * @throws IllegalArgumentException if file is null
+     */
+    public static MappedConservatory open(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot exceeds 2 GB");
+            }
+            // The mapping stays valid after the channel is closed
+            return new MappedConservatory(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns the maximum number of aviaries of the snapshotted conservatory.
+     *
+     * @return the maximum number of aviaries
+     */
+    public int getMaxAviaries() {
+        return maxAviaries;
+    }
+
+    /**
+     * Returns the number of birds each new aviary could hold in the
+     * snapshotted conservatory.
+     *
+     * @return the aviary capacity
+     */
+    public int getAviaryCapacity() {
+        return aviaryCapacity;
+    }
+
+    /**
+     * Returns the number of birds in the snapshot, housed or not.
+     *
+     * @return the number of birds
+     */
+    public int getBirdCount() {
+        return birdCount;
+    }
+
+    /**
+     * Returns the number of aviaries in the snapshot.
+     *
+     * @return the number of aviaries
+     */
+    public int getAviaryCount() {
+        return aviaryCount;
+    }
+
+    /**
+     * Returns the offset of the bird record with the specified id.
+     *
+     * @param id the id to look up
+     * @return the record's offset, or -1 if there is none
+     */
+    private int findBird(BirdId id) {
+        long value = id.getValue();
+        int low = 0;
+        int high = birdCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = birdTable + mid * BIRD_BYTES;
+            long midValue = buffer.getLong(record + BIRD_ID);
+            if (midValue < value) {
+                low = mid + 1;
+            } else if (midValue > value) {
+                high = mid - 1;
+            } else {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset of the aviary record with the specified id.
+     *
+     * @param aviaryId the id to look up
+     * @return the record's offset, or -1 if there is none
+     */
+    private int findAviary(int aviaryId) {
+        int low = 0;
+        int high = aviaryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = aviaryTable + mid * AVIARY_BYTES;
+            int midId = buffer.getInt(record + AVIARY_ID);
+            if (midId < aviaryId) {
+                low = mid + 1;
+            } else if (midId > aviaryId) {
+                high = mid - 1;
+            } else {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    private static BirdId requireId(BirdId id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Bird id cannot be null");
+        }
+        return id;
+    }
+
+    /**
+     * Returns the bird with the specified id, decoding only that bird.
+     *
+     * @param id the id to look up
+     * @return a new bird equal to the snapshotted one, or null if the snapshot
+     *         holds no bird with the id
+     * @throws IllegalArgumentException if id is null
+     * @throws IllegalStateException    if the bird's record is corrupt
+     */
+    public Bird getBird(BirdId id) {
+        int record = findBird(requireId(id));
+        return record < 0 ? null : decodeBird(record);
+    }
+
+    private Bird decodeBird(int record) {
+        int start = buffer.getInt(record + BIRD_DATA);
+        int length = buffer.getInt(record + BIRD_LENGTH);
+        checkRange(start, length, "bird record");
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.position(start).limit(start + length);
+        try {
+            return BirdCodec.read(new DataInputStream(new ByteBufferInputStream(bytes)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt bird record in snapshot", e);
+        }
+    }
+
+    /**
+     * Returns whether the bird with the specified id had been rescued.
+     *
+     * @param id the id to look up
+     * @return true if the bird had been rescued, false otherwise
+     * @throws IllegalArgumentException if id is null
+     */
+    public boolean isRescued(BirdId id) {
+        int record = findBird(requireId(id));
+        return record >= 0 && (buffer.get(record + BIRD_FLAGS) & RESCUED_FLAG) != 0;
+    }
+
+    /**
+     * Returns where the bird with the specified id is housed, in the same words
+     * as {@link Conservatory#lookupBird(Bird)}. Only the bird's record and its
+     * aviary's location are read.
+     *
+     * @param id the id of the bird to look up
+     * @return a message describing where the bird is
+     * @throws IllegalArgumentException if id is null
+     * @throws IllegalStateException    if the bird's or its aviary's record is
+     *                                  corrupt
+     */
+    public String lookupBird(BirdId id) {
+        int record = findBird(requireId(id));
+        if (record < 0) {
+            return id + " is not found in this conservatory";
+        }
+        String name = type(record).getDisplayName();
+        int aviaryRecord = findAviary(buffer.getInt(record + BIRD_AVIARY));
+        if (aviaryRecord >= 0) {
+            return name + " is located in Aviary " + buffer.getInt(aviaryRecord + AVIARY_ID)
+                    + " (" + location(aviaryRecord) + ")";
+        }
+        if ((buffer.get(record + BIRD_FLAGS) & RESCUED_FLAG) != 0) {
+            return name + " has been rescued but is not yet assigned to an aviary";
+        }
+        return name + " is not found in this conservatory";
+    }
+
+    private BirdType type(int record) {
+        int ordinal = buffer.get(record + BIRD_TYPE);
+        if (ordinal < 0 || ordinal >= TYPES.length) {
+            throw new IllegalStateException("Unknown bird type " + ordinal + " in snapshot");
+        }
+        return TYPES[ordinal];
+    }
+
+    private String location(int aviaryRecord) {
+        int start = buffer.getInt(aviaryRecord + AVIARY_LOCATION);
+        int length = buffer.getInt(aviaryRecord + AVIARY_LOCATION_LENGTH);
+        checkRange(start, length, "aviary location");
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(start);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the sign for a specific aviary, identical to the sign the
+     * aviary showed when the snapshot was written. Only that aviary and its
+     * residents are decoded.
+     *
+     * @param aviaryId the ID of the aviary
+     * @return the sign string for the specified aviary
+     * @throws IllegalArgumentException if no aviary with the given ID exists
+     * @throws IllegalStateException    if the aviary's records are corrupt
+     */
+    public String getAviarySign(int aviaryId) {
+        int record = findAviary(aviaryId);
+        if (record < 0) {
+            throw new IllegalArgumentException("No aviary found with ID: " + aviaryId);
+        }
+        // Rendered straight from the residents: the snapshot may have been
+        // written under other mixing rules than this process's defaults
+        int first = buffer.getInt(record + AVIARY_RESIDENTS);
+        int count = buffer.getInt(record + AVIARY_RESIDENT_COUNT);
+        if (first < 0 || count < 0) {
+            throw new IllegalStateException("Corrupt aviary residents in snapshot");
+        }
+        checkRange(residentTable + (long) first * RESIDENT_BYTES, (long) count * RESIDENT_BYTES,
+                "aviary residents");
+        List<Bird> residents = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            long id = buffer.getLong(residentTable + i * RESIDENT_BYTES);
+            if (id <= 0) {
+                throw new IllegalStateException("Corrupt aviary residents in snapshot");
+            }
+            int birdRecord = findBird(new BirdId(id));
+            if (birdRecord < 0) {
+                throw new IllegalStateException("Unknown resident " + new BirdId(id) + " in snapshot");
+            }
+            residents.add(decodeBird(birdRecord));
+        }
+        return Aviary.renderSign(aviaryId, location(record), residents);
+    }
+
+    @Override
+    public String toString() {
+        return "Mapped conservatory with " + aviaryCount + " aviaries and " + birdCount + " birds";
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer as a stream.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer bytes;
+
+        ByteBufferInputStream(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() {
+            return bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!bytes.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, bytes.remaining());
+            bytes.get(b, off, n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package conservatory;
+
+import birds.Bird;
+
+import java.util.List;
+
+/**
+ * Tracks which aviaries still have room so that a home for a bird can be
+ * found without scanning every aviary. Occupied aviaries are sharded into one
+ * {@link Wing} per compatibility class; empty aviaries, which can take a bird
+ * of any class, are kept in a shared pool.
+ *
+ * <p>
+ * Aviaries are offered to the index when they gain a free slot and are
+ * dropped lazily: a full or re-purposed aviary is only discarded once it
+ * reaches the head of its queue. An aviary that is still queued is not queued
+ * again, so each queue holds at most one entry per aviary however many
+ * changes are made, and {@link #find(Bird)} stays O(1) amortized.
+ * </p>
+ */
+final class PlacementIndex {
+    private final Wing[] wings;
+    private final AviaryQueue empty;
+
+    /**
+     * Constructs an index with no aviaries.
+     */
+    PlacementIndex() {
+        CompatibilityClass[] classes = CompatibilityClass.values();
+        this.wings = new Wing[classes.length];
+        for (CompatibilityClass compatibility : classes) {
+            wings[compatibility.ordinal()] = new Wing(compatibility);
+        }
+        this.empty = new AviaryQueue();
+    }
+
+    /**
+     * Returns the wing for the specified compatibility class.
+     *
+     * @param compatibility the class to look up
+     * @return the class's wing
+     */
+    Wing wing(CompatibilityClass compatibility) {
+        return wings[compatibility.ordinal()];
+    }
+
+    /**
+     * Records a newly created, still empty aviary.
+     *
+     * @param aviary the new aviary
+     */
+    void aviaryCreated(Aviary aviary) {
+        empty.offer(aviary);
+    }
+
+    /**
+     * Records that a bird has been added to an aviary.
+     *
+     * @param aviary the aviary the bird was added to
+     */
+    void birdAdded(Aviary aviary) {
+        wing(aviary.getCompatibilityClass()).birdAdded(aviary);
+    }
+
+    /**
+     * Records that a bird has been removed from an aviary.
+     *
+     * @param aviary the aviary the bird was removed from
+     * @param bird   the bird that was removed
+     */
+    void birdRemoved(Aviary aviary, Bird bird) {
+        wing(CompatibilityClass.of(bird)).birdRemoved(aviary);
+        if (aviary.isEmpty()) {
+            empty.offer(aviary);
+        }
+    }
+
+    /**
+     * Finds an aviary that can take the specified bird, preferring partly
+     * filled aviaries over empty ones.
+     *
+     * @param bird the bird to find a home for
+     * @return an aviary with room for the bird, or null if there is none
+     */
+    Aviary find(Bird bird) {
+        if (bird.isExtinct()) {
+            return null;
+        }
+        Aviary aviary = wing(CompatibilityClass.of(bird)).findOpen(bird);
+        if (aviary != null) {
+            return aviary;
+        }
+
+        return empty.head(Aviary::isEmpty);
+    }
+
+    /**
+     * Returns every partly filled aviary with room for birds of the specified
+     * class, in the order they would be chosen by {@link #find(Bird)}.
+     *
+     * @param compatibility the class to list aviaries for
+     * @return a new list of open aviaries
+     */
+    List<Aviary> openAviaries(CompatibilityClass compatibility) {
+        return wing(compatibility).openAviaries();
+    }
+
+    /**
+     * Returns every empty aviary, discarding stale entries from the empty
+     * pool along the way.
+     *
+     * @return a new list of empty aviaries
+     */
+    List<Aviary> emptyAviaries() {
+        return empty.sweep(Aviary::isEmpty);
+    }
+}
@@ -0,0 +1,162 @@
+package conservatory;
+
+import birds.Bird;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of placing a batch of birds with
+ * {@link Conservatory#assignAll(java.util.Collection)}.
+ * The plan lists where each bird was placed and which birds could not be
+ * placed, and why.
+ */
+public final class PlacementPlan {
+    private final List<Placement> placements;
+    private final List<Rejection> rejections;
+    private int aviariesCreated;
+
+    /**
+     * Constructs an empty plan.
+     */
+    PlacementPlan() {
+        this.placements = new ArrayList<>();
+        this.rejections = new ArrayList<>();
+    }
+
+    void addPlacement(Bird bird, Aviary aviary, boolean newAviary) {
+        placements.add(new Placement(bird, aviary, newAviary));
+    }
+
+    void addRejection(Bird bird, String reason) {
+        rejections.add(new Rejection(bird, reason));
+    }
+
+    void aviaryCreated() {
+        aviariesCreated++;
+    }
+
+    void merge(PlacementPlan other) {
+        placements.addAll(other.placements);
+        rejections.addAll(other.rejections);
+        aviariesCreated += other.aviariesCreated;
+    }
+
+    /**
+     * Returns the birds that were placed and where they were placed.
+     *
+     * @return an unmodifiable list of placements
+     */
+    public List<Placement> getPlacements() {
+        return Collections.unmodifiableList(placements);
+    }
+
+    /**
+     * Returns the birds that could not be placed.
+     *
+     * @return an unmodifiable list of rejections
+     */
+    public List<Rejection> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    /**
+     * Returns the number of aviaries created to house the batch.
+     *
+     * @return the number of new aviaries
+     */
+    public int getAviariesCreated() {
+        return aviariesCreated;
+    }
+
+    @Override
+    public String toString() {
+        return "Placed " + placements.size() + " birds (" + aviariesCreated
+                + " new aviaries), rejected " + rejections.size();
+    }
+
+    /**
+     * A bird and the aviary it was placed in.
+     */
+    public static final class Placement {
+        private final Bird bird;
+        private final Aviary aviary;
+        private final boolean newAviary;
+
+        Placement(Bird bird, Aviary aviary, boolean newAviary) {
+            this.bird = bird;
+            this.aviary = aviary;
+            this.newAviary = newAviary;
+        }
+
+        /**
+         * Returns the bird that was placed.
+         *
+         * @return the bird
+         */
+        public Bird getBird() {
+            return bird;
+        }
+
+        /**
+         * Returns the aviary the bird was placed in.
+         *
+         * @return the aviary
+         */
+        public Aviary getAviary() {
+            return aviary;
+        }
+
+        /**
+         * Returns whether the aviary was created for this batch.
+         *
+         * @return true if the aviary is new, false if it already existed
+         */
+        public boolean isNewAviary() {
+            return newAviary;
+        }
+
+        @Override
+        public String toString() {
+            return bird.getType().getDisplayName() + " -> Aviary " + aviary.getId()
+                    + " (" + aviary.getLocation() + ")";
+        }
+    }
+
+    /**
+     * A bird that could not be placed, with the reason why.
+     */
+    public static final class Rejection {
+        private final Bird bird;
+        private final String reason;
+
+        Rejection(Bird bird, String reason) {
+            this.bird = bird;
+            this.reason = reason;
+        }
+
+        /**
+         * Returns the bird that could not be placed.
+         *
+         * @return the bird
+         */
+        public Bird getBird() {
+            return bird;
+        }
+
+        /**
+         * Returns why the bird could not be placed.
+         *
+         * @return the reason
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return bird.getType().getDisplayName() + ": " + reason;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package conservatory;
+
+import birds.Bird;
+import birds.WaterBird;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A dictionary of the bodies of water a conservatory's water birds come from,
+ * indexing each to its birds and to the aviaries that house them.
+ *
+ * <p>
+ * Names are matched ignoring case and surrounding whitespace, so "Lake
+ * Michigan" and " lake michigan" are one body of water, known by the first
+ * spelling seen. Each body's entry is created once and shared by every bird
+ * from it. Bodies are kept sorted by their matching key, so a prefix lookup
+ * visits only the bodies that match.
+ * </p>
+ */
+final class WaterBodyIndex {
+    private final TreeMap<String, WaterBody> bodies;
+
+    /**
+     * Constructs an empty index.
+     */
+    WaterBodyIndex() {
+        this.bodies = new TreeMap<>();
+    }
+
+    /**
+     * Returns the key a body of water's name is matched by.
+     *
+     * @param name the name
+     * @return the name, trimmed and in lower case
+     */
+    static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds a bird that has been given an id; birds that are not water birds
+     * are ignored.
+     *
+     * @param id   the bird's id
+     * @param bird the bird to add
+     */
+    void add(BirdId id, Bird bird) {
+        if (bird instanceof WaterBird) {
+            String name = ((WaterBird) bird).getBodyOfWater();
+            bodies.computeIfAbsent(key(name), key -> new WaterBody(name.trim())).birds.put(id, bird);
+        }
+    }
+
+    /**
+     * Counts a bird placed in an aviary against its body of water; birds
+     * that are not water birds, or were never added, are ignored.
+     *
+     * @param bird   the bird that was placed
+     * @param aviary the aviary it was placed in
+     */
+    void place(Bird bird, Aviary aviary) {
+        WaterBody body = bodyOf(bird);
+        if (body != null) {
+            body.aviaries.merge(aviary, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Uncounts a bird removed from an aviary; birds that are not water birds,
+     * or were never added, are ignored.
+     *
+     * @param bird   the bird that was removed
+     * @param aviary the aviary it was removed from
+     */
+    void remove(Bird bird, Aviary aviary) {
+        WaterBody body = bodyOf(bird);
+        if (body != null) {
+            body.aviaries.computeIfPresent(aviary, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private WaterBody bodyOf(Bird bird) {
+        if (!(bird instanceof WaterBird)) {
+            return null;
+        }
+        return bodies.get(key(((WaterBird) bird).getBodyOfWater()));
+    }
+
+    /**
+     * Returns the names of the bodies of water whose names start with a
+     * prefix, ignoring case, in alphabetical order.
+     *
+     * @param prefix the prefix to match; empty to match every body
+     * @return a new list of names
+     */
+    List<String> names(String prefix) {
+        String from = key(prefix);
+        Map<String, WaterBody> matches = from.isEmpty()
+                ? bodies
+                : bodies.subMap(from, true, from + Character.MAX_VALUE, false);
+        List<String> names = new ArrayList<>(matches.size());
+        for (WaterBody body : matches.values()) {
+            names.add(body.name);
+        }
+        return names;
+    }
+
+    /**
+     * Returns the birds from a body of water, in the order they were given
+     * ids.
+     *
+     * @param name the body's name, matched ignoring case
+     * @return a new list of birds, empty if the body is unknown
+     */
+    List<Bird> birds(String name) {
+        WaterBody body = bodies.get(key(name));
+        return body == null ? new ArrayList<>() : new ArrayList<>(body.birds.values());
+    }
+
+    /**
+     * Returns each aviary housing a bird from a body of water, with the number
+     * of such birds it houses, in order of aviary id.
+     *
+     * @param name the body's name, matched ignoring case
+     * @return a new map of aviaries to bird counts, empty if the body is
+     *         unknown
+     */
+    Map<Aviary, Integer> aviaries(String name) {
+        WaterBody body = bodies.get(key(name));
+        return body == null ? new LinkedHashMap<>() : new LinkedHashMap<>(body.aviaries);
+    }
+
+    /**
+     * One body of water and the birds that come from it.
+     */
+    private static final class WaterBody {
+        private final String name;
+        private final Map<BirdId, Bird> birds = new LinkedHashMap<>();
+        private final Map<Aviary, Integer> aviaries = new TreeMap<>(Comparator.comparingInt(Aviary::getId));
+
+        WaterBody(String name) {
+            this.name = name;
+        }
+    }
+}
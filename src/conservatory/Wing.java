@@ -0,0 +1,189 @@
+package conservatory;
+
+import birds.Bird;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A shard of the conservatory holding every occupied aviary of a single
+ * {@link CompatibilityClass}.
+ *
+ * <p>
+ * Each wing keeps its own members, bird count, and queue of aviaries with free
+ * slots, so placing, counting, and naming aviaries only ever touches the wing
+ * a bird belongs to. An aviary joins a wing when its first bird arrives and
+ * leaves it again once it is emptied. An aviary is queued at most once, so
+ * the queue stays no longer than the number of aviaries however often birds
+ * come and go.
+ * </p>
+ */
+public final class Wing {
+    private final CompatibilityClass compatibilityClass;
+    private final Set<Aviary> aviaries;
+    private final AviaryQueue open;
+    private final Map<String, Integer> sectionCounts;
+    private int birdCount;
+
+    /**
+     * Constructs an empty wing for the specified compatibility class.
+     *
+     * @param compatibilityClass the class of every bird housed in the wing
+     */
+    Wing(CompatibilityClass compatibilityClass) {
+        this.compatibilityClass = compatibilityClass;
+        this.aviaries = new LinkedHashSet<>();
+        this.open = new AviaryQueue();
+        this.sectionCounts = new HashMap<>();
+    }
+
+    /**
+     * Returns the compatibility class of every bird housed in this wing.
+     *
+     * @return the wing's compatibility class
+     */
+    public CompatibilityClass getCompatibilityClass() {
+        return compatibilityClass;
+    }
+
+    /**
+     * Returns a defensive copy of the aviaries in this wing, in the order they
+     * joined it.
+     *
+     * @return a list of the wing's aviaries
+     */
+    public List<Aviary> getAviaries() {
+        return new ArrayList<>(aviaries);
+    }
+
+    /**
+     * Returns the number of aviaries in this wing.
+     *
+     * @return the number of aviaries
+     */
+    public int getAviaryCount() {
+        return aviaries.size();
+    }
+
+    /**
+     * Returns the number of birds housed in this wing.
+     *
+     * @return the number of birds
+     */
+    public int getBirdCount() {
+        return birdCount;
+    }
+
+    /**
+     * Records that a bird has been added to an aviary of this wing.
+     *
+     * @param aviary the aviary the bird was added to
+     */
+    void birdAdded(Aviary aviary) {
+        birdCount++;
+        if (aviaries.add(aviary)) {
+            offer(aviary);
+        }
+    }
+
+    /**
+     * Records that a bird has been removed from an aviary of this wing. An
+     * aviary left empty leaves the wing.
+     *
+     * @param aviary the aviary the bird was removed from
+     */
+    void birdRemoved(Aviary aviary) {
+        birdCount--;
+        if (aviary.isEmpty()) {
+            aviaries.remove(aviary);
+        } else {
+            offer(aviary);
+        }
+    }
+
+    /**
+     * Queues an aviary of this wing that may have a free slot, unless it is
+     * queued already.
+     *
+     * @param aviary the aviary to queue
+     */
+    private void offer(Aviary aviary) {
+        if (!aviary.isFull()) {
+            open.offer(aviary);
+        }
+    }
+
+    /**
+     * Returns an aviary of this wing that the specified bird can join. Aviaries
+     * that have filled up or left the wing since they were queued are
+     * discarded from the head of the queue, which keeps this O(1) amortized.
+     * Only when the mixing rules are narrower than the wing's class can the
+     * head refuse the bird; then the rest of the queue is searched, leaving
+     * the aviaries the bird cannot join queued for others.
+     *
+     * @param bird the bird to find a home for
+     * @return an aviary the bird can join, or null if there is none
+     */
+    Aviary findOpen(Bird bird) {
+        Aviary head = open.head(this::hasRoom);
+        if (head == null || head.canAddBird(bird)) {
+            return head;
+        }
+        return open.find(aviary -> hasRoom(aviary) && aviary.canAddBird(bird));
+    }
+
+    /**
+     * Returns every aviary of this wing with a free slot, discarding stale
+     * queue entries along the way.
+     *
+     * @return a new list of open aviaries
+     */
+    List<Aviary> openAviaries() {
+        return open.sweep(this::hasRoom);
+    }
+
+    /**
+     * Returns the next free section number for a new aviary housing the
+     * specified classification.
+     *
+     * @param classification the classification the aviary is created for
+     * @return the section number, starting at 1
+     */
+    int nextSection(String classification) {
+        return sectionCounts.merge(classification, 1, Integer::sum);
+    }
+
+    /**
+     * Raises the section counter for a classification to at least the
+     * specified number.
+     *
+     * @param classification the classification to restore
+     * @param section        the highest section number already used
+     */
+    void restoreSection(String classification, int section) {
+        sectionCounts.merge(classification, section, Math::max);
+    }
+
+    /**
+     * Returns a copy of the highest section number used per classification.
+     *
+     * @return a new map of classification names to section numbers
+     */
+    Map<String, Integer> sectionCounts() {
+        return new HashMap<>(sectionCounts);
+    }
+
+    private boolean hasRoom(Aviary aviary) {
+        return !aviary.isFull() && aviary.getCompatibilityClass() == compatibilityClass;
+    }
+
+    @Override
+    public String toString() {
+        return compatibilityClass.getDisplayName() + " wing: " + aviaries.size()
+                + " aviaries, " + birdCount + " birds";
+    }
+}
@@ -0,0 +1,229 @@
+package birds;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the BirdCodec class.
+ * Tests cover round trips of every bird subclass through both encodings,
+ * recovery from short buffers, and throughput on a large stream.
+ */
+public class BirdCodecTest {
+
+    private List<Bird> birds;
+
+    @Before
+    public void setUp() {
+        List<Food> generalFood = Arrays.asList(Food.SEEDS, Food.INSECTS);
+        birds = Arrays.asList(
+                new BirdOfPrey(BirdType.HAWK, "Sharp hooked beak", false, 2,
+                        Arrays.asList(Food.SMALL_MAMMALS, Food.OTHER_BIRDS)),
+                new FlightlessBird(BirdType.MOA, "Giant extinct", true, 0, generalFood),
+                new Owl(BirdType.OWL, "Facial disks", false, 2, generalFood),
+                new Parrot(BirdType.GRAY_PARROT, "Intelligent", false, 2,
+                        Arrays.asList(Food.SEEDS, Food.NUTS, Food.FRUIT, Food.BERRIES), 100, "Polly wants a cracker"),
+                new Pigeon(BirdType.PIGEON, "Produces bird milk", false, 2, generalFood),
+                new Shorebird(BirdType.HORNED_PUFFIN, "Colorful beak", false, 2,
+                        Arrays.asList(Food.FISH, Food.AQUATIC_INVERTEBRATES), "Pacific Ocean"),
+                new Waterfowl(BirdType.DUCK, "Waterproof feathers", false, 2,
+                        Arrays.asList(Food.VEGETATION, Food.AQUATIC_INVERTEBRATES), "Lac Léman ☃ 🦆"));
+    }
+
+    // ==========================================================================
+    // Stream Encoding Tests
+    // ==========================================================================
+
+    @Test
+    public void testRoundTripHeapBuffer() {
+        assertRoundTrip(ByteBuffer.allocate(4096));
+    }
+
+    @Test
+    public void testRoundTripDirectBuffer() {
+        assertRoundTrip(ByteBuffer.allocateDirect(4096));
+    }
+
+    private void assertRoundTrip(ByteBuffer buffer) {
+        BirdCodec.Encoder encoder = new BirdCodec.Encoder();
+        for (Bird bird : birds) {
+            encoder.encode(bird, buffer);
+        }
+        buffer.flip();
+
+        BirdCodec.Decoder decoder = new BirdCodec.Decoder();
+        for (Bird bird : birds) {
+            Bird copy = decoder.decode(buffer);
+            assertEquals(bird, copy);
+            assertSame(bird.getClass(), copy.getClass());
+            assertEquals(bird.toString(), copy.toString());
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testRepeatedStringsAreEncodedOnce() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        BirdCodec.Encoder encoder = new BirdCodec.Encoder();
+        Bird duck = birds.get(6);
+
+        encoder.encode(duck, buffer);
+        int first = buffer.position();
+        encoder.encode(duck, buffer);
+        int second = buffer.position() - first;
+
+        assertTrue(second < 10);
+        assertTrue(second < first / 4);
+    }
+
+    @Test
+    public void testOverflowLeavesEncoderUsable() {
+        BirdCodec.Encoder encoder = new BirdCodec.Encoder();
+        ByteBuffer small = ByteBuffer.allocate(8);
+        try {
+            encoder.encode(birds.get(3), small);
+            fail("Expected the bird not to fit");
+        } catch (BufferOverflowException expected) {
+            assertEquals(0, small.position());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        encoder.encode(birds.get(3), buffer);
+        buffer.flip();
+        assertEquals(birds.get(3), new BirdCodec.Decoder().decode(buffer));
+    }
+
+    @Test
+    public void testUnderflowCanBeRetried() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        new BirdCodec.Encoder().encode(birds.get(5), buffer);
+        buffer.flip();
+        int length = buffer.limit();
+
+        BirdCodec.Decoder decoder = new BirdCodec.Decoder();
+        buffer.limit(length - 3);
+        try {
+            decoder.decode(buffer);
+            fail("Expected the record to be incomplete");
+        } catch (BufferUnderflowException expected) {
+            assertEquals(0, buffer.position());
+        }
+        buffer.limit(length);
+        assertEquals(birds.get(5), decoder.decode(buffer));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedVersion() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        new BirdCodec.Encoder().encode(birds.get(0), buffer);
+        buffer.put(1, (byte) (BirdCodec.FORMAT_VERSION + 1));
+        buffer.flip();
+        new BirdCodec.Decoder().decode(buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRecord() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        new BirdCodec.Encoder().encode(birds.get(0), buffer);
+        buffer.put(3, (byte) 120); // no such bird type
+        buffer.flip();
+        new BirdCodec.Decoder().decode(buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidContinuationByte() {
+        ByteBuffer buffer = encodeCafe();
+        buffer.put(indexOf(buffer, (byte) 0xC3) + 1, (byte) 'x');
+        new BirdCodec.Decoder().decode(buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStrayContinuationByte() {
+        ByteBuffer buffer = encodeCafe();
+        buffer.put(indexOf(buffer, (byte) 0xC3), (byte) 0xA9);
+        new BirdCodec.Decoder().decode(buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSequenceRunsPastString() {
+        ByteBuffer buffer = encodeCafe();
+        // A three-byte lead whose last byte would be beyond the string
+        buffer.put(indexOf(buffer, (byte) 0xC3), (byte) 0xE3);
+        new BirdCodec.Decoder().decode(buffer);
+    }
+
+    /**
+     * Encodes a bird whose characteristic ends in a two-byte character.
+     */
+    private static ByteBuffer encodeCafe() {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        new BirdCodec.Encoder().encode(new Pigeon(BirdType.PIGEON, "Caf\u00e9", false, 2,
+                Arrays.asList(Food.SEEDS, Food.INSECTS)), buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value) {
+        for (int i = 0; i < buffer.limit(); i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        throw new AssertionError("Byte not found");
+    }
+
+    // ==========================================================================
+    // Standalone Encoding Tests
+    // ==========================================================================
+
+    @Test
+    public void testDataStreamRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Bird bird : birds) {
+            BirdCodec.write(bird, out);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (Bird bird : birds) {
+            assertEquals(bird, BirdCodec.read(in));
+        }
+    }
+
+    // ==========================================================================
+    // Throughput Tests
+    // ==========================================================================
+
+    @Test(timeout = 20_000)
+    public void testMillionBirdThroughput() {
+        int count = 1_000_000;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(count * 16);
+        BirdCodec.Encoder encoder = new BirdCodec.Encoder();
+        for (int i = 0; i < count; i++) {
+            encoder.encode(birds.get(i % birds.size()), buffer);
+        }
+        assertTrue(buffer.position() < count * 12);
+        buffer.flip();
+
+        BirdCodec.Decoder decoder = new BirdCodec.Decoder();
+        for (int i = 0; i < count; i++) {
+            Bird bird = decoder.decode(buffer);
+            if (i % 99_991 == 0) {
+                assertEquals(birds.get(i % birds.size()), bird);
+            }
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+}
@@ -0,0 +1,177 @@
+package birds;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the BirdStore class and its BirdView flyweight.
+ */
+public class BirdStoreTest {
+
+    private BirdStore store;
+    private List<Bird> birds;
+
+    @Before
+    public void setUp() {
+        store = new BirdStore(2, false);
+        List<Food> preyFood = Arrays.asList(Food.SMALL_MAMMALS, Food.OTHER_BIRDS);
+        List<Food> generalFood = Arrays.asList(Food.SEEDS, Food.INSECTS);
+        birds = Arrays.asList(
+                new BirdOfPrey(BirdType.HAWK, "Sharp hooked beak", false, 2, preyFood),
+                new FlightlessBird(BirdType.MOA, "Giant extinct", true, 0, generalFood),
+                new Owl(BirdType.OWL, "Facial disks", false, 2, generalFood),
+                new Parrot(BirdType.GRAY_PARROT, "Intelligent", false, 2,
+                        Arrays.asList(Food.SEEDS, Food.NUTS, Food.FRUIT), 50, "Hello!"),
+                new Pigeon(BirdType.PIGEON, "Produces bird milk", false, 2, generalFood),
+                new Shorebird(BirdType.HORNED_PUFFIN, "Colorful beak", false, 2,
+                        Arrays.asList(Food.FISH, Food.AQUATIC_INVERTEBRATES), "Pacific Ocean"),
+                new Waterfowl(BirdType.DUCK, "Waterproof feathers", false, 2,
+                        Arrays.asList(Food.VEGETATION, Food.AQUATIC_INVERTEBRATES), "Lake"));
+    }
+
+    // ==========================================================================
+    // Storage Tests
+    // ==========================================================================
+
+    @Test
+    public void testRoundTripEveryKind() {
+        for (Bird bird : birds) {
+            store.add(bird);
+        }
+
+        assertEquals(birds.size(), store.size());
+        for (int row = 0; row < birds.size(); row++) {
+            Bird bird = birds.get(row);
+            Bird copy = store.toBird(row);
+            assertEquals(bird, copy);
+            assertSame(bird.getClass(), copy.getClass());
+            assertEquals(bird.toString(), copy.toString());
+        }
+    }
+
+    @Test
+    public void testDirectStore() {
+        BirdStore direct = new BirdStore(1, true);
+        for (Bird bird : birds) {
+            direct.add(bird);
+        }
+
+        assertTrue(direct.isDirect());
+        assertEquals(birds.get(3), direct.toBird(3));
+    }
+
+    @Test
+    public void testColumnGetters() {
+        int moa = store.add(birds.get(1));
+        int parrot = store.add(birds.get(3));
+        int duck = store.add(birds.get(6));
+
+        assertEquals(BirdType.MOA, store.getType(moa));
+        assertTrue(store.isExtinct(moa));
+        assertEquals(0, store.getNumberOfWings(moa));
+        assertEquals("Flightless Birds", store.getClassification(moa));
+        assertNull(store.getBodyOfWater(moa));
+        assertEquals(50, store.getVocabularySize(parrot));
+        assertEquals("Hello!", store.getFavoriteSaying(parrot));
+        assertEquals("Lake", store.getBodyOfWater(duck));
+        assertEquals(birds.get(6).getFoodMask(), store.getFoodMask(duck));
+        assertEquals(birds.get(6).getPreferredFood(), store.getPreferredFood(duck));
+    }
+
+    @Test
+    public void testStringsAreStoredOnce() {
+        Bird duck = birds.get(6);
+        for (int i = 0; i < 100; i++) {
+            store.add(duck);
+        }
+
+        assertEquals(2, store.getDistinctStringCount());
+    }
+
+    @Test
+    public void testAviarySlot() {
+        int row = store.add(birds.get(0));
+        assertEquals(BirdStore.NO_AVIARY, store.getAviarySlot(row));
+
+        store.setAviarySlot(row, 7);
+        assertEquals(7, store.getAviarySlot(row));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRowOutOfRange() {
+        store.add(birds.get(0));
+        store.getType(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddNull() {
+        store.add(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyWings() {
+        store.add(new Pigeon(BirdType.PIGEON, "Many wings", false, Short.MAX_VALUE + 1,
+                Arrays.asList(Food.SEEDS, Food.INSECTS)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new BirdStore(0, false);
+    }
+
+    // ==========================================================================
+    // View Tests
+    // ==========================================================================
+
+    @Test
+    public void testViewMovesBetweenRows() {
+        for (Bird bird : birds) {
+            store.add(bird);
+        }
+
+        BirdView view = store.view(0);
+        for (int row = 0; row < birds.size(); row++) {
+            Bird bird = birds.get(row);
+            assertSame(view, view.moveTo(row));
+            assertEquals(bird.getType(), view.getType());
+            assertEquals(bird.getClassification(), view.getClassification());
+            assertEquals(bird.getDefiningCharacteristic(), view.getDefiningCharacteristic());
+            assertEquals(bird.getFoodMask(), view.getFoodMask());
+            assertEquals(bird, view.toBird());
+        }
+        assertTrue(view.moveTo(3).prefersFood(Food.NUTS));
+    }
+
+    // ==========================================================================
+    // Large-Scale Tests
+    // ==========================================================================
+
+    @Test
+    public void testMillionBirds() {
+        BirdStore large = new BirdStore();
+        int expectedExtinct = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            Bird bird = birds.get(i % birds.size());
+            large.add(bird);
+            if (bird.isExtinct()) {
+                expectedExtinct++;
+            }
+        }
+
+        assertEquals(1_000_000, large.size());
+        assertTrue(large.getStorageBytes() < 1_000_000L * BirdStore.BYTES_PER_BIRD * 2);
+        int extinct = 0;
+        BirdView view = large.view(0);
+        for (int row = 0; row < large.size(); row++) {
+            if (view.moveTo(row).isExtinct()) {
+                extinct++;
+            }
+        }
+        assertEquals(expectedExtinct, extinct);
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -270,6 +271,21 @@ public class BirdTest {
         assertEquals(3, hawk.getPreferredFood().size());
     }
 
+    @Test
+    public void testPreferredFoodView() {
+        Bird hawk = new BirdOfPrey(BirdType.HAWK, "Sharp beak", false, 2, validFood);
+        List<Food> view = hawk.getPreferredFoodView();
+
+        assertEquals(hawk.getPreferredFood(), view);
+        assertSame(view, hawk.getPreferredFoodView());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPreferredFoodViewIsReadOnly() {
+        Bird hawk = new BirdOfPrey(BirdType.HAWK, "Sharp beak", false, 2, validFood);
+        hawk.getPreferredFoodView().add(Food.EGGS);
+    }
+
     @Test
     public void testBirdToString() {
         Bird hawk = new BirdOfPrey(BirdType.HAWK, "Sharp hooked beak", false, 2,
@@ -330,4 +346,62 @@ public class BirdTest {
 
         assertEquals(hawk1.hashCode(), hawk2.hashCode());
     }
+
+    // ==========================================================================
+    // Food Bitmask Tests
+    // ==========================================================================
+
+    @Test
+    public void testFoodMask() {
+        Bird hawk = new BirdOfPrey(BirdType.HAWK, "Sharp beak", false, 2, validFood);
+        int expected = Food.FISH.bit() | Food.SMALL_MAMMALS.bit() | Food.OTHER_BIRDS.bit();
+
+        assertEquals(expected, hawk.getFoodMask());
+        assertEquals(EnumSet.copyOf(validFood), Food.fromMask(hawk.getFoodMask()));
+        assertTrue(hawk.prefersFood(Food.FISH));
+        assertFalse(hawk.prefersFood(Food.SEEDS));
+        assertFalse(hawk.prefersFood(null));
+        assertTrue(hawk.prefersAnyFood(Food.SEEDS.bit() | Food.FISH.bit()));
+        assertFalse(hawk.prefersAllFoods(Food.SEEDS.bit() | Food.FISH.bit()));
+        assertTrue(hawk.prefersAllFoods(Food.FISH.bit() | Food.OTHER_BIRDS.bit()));
+    }
+
+    @Test
+    public void testPackedFoodKeepsOrder() {
+        Bird hawk = new BirdOfPrey(BirdType.HAWK, "Sharp beak", false, 2, validFood);
+        int packed = hawk.getPackedFood();
+
+        assertEquals(3, Food.packedSize(packed));
+        for (int i = 0; i < validFood.size(); i++) {
+            assertEquals(validFood.get(i), Food.packedAt(packed, i));
+        }
+    }
+
+    @Test
+    public void testEqualityDependsOnFoodOrder() {
+        Bird hawk = new BirdOfPrey(BirdType.HAWK, "Sharp beak", false, 2,
+                Arrays.asList(Food.FISH, Food.EGGS));
+        Bird reordered = new BirdOfPrey(BirdType.HAWK, "Sharp beak", false, 2,
+                Arrays.asList(Food.EGGS, Food.FISH));
+
+        assertEquals(hawk.getFoodMask(), reordered.getFoodMask());
+        assertNotEquals(hawk, reordered);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullFoodEntry() {
+        new BirdOfPrey(BirdType.HAWK, "Sharp beak", false, 2, Arrays.asList(Food.FISH, null));
+    }
+
+    @Test
+    public void testImmutableFoodList() {
+        Bird hawk = new BirdOfPrey(BirdType.HAWK, "Sharp beak", false, 2, List.of(Food.FISH, Food.EGGS));
+
+        assertEquals(Arrays.asList(Food.FISH, Food.EGGS), hawk.getPreferredFood());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testPackedAtOutOfRange() {
+        Food.packedAt(Food.pack(validFood), 3);
+    }
 }
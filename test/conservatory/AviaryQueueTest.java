@@ -0,0 +1,85 @@
+package conservatory;
+
+import birds.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the AviaryQueue class.
+ * Tests cover queueing each aviary at most once, dropping stale aviaries, and
+ * keeping the queue bounded while birds come and go.
+ */
+public class AviaryQueueTest {
+
+    private AviaryQueue queue;
+    private Aviary first;
+    private Aviary second;
+
+    @Before
+    public void setUp() {
+        queue = new AviaryQueue();
+        first = new Aviary(1, "First", 2);
+        second = new Aviary(2, "Second", 2);
+    }
+
+    private static Bird duck(int i) {
+        return new Waterfowl(BirdType.DUCK, "Duck " + i, false, 2,
+                Arrays.asList(Food.VEGETATION, Food.AQUATIC_INVERTEBRATES), "Lake Michigan");
+    }
+
+    // ==========================================================================
+    // Queueing Tests
+    // ==========================================================================
+
+    @Test
+    public void testAviaryIsQueuedOnce() {
+        queue.offer(first);
+        queue.offer(second);
+        queue.offer(first);
+
+        assertEquals(2, queue.size());
+        assertEquals(Arrays.asList(first, second), queue.sweep(aviary -> true));
+    }
+
+    @Test
+    public void testStaleHeadIsDroppedAndCanBeQueuedAgain() {
+        queue.offer(first);
+        queue.offer(second);
+        first.addBird(duck(0));
+
+        assertSame(second, queue.head(Aviary::isEmpty));
+        assertEquals(1, queue.size());
+
+        first.removeBird(first.getBirds().get(0));
+        queue.offer(first);
+        assertEquals(Arrays.asList(second, first), queue.sweep(Aviary::isEmpty));
+    }
+
+    @Test
+    public void testRepeatedChangesKeepQueueBounded() {
+        first.addBird(duck(0));
+        for (int i = 1; i <= 1000; i++) {
+            Bird duck = duck(i);
+            first.addBird(duck);
+            first.removeBird(duck);
+            queue.offer(first);
+            assertSame(first, queue.head(aviary -> !aviary.isFull()));
+        }
+
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testFindDoesNotChangeQueue() {
+        queue.offer(first);
+        queue.offer(second);
+
+        assertSame(second, queue.find(aviary -> aviary.getId() == 2));
+        assertNull(queue.find(aviary -> aviary.getId() == 3));
+        assertEquals(2, queue.size());
+    }
+}
@@ -4,6 +4,10 @@ import birds.*;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -62,6 +66,27 @@ public class AviaryTest {
         assertFalse(av.isFull());
     }
 
+    @Test
+    public void testDefaultCapacity() {
+        assertEquals(Aviary.DEFAULT_CAPACITY, aviary.getCapacity());
+    }
+
+    @Test
+    public void testConfiguredCapacity() {
+        Aviary large = new Aviary(2, "Large Hall", 8);
+        for (int i = 0; i < 8; i++) {
+            large.addBird(new Pigeon(BirdType.PIGEON, "Pigeon " + i, false, 2,
+                    Arrays.asList(Food.SEEDS, Food.BERRIES)));
+        }
+        assertTrue(large.isFull());
+        assertTrue(large.toString().contains("8/8 birds"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateAviaryWithZeroCapacity() {
+        new Aviary(1, "Nowhere", 0);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testCreateAviaryWithNullLocation() {
         new Aviary(1, null);
@@ -84,6 +109,34 @@ public class AviaryTest {
         assertEquals(1, aviary.getBirds().size());
     }
 
+    @Test
+    public void testBirdsViewReflectsChanges() {
+        List<Bird> view = aviary.getBirdsView();
+        assertTrue(view.isEmpty());
+
+        aviary.addBird(duck);
+        aviary.addBird(swan);
+        assertEquals(Arrays.asList(duck, swan), view);
+
+        aviary.removeBird(duck);
+        assertEquals(Arrays.asList(swan), view);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testBirdsViewIsReadOnly() {
+        aviary.getBirdsView().add(duck);
+    }
+
+    @Test
+    public void testForEachBird() {
+        aviary.addBird(duck);
+        aviary.addBird(swan);
+
+        List<Bird> seen = new ArrayList<>();
+        aviary.forEachBird(seen::add);
+        assertEquals(Arrays.asList(duck, swan), seen);
+    }
+
     @Test
     public void testAddBirdOfPreyToEmptyAviary() {
         assertTrue(aviary.canAddBird(hawk));
@@ -292,11 +345,49 @@ public class AviaryTest {
         assertEquals(1, aviary.getBirds().size()); // Original unchanged
     }
 
+    @Test
+    public void testRemoveBird() {
+        aviary.addBird(duck);
+        aviary.addBird(swan);
+
+        assertTrue(aviary.removeBird(duck));
+        assertFalse(aviary.hasBird(duck));
+        assertEquals(1, aviary.getBirdCount());
+        assertFalse(aviary.removeBird(duck));
+    }
+
+    @Test
+    public void testRemovingLastBirdFreesAviaryForAnyClass() {
+        aviary.addBird(hawk);
+        aviary.removeBird(hawk);
+
+        assertNull(aviary.getCompatibilityClass());
+        assertTrue(aviary.canAddBird(duck));
+    }
+
     @Test
     public void testEmptyAviaryHasNullClassification() {
         assertNull(aviary.getClassificationType());
     }
 
+    @Test
+    public void testCompatibilityClassFollowsFirstResident() {
+        assertNull(aviary.getCompatibilityClass());
+        aviary.addBird(owl);
+        aviary.addBird(puffin);
+        assertEquals(CompatibilityClass.MIXABLE, aviary.getCompatibilityClass());
+        assertEquals(2, aviary.getBirdCount());
+    }
+
+    @Test
+    public void testCompatibilityClassOfBirds() {
+        assertEquals(CompatibilityClass.BIRDS_OF_PREY, CompatibilityClass.of(hawk));
+        assertEquals(CompatibilityClass.FLIGHTLESS_BIRDS, CompatibilityClass.of(emu));
+        assertEquals(CompatibilityClass.WATERFOWL, CompatibilityClass.of(duck));
+        assertEquals(CompatibilityClass.MIXABLE, CompatibilityClass.of(parrot));
+        assertEquals(CompatibilityClass.MIXABLE, CompatibilityClass.of(puffin));
+    }
+
     @Test
     public void testCannotAddNullBird() {
         assertFalse(aviary.canAddBird(null));
@@ -330,6 +421,50 @@ public class AviaryTest {
         assertTrue(sign.contains("Swan"));
     }
 
+    @Test
+    public void testSignIsCachedUntilAviaryChanges() {
+        aviary.addBird(duck);
+        String first = aviary.getSign();
+        assertSame(first, aviary.getSign());
+
+        aviary.addBird(swan);
+        String second = aviary.getSign();
+        assertNotSame(first, second);
+        assertTrue(second.contains("Swan"));
+
+        aviary.removeBird(swan);
+        assertFalse(aviary.getSign().contains("Swan"));
+    }
+
+    @Test
+    public void testVersionIncreasesOnChange() {
+        long initial = aviary.getVersion();
+        aviary.addBird(duck);
+        assertTrue(aviary.getVersion() > initial);
+
+        long afterAdd = aviary.getVersion();
+        aviary.removeBird(swan);
+        assertEquals(afterAdd, aviary.getVersion());
+        aviary.removeBird(duck);
+        assertTrue(aviary.getVersion() > afterAdd);
+    }
+
+    @Test
+    public void testWriteSignMatchesText() throws IOException {
+        aviary.addBird(duck);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        aviary.writeSign(bytes);
+        aviary.writeSign(bytes);
+
+        String sign = aviary.getSign();
+        assertEquals(sign + sign, bytes.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteSignNullOutput() throws IOException {
+        aviary.writeSign(null);
+    }
+
     @Test
     public void testAviaryToString() {
         aviary.addBird(duck);
@@ -0,0 +1,327 @@
+package conservatory;
+
+import birds.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the BirdImporter class.
+ * Tests cover importing CSV and JSON-lines feeds, reporting malformed records
+ * without stopping, stopping at a malformed CSV header, line endings, and
+ * streaming feeds larger than a single batch.
+ */
+public class BirdImporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Conservatory conservatory;
+
+    private static final String CSV_HEADER =
+            "type,characteristic,extinct,wings,food,vocabulary,saying,water\n";
+
+    @Before
+    public void setUp() {
+        conservatory = new Conservatory();
+    }
+
+    // ==========================================================================
+    // CSV Tests
+    // ==========================================================================
+
+    @Test
+    public void testImportCsv() throws IOException {
+        String feed = CSV_HEADER
+                + "HAWK,Sharp hooked beak,false,2,Small Mammals;Other Birds,,,\n"
+                + "Gray Parrot,\"Intelligent, talkative\",false,2,seeds;nuts;fruit,50,\"Say \"\"hi\"\"\",\n"
+                + "DUCK,Waterproof feathers,false,2,VEGETATION;AQUATIC_INVERTEBRATES,,,Lake Michigan\n";
+
+        ImportReport report = new BirdImporter(conservatory, false).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+
+        assertEquals(3, report.getRecordsRead());
+        assertEquals(3, report.getRescued());
+        assertEquals(0, report.getAssigned());
+        assertEquals(0, report.getProblemCount());
+
+        List<Bird> rescued = conservatory.getRescuedBirds();
+        assertTrue(rescued.get(0) instanceof BirdOfPrey);
+        Parrot parrot = (Parrot) rescued.get(1);
+        assertEquals("Intelligent, talkative", parrot.getDefiningCharacteristic());
+        assertEquals("Say \"hi\"", parrot.getFavoriteSaying());
+        assertEquals(50, parrot.getVocabularySize());
+        Waterfowl duck = (Waterfowl) rescued.get(2);
+        assertEquals("Lake Michigan", duck.getBodyOfWater());
+        assertTrue(conservatory.getAviaries().isEmpty());
+    }
+
+    @Test
+    public void testImportCsvAndAssign() throws IOException {
+        String feed = CSV_HEADER
+                + "HAWK,Sharp hooked beak,false,2,Small Mammals;Other Birds,,,\n"
+                + "DUCK,Waterproof feathers,false,2,VEGETATION;FISH,,,Lake Michigan\n";
+
+        ImportReport report = new BirdImporter(conservatory, true).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+
+        assertEquals(2, report.getAssigned());
+        assertEquals(2, conservatory.getAviaries().size());
+        for (Bird bird : conservatory.getRescuedBirds()) {
+            assertNotNull(conservatory.getAviaryOf(bird));
+        }
+    }
+
+    @Test
+    public void testMalformedCsvRecordsAreReported() throws IOException {
+        String feed = CSV_HEADER
+                + "HAWK,Sharp hooked beak,false,2,Small Mammals;Other Birds,,,\n"
+                + "DRAGON,Breathes fire,false,2,FISH;FRUIT,,,\n"
+                + "\n"
+                + "HAWK,Sharp hooked beak,false,two,Small Mammals;Other Birds,,,\n"
+                + "GRAY_PARROT,Intelligent,false,2,SEEDS;NUTS,,,\n"
+                + "DUCK,Waterproof feathers,false,2,VEGETATION;FISH,,,\n"
+                + "HAWK,\"Unclosed,false,2,FISH;FRUIT,,,\n"
+                + "EAGLE,Powerful talons,false,2,FISH;CAKE,,,\n"
+                + "EAGLE,Powerful talons,false,2,FISH,,,\n"
+                + "EAGLE,Powerful talons,false,2,FISH;OTHER_BIRDS,,,\n";
+
+        ImportReport report = new BirdImporter(conservatory, false).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+
+        assertEquals(9, report.getRecordsRead());
+        assertEquals(2, report.getRescued());
+        assertEquals(7, report.getProblemCount());
+        List<ImportReport.Problem> problems = report.getProblems();
+        assertEquals(3, problems.get(0).getLineNumber());
+        assertEquals("Unknown bird type: DRAGON", problems.get(0).getReason());
+        assertEquals("Line 5: Invalid wings value: two", problems.get(1).toString());
+        assertEquals("Missing field: vocabulary", problems.get(2).getReason());
+        assertEquals("Missing field: water", problems.get(3).getReason());
+        assertEquals("Unterminated quoted field", problems.get(4).getReason());
+        assertEquals("Unknown food: CAKE", problems.get(5).getReason());
+        assertEquals(10, problems.get(6).getLineNumber());
+    }
+
+    @Test
+    public void testMalformedCsvHeaderStopsImport() throws IOException {
+        String feed = "type,\"characteristic,extinct,wings,food\n"
+                + "HAWK,Sharp hooked beak,false,2,Small Mammals;Other Birds\n"
+                + "EAGLE,Powerful talons,false,2,FISH;OTHER_BIRDS\n";
+
+        ImportReport report = new BirdImporter(conservatory, false).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+
+        assertEquals(0, report.getRecordsRead());
+        assertEquals(1, report.getProblemCount());
+        assertEquals("Line 1: Invalid header: Unterminated quoted field", report.getProblems().get(0).toString());
+        assertTrue(conservatory.getRescuedBirds().isEmpty());
+    }
+
+    @Test
+    public void testOnlyCarriageReturnsEndingLinesAreDropped() throws IOException {
+        String feed = CSV_HEADER.replace("\n", "\r\n")
+                + "HAWK,\"Sharp\rhooked beak\",false,2,Small Mammals;Other Birds,,,\r\n"
+                + "DUCK,Waterproof feathers,false,2,VEGETATION;FISH,,,Lake Michigan\r\n";
+
+        ImportReport report = new BirdImporter(conservatory, false).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+
+        assertEquals(0, report.getProblemCount());
+        List<Bird> rescued = conservatory.getRescuedBirds();
+        assertEquals("Sharp\rhooked beak", rescued.get(0).getDefiningCharacteristic());
+        assertEquals("Lake Michigan", ((Waterfowl) rescued.get(1)).getBodyOfWater());
+    }
+
+    @Test
+    public void testLineEndingSplitAcrossReads() throws IOException {
+        StringBuilder first = new StringBuilder();
+        for (int i = 0; i < 8191; i++) {
+            first.append('x');
+        }
+        BirdImporter.LineReader lines = new BirdImporter.LineReader(
+                new StringReader(first + "\r\ny\rz\n"), 10000);
+
+        assertEquals(first.toString(), lines.readLine());
+        assertEquals("y\rz", lines.readLine());
+        assertNull(lines.readLine());
+    }
+
+    // ==========================================================================
+    // JSON Lines Tests
+    // ==========================================================================
+
+    @Test
+    public void testImportJsonLines() throws IOException {
+        String feed = "{\"type\": \"Gray Parrot\", \"characteristic\": \"Says \\\"hello\\\"\\u0021\","
+                + " \"extinct\": false, \"wings\": 2, \"food\": [\"SEEDS\", \"Nuts\"],"
+                + " \"vocabulary\": 40, \"saying\": null}\n"
+                + "\r\n"
+                + "{\"TYPE\": \"HORNED_PUFFIN\", \"characteristic\": \"Colorful beak\", \"wings\": 2,"
+                + " \"food\": [\"FISH\", \"AQUATIC_INVERTEBRATES\"], \"water\": \"Pacific Ocean\"}\r\n";
+
+        ImportReport report = new BirdImporter(conservatory, true).importFrom(
+                new StringReader(feed), BirdImporter.Format.JSON_LINES);
+
+        assertEquals(2, report.getRescued());
+        assertEquals(2, report.getAssigned());
+        Parrot parrot = (Parrot) conservatory.getRescuedBirds().get(0);
+        assertEquals("Says \"hello\"!", parrot.getDefiningCharacteristic());
+        assertEquals("", parrot.getFavoriteSaying());
+        Shorebird puffin = (Shorebird) conservatory.getRescuedBirds().get(1);
+        assertEquals("Pacific Ocean", puffin.getBodyOfWater());
+    }
+
+    @Test
+    public void testMalformedJsonIsReported() throws IOException {
+        String feed = "{\"type\": \"HAWK\", \"characteristic\": \"Beak\", \"wings\": 2\n"
+                + "[1, 2]\n"
+                + "{\"type\": \"HAWK\", \"wings\": yes}\n"
+                + "{\"type\": \"HAWK\", \"characteristic\": \"Beak\", \"wings\": 2,"
+                + " \"food\": [\"FISH\", \"OTHER_BIRDS\"]} trailing\n"
+                + "{\"type\": \"HAWK\", \"characteristic\": \"Beak\", \"wings\": 2,"
+                + " \"food\": [\"FISH\", \"OTHER_BIRDS\"]}\n";
+
+        ImportReport report = new BirdImporter(conservatory, false).importFrom(
+                new StringReader(feed), BirdImporter.Format.JSON_LINES);
+
+        assertEquals(5, report.getRecordsRead());
+        assertEquals(1, report.getRescued());
+        assertEquals(4, report.getProblemCount());
+        for (ImportReport.Problem problem : report.getProblems()) {
+            assertTrue(problem.getReason(), problem.getReason().startsWith("Malformed JSON"));
+        }
+    }
+
+    // ==========================================================================
+    // Limit Tests
+    // ==========================================================================
+
+    @Test
+    public void testRejectedPlacementsAreReported() throws IOException {
+        Conservatory small = new Conservatory(1, 1);
+        String feed = CSV_HEADER
+                + "HAWK,Beak,false,2,FISH;OTHER_BIRDS,,,\n"
+                + "EAGLE,Talons,false,2,FISH;OTHER_BIRDS,,,\n"
+                + "EMU,Large,true,0,SEEDS;INSECTS,,,\n";
+
+        ImportReport report = new BirdImporter(small, true).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+
+        assertEquals(3, report.getRescued());
+        assertEquals(1, report.getAssigned());
+        assertEquals(2, report.getProblemCount());
+        List<Long> lines = new ArrayList<>();
+        for (ImportReport.Problem problem : report.getProblems()) {
+            assertTrue(problem.getReason().startsWith("Rescued but not assigned: "));
+            lines.add(problem.getLineNumber());
+        }
+        Collections.sort(lines);
+        assertEquals(Arrays.asList(3L, 4L), lines);
+    }
+
+    @Test
+    public void testReportedProblemsAreBounded() throws IOException {
+        StringBuilder feed = new StringBuilder(CSV_HEADER);
+        for (int i = 0; i < 50; i++) {
+            feed.append("DRAGON,Fire,false,2,FISH;FRUIT,,,\n");
+        }
+
+        ImportReport report = new BirdImporter(conservatory, false, 10, 1024, 5).importFrom(
+                new StringReader(feed.toString()), BirdImporter.Format.CSV);
+
+        assertEquals(50, report.getProblemCount());
+        assertEquals(5, report.getProblems().size());
+    }
+
+    @Test
+    public void testLongLinesAreSkipped() throws IOException {
+        StringBuilder longLine = new StringBuilder("HAWK,");
+        for (int i = 0; i < 500; i++) {
+            longLine.append('x');
+        }
+        String feed = CSV_HEADER + longLine + ",false,2,FISH;FRUIT,,,\n"
+                + "HAWK,Beak,false,2,FISH;OTHER_BIRDS,,,\n";
+
+        ImportReport report = new BirdImporter(conservatory, false, 10, 200, 10).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+
+        assertEquals(1, report.getRescued());
+        assertEquals("Line 2: Line is longer than 200 characters", report.getProblems().get(0).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBatchSize() {
+        new BirdImporter(conservatory, false, 0, 1024, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnrecognizedFile() throws IOException {
+        new BirdImporter(conservatory, false).importFrom(folder.newFile("birds.txt").toPath());
+    }
+
+    // ==========================================================================
+    // Large-Scale Tests
+    // ==========================================================================
+
+    @Test
+    public void testStreamLargeFeed() throws IOException {
+        final int records = 100_000;
+        Reader feed = new Reader() {
+            private final StringBuilder pending = new StringBuilder(CSV_HEADER);
+            private int written;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                while (pending.length() < length && written < records) {
+                    pending.append("PIGEON,Pigeon ").append(written++).append(",false,2,SEEDS;BERRIES,,,\n");
+                }
+                if (pending.length() == 0) {
+                    return -1;
+                }
+                int n = Math.min(length, pending.length());
+                pending.getChars(0, n, buffer, offset);
+                pending.delete(0, n);
+                return n;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Conservatory large = new Conservatory(20_000, Aviary.DEFAULT_CAPACITY);
+
+        ImportReport report = new BirdImporter(large, true).importFrom(feed, BirdImporter.Format.CSV);
+
+        assertEquals(records, report.getRescued());
+        assertEquals(records, report.getAssigned());
+        assertEquals(20_000, large.getAviaries().size());
+    }
+
+    @Test
+    public void testImportFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("intake.jsonl");
+        Files.write(file, Arrays.asList(
+                "{\"type\": \"EMU\", \"characteristic\": \"Large\", \"wings\": 0, \"food\": [\"SEEDS\", \"INSECTS\"]}"),
+                StandardCharsets.UTF_8);
+
+        ImportReport report = new BirdImporter(conservatory, true).importFrom(file);
+
+        assertEquals(1, report.getAssigned());
+        assertEquals("Import of 1 records: 1 rescued, 1 assigned, 0 problems", report.toString());
+    }
+}
@@ -0,0 +1,204 @@
+package conservatory;
+
+import birds.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the BirdQuery class and Conservatory's query methods.
+ * Tests cover attribute conditions, combining conditions, residual
+ * predicates, and keeping the indexes in step with placements.
+ */
+public class BirdQueryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Conservatory conservatory;
+    private Bird hawk;
+    private Bird duck;
+    private Bird puffin;
+    private Bird plover;
+    private Bird moa;
+    private Bird parrot;
+
+    @Before
+    public void setUp() {
+        conservatory = new Conservatory();
+        hawk = new BirdOfPrey(BirdType.HAWK, "Sharp hooked beak", false, 2,
+                Arrays.asList(Food.SMALL_MAMMALS, Food.FISH));
+        duck = new Waterfowl(BirdType.DUCK, "Waterproof feathers", false, 2,
+                Arrays.asList(Food.VEGETATION, Food.AQUATIC_INVERTEBRATES), "Lake Michigan");
+        puffin = new Shorebird(BirdType.HORNED_PUFFIN, "Colorful beak", false, 2,
+                Arrays.asList(Food.FISH, Food.AQUATIC_INVERTEBRATES), "Lake Michigan");
+        plover = new Shorebird(BirdType.AFRICAN_JACANA, "Long toes", false, 2,
+                Arrays.asList(Food.FISH, Food.INSECTS), "Lake Victoria");
+        moa = new FlightlessBird(BirdType.MOA, "Giant", true, 0,
+                Arrays.asList(Food.VEGETATION, Food.FRUIT));
+        parrot = new Parrot(BirdType.GRAY_PARROT, "Intelligent", false, 2,
+                Arrays.asList(Food.SEEDS, Food.NUTS, Food.FRUIT), 50, "Hello!");
+
+        conservatory.assignAll(Arrays.asList(hawk, duck, puffin, plover, parrot));
+        conservatory.rescueBird(moa);
+    }
+
+    // ==========================================================================
+    // Attribute Tests
+    // ==========================================================================
+
+    @Test
+    public void testSingleAttributes() {
+        assertEquals(Arrays.asList(hawk), conservatory.query(BirdQuery.type(BirdType.HAWK)));
+        assertEquals(Arrays.asList(puffin, plover),
+                conservatory.query(BirdQuery.classification("Shorebirds")));
+        assertEquals(Arrays.asList(moa), conservatory.query(BirdQuery.extinct()));
+        assertEquals(Arrays.asList(moa), conservatory.query(BirdQuery.wings(0)));
+        assertEquals(Arrays.asList(hawk, puffin, plover), conservatory.query(BirdQuery.eats(Food.FISH)));
+        assertEquals(6, conservatory.count(BirdQuery.all()));
+        assertEquals(5, conservatory.count(BirdQuery.placed()));
+        assertEquals(Arrays.asList(moa), conservatory.query(BirdQuery.rescued()));
+    }
+
+    @Test
+    public void testUnknownValuesMatchNothing() {
+        assertTrue(conservatory.query(BirdQuery.classification("Dragons")).isEmpty());
+        assertEquals(0, conservatory.count(BirdQuery.wings(7)));
+        assertEquals(0, conservatory.count(BirdQuery.inAviary(99)));
+    }
+
+    @Test
+    public void testAviaryFollowsPlacements() {
+        Aviary aviary = conservatory.getAviaryOf(puffin);
+        List<Bird> residents = conservatory.query(BirdQuery.inAviary(aviary.getId()));
+        assertEquals(aviary.getBirds().size(), residents.size());
+        assertTrue(residents.contains(puffin));
+
+        aviary.removeBird(puffin);
+        assertFalse(conservatory.query(BirdQuery.inAviary(aviary.getId())).contains(puffin));
+        assertFalse(conservatory.query(BirdQuery.placed()).contains(puffin));
+        assertEquals(6, conservatory.count(BirdQuery.all()));
+    }
+
+    // ==========================================================================
+    // Combination Tests
+    // ==========================================================================
+
+    @Test
+    public void testConjunctionAndResidualPredicate() {
+        BirdQuery query = BirdQuery.classification("Shorebirds")
+                .and(BirdQuery.extinct().negate())
+                .and(BirdQuery.eats(Food.FISH))
+                .where(bird -> ((WaterBird) bird).getBodyOfWater().equals("Lake Michigan"));
+
+        assertEquals(Arrays.asList(puffin), conservatory.query(query));
+    }
+
+    @Test
+    public void testBodyOfWater() {
+        BirdQuery query = BirdQuery.fromWater(" lake michigan").and(BirdQuery.eats(Food.FISH));
+
+        assertEquals(Arrays.asList(puffin), conservatory.query(query));
+        assertEquals(2, conservatory.count(BirdQuery.fromWater("LAKE MICHIGAN")));
+        assertEquals(0, conservatory.count(BirdQuery.fromWater("Lake Erie")));
+    }
+
+    @Test
+    public void testDisjunctionAndNegation() {
+        BirdQuery query = BirdQuery.type(BirdType.HAWK).or(BirdQuery.wings(0));
+        assertEquals(Arrays.asList(hawk, moa), conservatory.query(query));
+
+        assertEquals(Arrays.asList(duck, puffin, plover, parrot), conservatory.query(query.negate()));
+        assertEquals("(type=HAWK or wings=0)", query.toString());
+    }
+
+    @Test
+    public void testQueriesDoNotChangeIndexes() {
+        BirdQuery fish = BirdQuery.eats(Food.FISH);
+        conservatory.query(fish.and(BirdQuery.type(BirdType.HAWK)));
+        conservatory.query(fish.negate());
+        conservatory.query(fish.where(bird -> false));
+        conservatory.query(BirdQuery.type(BirdType.HAWK).and(fish).and(BirdQuery.extinct()));
+        conservatory.query(BirdQuery.wings(0).or(fish).negate());
+
+        assertEquals(3, conservatory.count(fish));
+        assertEquals(1, conservatory.count(BirdQuery.type(BirdType.HAWK)));
+        assertEquals(1, conservatory.count(BirdQuery.wings(0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullQuery() {
+        conservatory.query(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullType() {
+        BirdQuery.type(null);
+    }
+
+    // ==========================================================================
+    // Restore Tests
+    // ==========================================================================
+
+    @Test
+    public void testRestoredConservatoryIsIndexed() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(folder.getRoot().toPath());
+        original.assignAll(Arrays.asList(hawk, duck, puffin));
+        original.rescueBird(moa);
+        original.close();
+
+        try (JournaledConservatory restored = JournaledConservatory.open(folder.getRoot().toPath())) {
+            assertEquals(Arrays.asList(hawk, duck, puffin, moa), restored.query(BirdQuery.all()));
+            assertEquals(Arrays.asList(moa), restored.query(BirdQuery.rescued()));
+            assertEquals(2, restored.count(BirdQuery.eats(Food.AQUATIC_INVERTEBRATES)));
+        }
+    }
+
+    // ==========================================================================
+    // Large-Scale Tests
+    // ==========================================================================
+
+    @Test(timeout = 60_000)
+    public void testMillionBirds() {
+        Conservatory large = new Conservatory();
+        List<Bird> birds = new ArrayList<>();
+        int expected = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            Bird bird;
+            if (i % 3 == 0) {
+                bird = new Shorebird(BirdType.HORNED_PUFFIN, "Puffin", i % 5 == 0, 2,
+                        Arrays.asList(Food.FISH, Food.INSECTS), "Lake Michigan");
+            } else {
+                bird = new Pigeon(BirdType.PIGEON, "Pigeon", false, 2,
+                        Arrays.asList(Food.SEEDS, Food.FISH));
+            }
+            if (i % 3 == 0 && i % 5 != 0) {
+                expected++;
+            }
+            birds.add(bird);
+            large.rescueBird(bird);
+        }
+        BirdQuery query = BirdQuery.classification("Shorebirds")
+                .and(BirdQuery.extinct().negate())
+                .and(BirdQuery.eats(Food.FISH));
+
+        large.count(query);
+        long start = System.nanoTime();
+        int count = large.count(query);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(expected, count);
+        assertTrue("Query took " + elapsedMillis + " ms", elapsedMillis < 1_000);
+        assertEquals(Collections.singletonList(birds.get(3)),
+                large.query(query.and(BirdQuery.all()).where(bird -> bird == birds.get(3))));
+    }
+}
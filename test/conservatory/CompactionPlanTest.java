@@ -0,0 +1,329 @@
+package conservatory;
+
+import birds.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for compacting a conservatory with a CompactionPlan.
+ * Tests cover planning without changes, applying plans, rejecting stale or
+ * foreign plans, mixing rules, and compacting a large conservatory.
+ */
+public class CompactionPlanTest {
+
+    private static final List<Food> WATERFOWL_FOOD = Arrays.asList(Food.VEGETATION, Food.AQUATIC_INVERTEBRATES);
+    private static final List<Food> PARROT_FOOD = Arrays.asList(Food.SEEDS, Food.NUTS, Food.FRUIT);
+
+    private Conservatory conservatory;
+    private List<Bird> ducks;
+
+    @Before
+    public void setUp() {
+        conservatory = new Conservatory(20, 3);
+        ducks = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            ducks.add(duck(i));
+        }
+    }
+
+    private static Bird duck(int i) {
+        return new Waterfowl(BirdType.DUCK, "Duck " + i, false, 2, WATERFOWL_FOOD, "Lake Michigan");
+    }
+
+    private static Bird parrot(int i) {
+        return new Parrot(BirdType.GRAY_PARROT, "Parrot " + i, false, 2, PARROT_FOOD, 50, "Hello!");
+    }
+
+    private static Bird pigeon(int i) {
+        return new Pigeon(BirdType.PIGEON, "Pigeon " + i, false, 2, Arrays.asList(Food.SEEDS, Food.BERRIES));
+    }
+
+    /**
+     * Fills three aviaries with three ducks each, then removes all but the
+     * first duck from each, leaving one duck in each of Aviaries 1, 2 and 3.
+     */
+    private void leaveOneDuckPerAviary() {
+        conservatory.assignAll(ducks);
+        for (int i = 0; i < ducks.size(); i++) {
+            if (i % 3 != 0) {
+                conservatory.getAviaryOf(ducks.get(i)).removeBird(ducks.get(i));
+            }
+        }
+    }
+
+    // ==========================================================================
+    // Planning Tests
+    // ==========================================================================
+
+    @Test
+    public void testPlanConsolidatesHalfEmptyAviaries() {
+        leaveOneDuckPerAviary();
+
+        CompactionPlan plan = conservatory.planCompaction();
+
+        assertEquals(2, plan.getMoves().size());
+        assertEquals(2, plan.getFreedAviaries().size());
+        assertEquals(2, plan.getFreedAviaries().get(0).getId());
+        assertEquals(3, plan.getFreedAviaries().get(1).getId());
+        for (CompactionPlan.Move move : plan.getMoves()) {
+            assertEquals(1, move.getTo().getId());
+        }
+        assertEquals("Compaction: 2 moves, 2 aviaries freed", plan.toString());
+        assertEquals("Duck: Aviary 3 -> Aviary 1", plan.getMoves().get(0).toString());
+    }
+
+    @Test
+    public void testPlanDoesNotChangeConservatory() {
+        leaveOneDuckPerAviary();
+
+        conservatory.planCompaction();
+
+        for (Aviary aviary : conservatory.getAviaries()) {
+            assertEquals(1, aviary.getBirdCount());
+        }
+        assertEquals(3, conservatory.getWing(CompatibilityClass.WATERFOWL).getAviaryCount());
+    }
+
+    @Test
+    public void testFullAviariesNeedNoCompaction() {
+        conservatory.assignAll(ducks);
+
+        CompactionPlan plan = conservatory.planCompaction();
+
+        assertTrue(plan.isEmpty());
+        assertTrue(plan.getFreedAviaries().isEmpty());
+    }
+
+    @Test
+    public void testAviaryThatDoesNotFitIsLeftAlone() {
+        conservatory.assignAll(ducks.subList(0, 6));
+        conservatory.getAviaryOf(ducks.get(0)).removeBird(ducks.get(0));
+        conservatory.getAviaryOf(ducks.get(3)).removeBird(ducks.get(3));
+
+        // Two aviaries of two ducks each; neither fits into the other's one free place
+        assertTrue(conservatory.planCompaction().isEmpty());
+    }
+
+    @Test
+    public void testPlanOnlyMovesWithinWings() {
+        Bird hawk = new BirdOfPrey(BirdType.HAWK, "Sharp hooked beak", false, 2,
+                Arrays.asList(Food.SMALL_MAMMALS, Food.OTHER_BIRDS));
+        conservatory.assignBirdToAviary(ducks.get(0));
+        conservatory.assignBirdToAviary(hawk);
+
+        assertTrue(conservatory.planCompaction().isEmpty());
+    }
+
+    @Test
+    public void testPlanRespectsMixingRules() throws IOException {
+        CompatibilityMatrix rules = CompatibilityMatrix.parse(new StringReader("Owls, Parrots\nPigeons, Shorebirds\n"));
+        conservatory = new Conservatory(20, 3, rules);
+        List<Bird> parrots = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            parrots.add(parrot(i));
+        }
+        conservatory.assignAll(parrots);
+        conservatory.assignAll(Arrays.asList(pigeon(0), pigeon(1)));
+        for (int i = 0; i < parrots.size(); i++) {
+            if (i % 3 != 0) {
+                conservatory.getAviaryOf(parrots.get(i)).removeBird(parrots.get(i));
+            }
+        }
+
+        // Aviary 3 holds two pigeons and is fullest, but the parrot in
+        // Aviary 2 may only join the parrot in Aviary 1
+        CompactionPlan plan = conservatory.planCompaction();
+
+        assertEquals(1, plan.getMoves().size());
+        CompactionPlan.Move move = plan.getMoves().get(0);
+        assertSame(parrots.get(3), move.getBird());
+        assertEquals(2, move.getFrom().getId());
+        assertEquals(1, move.getTo().getId());
+    }
+
+    @Test
+    public void testAviaryThatCannotBeEmptiedIsSkipped() throws IOException {
+        CompatibilityMatrix rules = CompatibilityMatrix.parse(new StringReader("Owls, Parrots\nPigeons, Shorebirds\n"));
+        conservatory = new Conservatory(20, 5, rules);
+        List<Bird> owls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            owls.add(new Owl(BirdType.OWL, "Owl " + i, false, 2, Arrays.asList(Food.SMALL_MAMMALS, Food.INSECTS)));
+        }
+        conservatory.assignAll(owls);
+        conservatory.assignBirdToAviary(pigeon(0));
+        for (int i : new int[] {0, 1, 5, 6, 7}) {
+            conservatory.getAviaryOf(owls.get(i)).removeBird(owls.get(i));
+        }
+
+        // Aviary 3's pigeon may not join either aviary of owls, but Aviary
+        // 2's two owls still fit into Aviary 1
+        CompactionPlan plan = conservatory.planCompaction();
+
+        assertEquals(2, plan.getMoves().size());
+        assertEquals(1, plan.getFreedAviaries().size());
+        assertEquals(2, plan.getFreedAviaries().get(0).getId());
+        for (CompactionPlan.Move move : plan.getMoves()) {
+            assertEquals(1, move.getTo().getId());
+        }
+    }
+
+    // ==========================================================================
+    // Applying Tests
+    // ==========================================================================
+
+    @Test
+    public void testApplyMovesBirds() {
+        leaveOneDuckPerAviary();
+        CompactionPlan plan = conservatory.planCompaction();
+
+        conservatory.applyCompaction(plan);
+
+        Aviary first = conservatory.getAviaries().get(0);
+        assertEquals(3, first.getBirdCount());
+        for (int i = 0; i < ducks.size(); i += 3) {
+            assertSame(first, conservatory.getAviaryOf(ducks.get(i)));
+        }
+        for (Aviary aviary : plan.getFreedAviaries()) {
+            assertTrue(aviary.isEmpty());
+        }
+        assertEquals(1, conservatory.getWing(CompatibilityClass.WATERFOWL).getAviaryCount());
+        assertEquals(3, conservatory.count(BirdQuery.inAviary(1)));
+    }
+
+    @Test
+    public void testFreedAviariesAreReused() {
+        leaveOneDuckPerAviary();
+        conservatory.compact();
+
+        Bird owl = new Owl(BirdType.OWL, "Facial disks", false, 2, Arrays.asList(Food.SMALL_MAMMALS, Food.INSECTS));
+        conservatory.assignBirdToAviary(owl);
+
+        assertEquals(3, conservatory.getAviaries().size());
+        assertEquals(2, conservatory.getAviaryOf(owl).getId());
+    }
+
+    @Test
+    public void testFreedAviaryIsRenamedForAnotherClass() {
+        leaveOneDuckPerAviary();
+        conservatory.compact();
+        Bird hawk = new BirdOfPrey(BirdType.HAWK, "Sharp hooked beak", false, 2,
+                Arrays.asList(Food.SMALL_MAMMALS, Food.OTHER_BIRDS));
+
+        conservatory.assignBirdToAviary(hawk);
+
+        Aviary aviary = conservatory.getAviaryOf(hawk);
+        assertEquals(2, aviary.getId());
+        assertEquals("Birds of Prey Wing - Section 1", aviary.getLocation());
+        assertTrue(aviary.getSign().contains("Location: Birds of Prey Wing - Section 1"));
+        assertFalse(conservatory.printMap().contains("Waterfowl Wing - Section 2"));
+        assertTrue(conservatory.lookupBird(hawk).contains("Birds of Prey Wing - Section 1"));
+    }
+
+    @Test
+    public void testFreedAviaryKeepsItsNameForTheSameClassification() {
+        leaveOneDuckPerAviary();
+        conservatory.compact();
+
+        conservatory.assignAll(Arrays.asList(duck(9), duck(10), duck(11)));
+
+        Aviary second = conservatory.getAviaries().get(1);
+        assertEquals(3, second.getBirdCount());
+        assertEquals("Waterfowl Wing - Section 2", second.getLocation());
+    }
+
+    @Test
+    public void testCompactWithNothingToDo() {
+        conservatory.assignAll(ducks);
+
+        CompactionPlan plan = conservatory.compact();
+
+        assertTrue(plan.isEmpty());
+        assertEquals(3, conservatory.getWing(CompatibilityClass.WATERFOWL).getAviaryCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStalePlanIsRejected() {
+        leaveOneDuckPerAviary();
+        CompactionPlan plan = conservatory.planCompaction();
+        conservatory.assignBirdToAviary(duck(9));
+
+        conservatory.applyCompaction(plan);
+    }
+
+    @Test
+    public void testStalePlanChangesNothing() {
+        leaveOneDuckPerAviary();
+        CompactionPlan plan = conservatory.planCompaction();
+        Aviary second = conservatory.getAviaries().get(1);
+        second.removeBird(ducks.get(3));
+
+        try {
+            conservatory.applyCompaction(plan);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals(1, conservatory.getAviaries().get(0).getBirdCount());
+            assertEquals(1, conservatory.getAviaries().get(2).getBirdCount());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPlanCannotBeAppliedTwice() {
+        leaveOneDuckPerAviary();
+        CompactionPlan plan = conservatory.compact();
+
+        conservatory.applyCompaction(plan);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullPlanIsRejected() {
+        conservatory.applyCompaction(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPlanForAnotherConservatoryIsRejected() {
+        leaveOneDuckPerAviary();
+        CompactionPlan plan = conservatory.planCompaction();
+
+        new Conservatory().applyCompaction(plan);
+    }
+
+    // ==========================================================================
+    // Scale Tests
+    // ==========================================================================
+
+    @Test(timeout = 10000)
+    public void testCompactLargeConservatory() {
+        conservatory = new Conservatory(2000, 5);
+        List<Bird> birds = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            birds.add(duck(i));
+        }
+        conservatory.assignAll(birds);
+        List<Bird> remaining = new ArrayList<>();
+        for (int i = 0; i < birds.size(); i++) {
+            if (i % 5 < 3) {
+                conservatory.getAviaryOf(birds.get(i)).removeBird(birds.get(i));
+            } else {
+                remaining.add(birds.get(i));
+            }
+        }
+
+        CompactionPlan plan = conservatory.compact();
+
+        // 4000 birds need only 800 of the 2000 aviaries
+        assertEquals(1200, plan.getFreedAviaries().size());
+        assertEquals(2400, plan.getMoves().size());
+        assertEquals(800, conservatory.getWing(CompatibilityClass.WATERFOWL).getAviaryCount());
+        for (Bird bird : remaining) {
+            assertNotNull(conservatory.getAviaryOf(bird));
+        }
+    }
+}
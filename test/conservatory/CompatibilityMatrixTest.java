@@ -0,0 +1,236 @@
+package conservatory;
+
+import birds.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the CompatibilityMatrix class.
+ * Tests cover the built-in rules, parsing custom rules, and placing birds in
+ * aviaries and conservatories under custom rules.
+ */
+public class CompatibilityMatrixTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Bird owl;
+    private Bird parrot;
+    private Bird pigeon;
+    private Bird dove;
+
+    @Before
+    public void setUp() {
+        owl = new Owl(BirdType.OWL, "Facial disks", false, 2, Arrays.asList(Food.SMALL_MAMMALS, Food.INSECTS));
+        parrot = new Parrot(BirdType.GRAY_PARROT, "Intelligent", false, 2,
+                Arrays.asList(Food.SEEDS, Food.NUTS, Food.FRUIT), 50, "Hello!");
+        pigeon = new Pigeon(BirdType.PIGEON, "Produces bird milk", false, 2, Arrays.asList(Food.SEEDS, Food.BERRIES));
+        dove = new Pigeon(BirdType.DOVE, "Symbol of peace", false, 2, Arrays.asList(Food.SEEDS, Food.BERRIES));
+    }
+
+    private static CompatibilityMatrix rules(String text) throws IOException {
+        return CompatibilityMatrix.parse(new StringReader(text));
+    }
+
+    // ==========================================================================
+    // Built-in Rules Tests
+    // ==========================================================================
+
+    @Test
+    public void testBuiltInRulesFollowCompatibilityClasses() {
+        CompatibilityMatrix builtIn = CompatibilityMatrix.builtIn();
+        for (BirdType first : BirdType.values()) {
+            for (BirdType second : BirdType.values()) {
+                assertEquals(first + " with " + second,
+                        CompatibilityClass.of(first) == CompatibilityClass.of(second),
+                        builtIn.canMix(first, second));
+            }
+        }
+    }
+
+    @Test
+    public void testDefaultIsBuiltIn() {
+        CompatibilityMatrix builtIn = CompatibilityMatrix.builtIn();
+        for (BirdType first : BirdType.values()) {
+            for (BirdType second : BirdType.values()) {
+                assertEquals(builtIn.canMix(first, second),
+                        CompatibilityMatrix.getDefault().canMix(first, second));
+            }
+        }
+    }
+
+    @Test
+    public void testUnreadableDefaultRulesThrowIllegalState() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("bad-rules.txt");
+        Files.write(file, Arrays.asList("Owls, Dragons"), StandardCharsets.UTF_8);
+        String previous = System.setProperty(CompatibilityMatrix.RULES_PROPERTY, file.toString());
+        try {
+            CompatibilityMatrix.readDefault();
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        } finally {
+            if (previous == null) {
+                System.clearProperty(CompatibilityMatrix.RULES_PROPERTY);
+            } else {
+                System.setProperty(CompatibilityMatrix.RULES_PROPERTY, previous);
+            }
+        }
+    }
+
+    // ==========================================================================
+    // Parsing Tests
+    // ==========================================================================
+
+    @Test
+    public void testParseGroupsOfTypesAndClassifications() throws IOException {
+        CompatibilityMatrix matrix = rules("# Keep owls apart\n"
+                + "\n"
+                + "hawk, Eagle\n"
+                + "Parrots, PIGEONS\n"
+                + "  shorebirds  \n");
+
+        assertTrue(matrix.canMix(BirdType.HAWK, BirdType.EAGLE));
+        assertFalse(matrix.canMix(BirdType.HAWK, BirdType.OSPREY));
+        assertTrue(matrix.canMix(BirdType.OSPREY, BirdType.OSPREY));
+        assertTrue(matrix.canMix(BirdType.GRAY_PARROT, BirdType.DOVE));
+        assertFalse(matrix.canMix(BirdType.OWL, BirdType.PIGEON));
+        assertTrue(matrix.canMix(BirdType.OWL, BirdType.OWL));
+        assertFalse(matrix.canMix(BirdType.DUCK, BirdType.SWAN));
+        assertTrue(matrix.canMix(BirdType.GREAT_AUK, BirdType.AFRICAN_JACANA));
+    }
+
+    @Test
+    public void testUnknownNameIsRejected() throws IOException {
+        try {
+            rules("Owls\nParrots, Dragons\n");
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Line 2: unknown classification or bird type: Dragons", e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGroupSpanningClassesIsRejected() throws IOException {
+        rules("Waterfowl, Shorebirds\n");
+    }
+
+    @Test
+    public void testLoadFromFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("rules.txt");
+        Files.write(file, Arrays.asList("Owls, Pigeons"), StandardCharsets.UTF_8);
+
+        CompatibilityMatrix matrix = CompatibilityMatrix.load(file);
+        assertTrue(matrix.canMix(BirdType.OWL, BirdType.DOVE));
+        assertFalse(matrix.canMix(BirdType.OWL, BirdType.GRAY_PARROT));
+    }
+
+    // ==========================================================================
+    // Placement Tests
+    // ==========================================================================
+
+    @Test
+    public void testAviaryRequiresEveryResidentToMix() throws IOException {
+        CompatibilityMatrix matrix = rules("Owls, Parrots\nParrots, Pigeons\n");
+        Aviary aviary = new Aviary(1, "Test", 5, matrix);
+
+        aviary.addBird(parrot);
+        assertTrue(aviary.canAddBird(owl));
+        assertTrue(aviary.canAddBird(pigeon));
+        aviary.addBird(owl);
+        assertFalse(aviary.canAddBird(pigeon));
+
+        aviary.removeBird(owl);
+        assertTrue(aviary.canAddBird(pigeon));
+    }
+
+    @Test
+    public void testConservatoryPlacesUnderCustomRules() throws IOException {
+        Conservatory conservatory = new Conservatory(10, 5, rules("Parrots, Pigeons\nOwls\n"));
+
+        conservatory.assignBirdToAviary(pigeon);
+        conservatory.assignBirdToAviary(owl);
+        conservatory.assignBirdToAviary(parrot);
+
+        assertEquals(2, conservatory.getAviaries().size());
+        assertSame(conservatory.getAviaryOf(pigeon), conservatory.getAviaryOf(parrot));
+        assertNotSame(conservatory.getAviaryOf(pigeon), conservatory.getAviaryOf(owl));
+    }
+
+    @Test
+    public void testBulkAssignmentUnderCustomRules() throws IOException {
+        Conservatory conservatory = new Conservatory(10, 5, rules("Pigeons\n"));
+
+        PlacementPlan plan = conservatory.assignAll(Arrays.asList(pigeon, owl, dove, parrot));
+
+        assertEquals(4, plan.getPlacements().size());
+        assertTrue(plan.getRejections().isEmpty());
+        assertEquals(3, conservatory.getAviaries().size());
+        assertSame(conservatory.getAviaryOf(pigeon), conservatory.getAviaryOf(dove));
+        for (Aviary aviary : conservatory.getAviaries()) {
+            for (Bird resident : aviary.getBirds()) {
+                assertTrue(resident.getType() == aviary.getBirds().get(0).getType()
+                        || aviary.getBirds().get(0) instanceof Pigeon && resident instanceof Pigeon);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentConservatoryPlacesUnderCustomRules() throws IOException {
+        ConcurrentConservatory conservatory = new ConcurrentConservatory(10, 5, rules("Parrots, Pigeons\nOwls\n"));
+
+        conservatory.assignBirdToAviary(pigeon);
+        conservatory.assignBirdToAviary(owl);
+        conservatory.assignBirdToAviary(parrot);
+
+        assertEquals(2, conservatory.getAviaries().size());
+        assertSame(conservatory.getAviaryOf(pigeon), conservatory.getAviaryOf(parrot));
+        assertNotSame(conservatory.getAviaryOf(pigeon), conservatory.getAviaryOf(owl));
+    }
+
+    @Test
+    public void testBirdIsPlacedByTypeNotSubclass() {
+        Conservatory conservatory = new Conservatory(10, 5);
+        List<Food> food = Arrays.asList(Food.SMALL_MAMMALS, Food.OTHER_BIRDS);
+        Bird hawk = new BirdOfPrey(BirdType.HAWK, "Sharp hooked beak", false, 2, food);
+        Bird mislabeled = new Waterfowl(BirdType.HAWK, "Hawk filed as waterfowl", false, 2, food, "Lake Michigan");
+        Bird duck = new Waterfowl(BirdType.DUCK, "Waterproof feathers", false, 2, food, "Lake Michigan");
+
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(mislabeled);
+        conservatory.assignBirdToAviary(duck);
+
+        assertEquals(CompatibilityClass.BIRDS_OF_PREY, CompatibilityClass.of(mislabeled));
+        assertSame(conservatory.getAviaryOf(hawk), conservatory.getAviaryOf(mislabeled));
+        assertNotSame(conservatory.getAviaryOf(duck), conservatory.getAviaryOf(mislabeled));
+        assertEquals(2, conservatory.getWing(CompatibilityClass.BIRDS_OF_PREY).getBirdCount());
+        assertEquals(1, conservatory.getWing(CompatibilityClass.WATERFOWL).getBirdCount());
+
+        conservatory.getAviaryOf(hawk).removeBird(hawk);
+        conservatory.getAviaryOf(mislabeled).removeBird(mislabeled);
+        assertEquals(0, conservatory.getWing(CompatibilityClass.BIRDS_OF_PREY).getBirdCount());
+        assertEquals(1, conservatory.getWing(CompatibilityClass.WATERFOWL).getBirdCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullRules() {
+        new Aviary(1, "Test", 5, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullConcurrentRules() {
+        new ConcurrentConservatory(10, 5, null);
+    }
+}
@@ -0,0 +1,231 @@
+package conservatory;
+
+import birds.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the ConcurrentConservatory class.
+ * Tests cover the single-threaded behavior shared with Conservatory and
+ * placement from many threads at once.
+ */
+public class ConcurrentConservatoryTest {
+
+    private static final int THREADS = 8;
+
+    private ConcurrentConservatory conservatory;
+    private List<Food> food;
+    private Bird hawk;
+    private Bird duck;
+
+    @Before
+    public void setUp() {
+        conservatory = new ConcurrentConservatory();
+        food = Arrays.asList(Food.SEEDS, Food.INSECTS);
+        hawk = new BirdOfPrey(BirdType.HAWK, "Sharp hooked beak", false, 2, food);
+        duck = new Waterfowl(BirdType.DUCK, "Waterproof feathers", false, 2, food, "Lake Michigan");
+    }
+
+    /**
+     * Creates a distinct bird of a compatibility class chosen by index.
+     */
+    private Bird birdFor(int thread, int i) {
+        String name = "Bird " + thread + "-" + i;
+        switch ((thread + i) % 4) {
+            case 0:
+                return new BirdOfPrey(BirdType.EAGLE, name, false, 2, food);
+            case 1:
+                return new Waterfowl(BirdType.SWAN, name, false, 2, food, "Pond");
+            case 2:
+                return new FlightlessBird(BirdType.KIWI, name, false, 0, food);
+            default:
+                return new Parrot(BirdType.GRAY_PARROT, name, false, 2, food, 10, "Hi");
+        }
+    }
+
+    private <T> List<T> runOnThreads(Callable<T> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(task));
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRescueAndLookup() {
+        conservatory.rescueBird(duck);
+        assertTrue(conservatory.lookupBird(duck).contains("not yet assigned"));
+
+        conservatory.assignBirdToAviary(duck);
+        assertTrue(conservatory.lookupBird(duck).contains("Aviary 1"));
+        assertTrue(conservatory.lookupBird(hawk).contains("not found"));
+        assertTrue(conservatory.getAviarySign(1).contains("Duck"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRescueSameBirdTwice() {
+        conservatory.rescueBird(duck);
+        conservatory.rescueBird(duck);
+    }
+
+    @Test
+    public void testSeparateClassesUseSeparateAviaries() {
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(duck);
+
+        assertEquals(2, conservatory.getAviaries().size());
+        assertNotSame(conservatory.getAviaryOf(hawk), conservatory.getAviaryOf(duck));
+        assertEquals(Integer.valueOf(2), conservatory.calculateFoodQuantities().get(Food.SEEDS));
+    }
+
+    @Test
+    public void testConcurrentRescueAssignsUniqueIds() throws Exception {
+        int perThread = 500;
+        AtomicInteger threadIds = new AtomicInteger();
+        List<List<BirdId>> results = runOnThreads(() -> {
+            int thread = threadIds.getAndIncrement();
+            List<BirdId> ids = new ArrayList<>();
+            for (int i = 0; i < perThread; i++) {
+                ids.add(conservatory.rescueBird(birdFor(thread, i)));
+            }
+            return ids;
+        });
+
+        Set<BirdId> unique = new HashSet<>();
+        for (List<BirdId> ids : results) {
+            unique.addAll(ids);
+        }
+        assertEquals(THREADS * perThread, unique.size());
+        assertEquals(THREADS * perThread, conservatory.getRescuedBirds().size());
+    }
+
+    @Test
+    public void testConcurrentPlacement() throws Exception {
+        conservatory = new ConcurrentConservatory(10000, 5);
+        int perThread = 1000;
+        AtomicInteger threadIds = new AtomicInteger();
+        List<List<Bird>> placed = runOnThreads(() -> {
+            int thread = threadIds.getAndIncrement();
+            List<Bird> birds = new ArrayList<>();
+            for (int i = 0; i < perThread; i++) {
+                Bird bird = birdFor(thread, i);
+                conservatory.assignBirdToAviary(bird);
+                birds.add(bird);
+            }
+            return birds;
+        });
+
+        // 2000 birds of each class, 5 to an aviary
+        assertEquals(1600, conservatory.getAviaries().size());
+        Set<Integer> ids = new HashSet<>();
+        for (Aviary aviary : conservatory.getAviaries()) {
+            assertTrue(aviary.isFull());
+            assertTrue(ids.add(aviary.getId()));
+        }
+        for (List<Bird> birds : placed) {
+            for (Bird bird : birds) {
+                Aviary aviary = conservatory.getAviaryOf(bird);
+                assertNotNull(aviary);
+                assertEquals(CompatibilityClass.of(bird), aviary.getCompatibilityClass());
+            }
+        }
+        assertEquals(THREADS * perThread, conservatory.getFoodTally().get(Food.SEEDS));
+    }
+
+    @Test
+    public void testConcurrentPlacementRespectsAviaryLimit() throws Exception {
+        conservatory = new ConcurrentConservatory(10, 1);
+        AtomicInteger threadIds = new AtomicInteger();
+        List<Integer> placedCounts = runOnThreads(() -> {
+            int thread = threadIds.getAndIncrement();
+            int placed = 0;
+            for (int i = 0; i < 10; i++) {
+                try {
+                    conservatory.assignBirdToAviary(birdFor(thread, i));
+                    placed++;
+                } catch (IllegalStateException e) {
+                    assertTrue(e.getMessage().contains("maximum capacity"));
+                }
+            }
+            return placed;
+        });
+
+        int total = 0;
+        for (int placed : placedCounts) {
+            total += placed;
+        }
+        assertEquals(10, total);
+        assertEquals(10, conservatory.getAviaries().size());
+    }
+
+    @Test
+    public void testAssignAllAcrossStripes() {
+        PlacementPlan plan = conservatory.assignAll(Arrays.asList(hawk, duck, birdFor(0, 0)));
+        assertEquals(3, plan.getPlacements().size());
+        assertNotNull(conservatory.getAviaryOf(duck));
+        assertTrue(conservatory.printMap().contains("Duck"));
+        assertTrue(conservatory.printIndex().contains("Hawk"));
+    }
+
+    @Test
+    public void testPrintIndexBreaksTiesByBirdId() {
+        Conservatory plain = new Conservatory(10, 1);
+        conservatory = new ConcurrentConservatory(10, 1);
+        Bird first = new BirdOfPrey(BirdType.HAWK, "First", false, 2, food);
+        Bird second = new BirdOfPrey(BirdType.HAWK, "Second", false, 2, food);
+        Bird third = new BirdOfPrey(BirdType.HAWK, "Third", false, 2, food);
+        // Ids follow rescue order, while aviaries follow placement order
+        plain.rescueBird(second);
+        plain.assignBirdToAviary(third);
+        plain.assignBirdToAviary(first);
+        plain.assignBirdToAviary(second);
+        conservatory.rescueBird(second);
+        conservatory.assignBirdToAviary(third);
+        conservatory.assignBirdToAviary(first);
+        conservatory.assignBirdToAviary(second);
+
+        String index = conservatory.printIndex();
+        assertEquals(plain.printIndex(), index);
+        assertTrue(index.indexOf("Aviary 3") < index.indexOf("Aviary 1"));
+        assertTrue(index.indexOf("Aviary 1") < index.indexOf("Aviary 2"));
+        assertEquals(new BirdId(1), conservatory.getBirdId(second));
+        assertEquals(new BirdId(2), conservatory.getBirdId(third));
+    }
+
+    @Test
+    public void testPrintIndexMatchesAcrossTypes() {
+        Conservatory plain = new Conservatory();
+        List<Bird> birds = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            birds.add(birdFor(0, i));
+        }
+        for (Bird bird : birds) {
+            plain.assignBirdToAviary(bird);
+            conservatory.assignBirdToAviary(bird);
+        }
+
+        assertEquals(plain.printIndex(), conservatory.printIndex());
+    }
+}
@@ -4,6 +4,12 @@ import birds.*;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -86,6 +92,66 @@ public class ConservatoryTest {
         conservatory.rescueBird(duck);
     }
 
+    @Test
+    public void testRescueAssignsSequentialIds() {
+        BirdId duckId = conservatory.rescueBird(duck);
+        BirdId hawkId = conservatory.rescueBird(hawk);
+
+        assertEquals(1, duckId.getValue());
+        assertEquals(2, hawkId.getValue());
+        assertEquals(duckId, conservatory.getBirdId(duck));
+        assertNull(conservatory.getBirdId(swan));
+    }
+
+    @Test
+    public void testRescueIdenticalLookingBirdsAreDistinct() {
+        Bird twin = new Waterfowl(BirdType.DUCK, "Waterproof feathers", false, 2,
+                Arrays.asList(Food.VEGETATION, Food.AQUATIC_INVERTEBRATES), "Lake Michigan");
+        conservatory.rescueBird(duck);
+        conservatory.rescueBird(twin);
+
+        assertEquals(2, conservatory.getRescuedBirds().size());
+        assertNotEquals(conservatory.getBirdId(duck), conservatory.getBirdId(twin));
+    }
+
+    @Test
+    public void testRescuedBirdsView() {
+        List<Bird> view = conservatory.getRescuedBirdsView();
+        conservatory.rescueBird(duck);
+
+        assertEquals(Arrays.asList(duck), view);
+        try {
+            view.add(hawk);
+            fail("View should be read-only");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAviariesViewAndForEachBird() {
+        List<Aviary> view = conservatory.getAviariesView();
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(duck);
+        conservatory.assignBirdToAviary(eagle);
+
+        assertEquals(conservatory.getAviaries(), view);
+
+        List<Bird> birds = new ArrayList<>();
+        conservatory.forEachBird((bird, aviary) -> {
+            assertSame(aviary, conservatory.getAviaryOf(bird));
+            birds.add(bird);
+        });
+        assertEquals(Arrays.asList(hawk, eagle, duck), birds);
+    }
+
+    @Test
+    public void testIsRescued() {
+        conservatory.rescueBird(duck);
+        assertTrue(conservatory.isRescued(duck));
+        assertFalse(conservatory.isRescued(swan));
+    }
+
     // ==========================================================================
     // Assign Bird to Aviary Tests
     // ==========================================================================
@@ -198,6 +264,100 @@ public class ConservatoryTest {
         assertEquals(2, conservatory.getAviaries().size());
     }
 
+    @Test
+    public void testInterleavedClassesFillTheirOwnAviaries() {
+        List<Food> food = Arrays.asList(Food.SEEDS, Food.INSECTS);
+        for (int i = 0; i < 7; i++) {
+            conservatory.assignBirdToAviary(new BirdOfPrey(BirdType.HAWK, "Hawk " + i, false, 2, food));
+            conservatory.assignBirdToAviary(new Pigeon(BirdType.DOVE, "Dove " + i, false, 2, food));
+        }
+
+        // 7 of each class fill one aviary of 5 and leave 2 in a second
+        List<Aviary> aviaries = conservatory.getAviaries();
+        assertEquals(4, aviaries.size());
+        assertEquals(5, aviaries.get(0).getBirdCount());
+        assertEquals(5, aviaries.get(1).getBirdCount());
+        assertEquals(2, aviaries.get(2).getBirdCount());
+        assertEquals(CompatibilityClass.BIRDS_OF_PREY, aviaries.get(2).getCompatibilityClass());
+        assertEquals(CompatibilityClass.MIXABLE, aviaries.get(3).getCompatibilityClass());
+    }
+
+    // ==========================================================================
+    // Bulk Assignment Tests
+    // ==========================================================================
+
+    @Test
+    public void testAssignAllPacksEachClass() {
+        List<Food> food = Arrays.asList(Food.SEEDS, Food.INSECTS);
+        List<Bird> batch = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            batch.add(new Waterfowl(BirdType.DUCK, "Duck " + i, false, 2, food, "Pond"));
+            if (i < 3) {
+                batch.add(new BirdOfPrey(BirdType.HAWK, "Hawk " + i, false, 2, food));
+            }
+        }
+
+        PlacementPlan plan = conservatory.assignAll(batch);
+
+        assertEquals(15, plan.getPlacements().size());
+        assertTrue(plan.getRejections().isEmpty());
+        assertEquals(4, plan.getAviariesCreated());
+        assertEquals(4, conservatory.getAviaries().size());
+    }
+
+    @Test
+    public void testAssignAllTopsUpFullestAviaryFirst() {
+        List<Food> food = Arrays.asList(Food.SEEDS, Food.INSECTS);
+        Bird[] hawks = new Bird[10];
+        for (int i = 0; i < hawks.length; i++) {
+            hawks[i] = new BirdOfPrey(BirdType.HAWK, "Hawk " + i, false, 2, food);
+            conservatory.assignBirdToAviary(hawks[i]);
+        }
+        // Aviary 1 keeps 4 hawks, aviary 2 keeps 1
+        conservatory.getAviaryOf(hawks[0]).removeBird(hawks[0]);
+        for (int i = 5; i < 9; i++) {
+            conservatory.getAviaryOf(hawks[i]).removeBird(hawks[i]);
+        }
+
+        PlacementPlan plan = conservatory.assignAll(Arrays.asList(eagle));
+        assertEquals(1, plan.getPlacements().get(0).getAviary().getId());
+        assertFalse(plan.getPlacements().get(0).isNewAviary());
+    }
+
+    @Test
+    public void testAssignAllReportsRejections() {
+        conservatory.assignBirdToAviary(duck);
+
+        PlacementPlan plan = conservatory.assignAll(Arrays.asList(duck, moa, swan, swan));
+
+        assertEquals(1, plan.getPlacements().size());
+        assertEquals(3, plan.getRejections().size());
+        assertEquals(duck, plan.getRejections().get(0).getBird());
+        assertTrue(plan.getRejections().get(0).getReason().contains("Already"));
+        assertTrue(plan.getRejections().get(1).getReason().contains("Extinct"));
+        assertTrue(plan.getRejections().get(2).getReason().contains("more than once"));
+    }
+
+    @Test
+    public void testAssignAllRejectsOverflow() {
+        List<Food> food = Arrays.asList(Food.SEEDS, Food.INSECTS);
+        List<Bird> batch = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            batch.add(new Pigeon(BirdType.PIGEON, "Pigeon " + i, false, 2, food));
+        }
+
+        PlacementPlan plan = conservatory.assignAll(batch);
+
+        assertEquals(100, plan.getPlacements().size());
+        assertEquals(1, plan.getRejections().size());
+        assertEquals(20, conservatory.getAviaries().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAssignAllNull() {
+        conservatory.assignAll(null);
+    }
+
     // ==========================================================================
     // Maximum Aviaries Test
     // ==========================================================================
@@ -225,6 +385,69 @@ public class ConservatoryTest {
         conservatory.assignBirdToAviary(extraBird);
     }
 
+    @Test
+    public void testConfiguredLimits() {
+        Conservatory small = new Conservatory(2, 3);
+        List<Food> food = Arrays.asList(Food.SEEDS, Food.INSECTS);
+        for (int i = 0; i < 6; i++) {
+            small.assignBirdToAviary(new Pigeon(BirdType.PIGEON, "Pigeon " + i, false, 2, food));
+        }
+
+        assertEquals(2, small.getAviaries().size());
+        assertEquals(3, small.getAviaries().get(0).getCapacity());
+        try {
+            small.assignBirdToAviary(dove);
+            fail("Expected the conservatory to be full");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("2 aviaries"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxAviaries() {
+        new Conservatory(0, 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidAviaryCapacity() {
+        new Conservatory(20, 0);
+    }
+
+    @Test
+    public void testWingsPartitionAviaries() {
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(eagle);
+        conservatory.assignBirdToAviary(duck);
+        conservatory.assignBirdToAviary(owl);
+
+        Wing prey = conservatory.getWing(CompatibilityClass.BIRDS_OF_PREY);
+        assertEquals(1, prey.getAviaryCount());
+        assertEquals(2, prey.getBirdCount());
+        assertEquals(1, conservatory.getWing(CompatibilityClass.WATERFOWL).getBirdCount());
+        assertEquals(0, conservatory.getWing(CompatibilityClass.FLIGHTLESS_BIRDS).getAviaryCount());
+
+        conservatory.getAviaryOf(duck).removeBird(duck);
+        assertEquals(0, conservatory.getWing(CompatibilityClass.WATERFOWL).getAviaryCount());
+    }
+
+    @Test
+    public void testLargeConservatory() {
+        Conservatory large = new Conservatory(20000, 10);
+        List<Food> food = Arrays.asList(Food.FISH, Food.INSECTS);
+        Bird last = null;
+        for (int i = 0; i < 100000; i++) {
+            last = i % 2 == 0
+                    ? new Shorebird(BirdType.HORNED_PUFFIN, "Puffin " + i, false, 2, food, "Bering Sea")
+                    : new Waterfowl(BirdType.GOOSE, "Goose " + i, false, 2, food, "Hudson River");
+            large.assignBirdToAviary(last);
+        }
+
+        assertEquals(10000, large.getAviaries().size());
+        assertEquals(50000, large.getWing(CompatibilityClass.WATERFOWL).getBirdCount());
+        assertTrue(large.lookupBird(last).contains("Aviary 10000"));
+        assertTrue(large.getAviarySign(10000).contains("Goose"));
+    }
+
     // ==========================================================================
     // Calculate Food Quantities Tests
     // ==========================================================================
@@ -270,6 +493,191 @@ public class ConservatoryTest {
         assertEquals(Integer.valueOf(1), quantities.get(Food.FRUIT));
     }
 
+    @Test
+    public void testGetFoodQuantity() {
+        conservatory.assignBirdToAviary(pigeon); // SEEDS, BERRIES
+        conservatory.assignBirdToAviary(parrot); // SEEDS, NUTS, FRUIT
+
+        assertEquals(2, conservatory.getFoodQuantity(Food.SEEDS));
+        assertEquals(1, conservatory.getFoodQuantity(Food.NUTS));
+        assertEquals(0, conservatory.getFoodQuantity(Food.FISH));
+    }
+
+    @Test
+    public void testFoodQuantitiesFollowRemoval() {
+        conservatory.assignBirdToAviary(duck);
+        conservatory.assignBirdToAviary(swan);
+        conservatory.getAviaryOf(duck).removeBird(duck);
+
+        Map<Food, Integer> quantities = conservatory.calculateFoodQuantities();
+        assertEquals(Integer.valueOf(1), quantities.get(Food.VEGETATION));
+        assertNull(conservatory.getAviaryOf(duck));
+    }
+
+    @Test
+    public void testRemovalFreesSlotForPlacement() {
+        List<Food> food = Arrays.asList(Food.SEEDS, Food.INSECTS);
+        Bird first = null;
+        for (int i = 0; i < 5; i++) {
+            Bird hawkN = new BirdOfPrey(BirdType.HAWK, "Hawk " + i, false, 2, food);
+            if (first == null) {
+                first = hawkN;
+            }
+            conservatory.assignBirdToAviary(hawkN);
+        }
+        conservatory.getAviaryOf(first).removeBird(first);
+
+        conservatory.assignBirdToAviary(eagle);
+        assertEquals(1, conservatory.getAviaries().size());
+        assertTrue(conservatory.getAviaries().get(0).isFull());
+    }
+
+    @Test
+    public void testGetFoodTally() {
+        conservatory.assignBirdToAviary(duck);
+        conservatory.assignBirdToAviary(pigeon);
+
+        FoodTally tally = conservatory.getFoodTally();
+        assertEquals(1, tally.get(Food.VEGETATION));
+        assertEquals(1, tally.get(Food.SEEDS));
+        assertEquals(4, tally.total());
+    }
+
+    @Test
+    public void testGetFoodTallyByClassification() {
+        conservatory.assignBirdToAviary(pigeon); // SEEDS, BERRIES
+        conservatory.assignBirdToAviary(dove); // SEEDS, BERRIES
+        conservatory.assignBirdToAviary(parrot); // SEEDS, NUTS, FRUIT
+
+        Map<String, FoodTally> byClass = conservatory.getFoodTallyByClassification();
+        assertEquals(2, byClass.size());
+        assertEquals(2, byClass.get("Pigeons").get(Food.SEEDS));
+        assertEquals(1, byClass.get("Parrots").get(Food.NUTS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetFoodQuantityNull() {
+        conservatory.getFoodQuantity(null);
+    }
+
+    // ==========================================================================
+    // Food Dependency Tests
+    // ==========================================================================
+
+    @Test
+    public void testBirdsEating() {
+        conservatory.rescueBird(owl); // rescued but not housed
+        conservatory.assignBirdToAviary(pigeon); // SEEDS, BERRIES
+        conservatory.assignBirdToAviary(parrot); // SEEDS, NUTS, FRUIT
+        conservatory.assignBirdToAviary(emu); // SEEDS, INSECTS
+        conservatory.assignBirdToAviary(hawk); // SMALL_MAMMALS, OTHER_BIRDS
+
+        assertEquals(Arrays.asList(pigeon, parrot, emu), conservatory.getBirdsEating(Food.SEEDS));
+        assertEquals(3, conservatory.getBirdCountEating(Food.SEEDS));
+        assertEquals(Arrays.asList(emu), conservatory.getBirdsEating(Food.INSECTS));
+        assertTrue(conservatory.getBirdsEating(Food.FISH).isEmpty());
+    }
+
+    @Test
+    public void testAviariesEatingCountsResidents() {
+        Bird twin = new Pigeon(BirdType.PIGEON, "Produces bird milk", false, 2,
+                Arrays.asList(Food.SEEDS, Food.BERRIES));
+        conservatory.assignBirdToAviary(pigeon);
+        conservatory.assignBirdToAviary(twin);
+        conservatory.assignBirdToAviary(parrot);
+
+        conservatory.assignBirdToAviary(emu);
+
+        Map<Aviary, Integer> seeds = conservatory.getAviariesEating(Food.SEEDS);
+        assertEquals(2, seeds.size());
+        List<Aviary> aviaries = new ArrayList<>(seeds.keySet());
+        assertSame(conservatory.getAviaryOf(pigeon), aviaries.get(0));
+        assertEquals(Integer.valueOf(3), seeds.get(aviaries.get(0)));
+        assertSame(conservatory.getAviaryOf(emu), aviaries.get(1));
+        assertEquals(Integer.valueOf(1), seeds.get(aviaries.get(1)));
+        assertEquals(Integer.valueOf(2), conservatory.getAviariesEating(Food.BERRIES).get(aviaries.get(0)));
+    }
+
+    @Test
+    public void testFoodDependenciesFollowRemovals() {
+        Bird twin = new Pigeon(BirdType.PIGEON, "Produces bird milk", false, 2,
+                Arrays.asList(Food.SEEDS, Food.BERRIES));
+        conservatory.assignBirdToAviary(pigeon);
+        conservatory.assignBirdToAviary(twin);
+        Aviary aviary = conservatory.getAviaryOf(pigeon);
+
+        aviary.removeBird(pigeon);
+        assertEquals(1, conservatory.getBirdsEating(Food.BERRIES).size());
+        assertSame(twin, conservatory.getBirdsEating(Food.BERRIES).get(0));
+        assertEquals(Integer.valueOf(1), conservatory.getAviariesEating(Food.BERRIES).get(aviary));
+
+        aviary.removeBird(twin);
+        assertTrue(conservatory.getBirdsEating(Food.BERRIES).isEmpty());
+        assertTrue(conservatory.getAviariesEating(Food.BERRIES).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBirdsEatingNull() {
+        conservatory.getBirdsEating(null);
+    }
+
+    // ==========================================================================
+    // Body of Water Tests
+    // ==========================================================================
+
+    @Test
+    public void testFindBodiesOfWater() {
+        conservatory.assignBirdToAviary(duck); // Lake Michigan
+        conservatory.assignBirdToAviary(swan); // Swan Lake
+        conservatory.rescueBird(puffin); // Pacific Ocean
+        conservatory.rescueBird(new Waterfowl(BirdType.GOOSE, "Honker", false, 2,
+                Arrays.asList(Food.VEGETATION, Food.SEEDS), "  lake MICHIGAN "));
+        conservatory.assignBirdToAviary(hawk);
+
+        assertEquals(Arrays.asList("Lake Michigan", "Pacific Ocean", "Swan Lake"),
+                conservatory.findBodiesOfWater(""));
+        assertEquals(Arrays.asList("Lake Michigan"), conservatory.findBodiesOfWater("LAKE"));
+        assertEquals(Arrays.asList("Swan Lake"), conservatory.findBodiesOfWater(" swan l"));
+        assertTrue(conservatory.findBodiesOfWater("Atlantic").isEmpty());
+    }
+
+    @Test
+    public void testBirdsFromWater() {
+        Bird honker = new Waterfowl(BirdType.GOOSE, "Honker", false, 2,
+                Arrays.asList(Food.VEGETATION, Food.SEEDS), "lake michigan");
+        conservatory.rescueBird(honker);
+        conservatory.assignBirdToAviary(duck);
+        conservatory.assignBirdToAviary(goose);
+
+        assertEquals(Arrays.asList(honker, duck), conservatory.getBirdsFromWater("Lake Michigan"));
+        assertEquals(Arrays.asList(honker, duck), conservatory.getBirdsFromSameWater(duck));
+        assertEquals(Arrays.asList(goose), conservatory.getBirdsFromSameWater(goose));
+        assertTrue(conservatory.getBirdsFromSameWater(hawk).isEmpty());
+        assertTrue(conservatory.getBirdsFromWater("Lake Erie").isEmpty());
+    }
+
+    @Test
+    public void testAviariesFromWater() {
+        Bird honker = new Waterfowl(BirdType.GOOSE, "Honker", false, 2,
+                Arrays.asList(Food.VEGETATION, Food.SEEDS), "Lake Michigan");
+        conservatory.assignBirdToAviary(duck);
+        conservatory.assignBirdToAviary(honker);
+        conservatory.assignBirdToAviary(goose);
+        Aviary aviary = conservatory.getAviaryOf(duck);
+
+        assertEquals(Integer.valueOf(2), conservatory.getAviariesFromWater("lake michigan").get(aviary));
+        aviary.removeBird(duck);
+        assertEquals(Integer.valueOf(1), conservatory.getAviariesFromWater("Lake Michigan").get(aviary));
+        aviary.removeBird(honker);
+        assertTrue(conservatory.getAviariesFromWater("Lake Michigan").isEmpty());
+        assertEquals(2, conservatory.getBirdsFromWater("Lake Michigan").size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindBodiesOfWaterNull() {
+        conservatory.findBodiesOfWater(null);
+    }
+
     // ==========================================================================
     // Lookup Bird Tests
     // ==========================================================================
@@ -298,6 +706,25 @@ public class ConservatoryTest {
         assertTrue(result.contains("not yet assigned"));
     }
 
+    @Test
+    public void testGetAviaryOf() {
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(duck);
+
+        assertEquals(1, conservatory.getAviaryOf(hawk).getId());
+        assertEquals(2, conservatory.getAviaryOf(duck).getId());
+        assertNull(conservatory.getAviaryOf(swan));
+    }
+
+    @Test
+    public void testLookupBirdAddedDirectlyToAviary() {
+        conservatory.assignBirdToAviary(duck);
+        conservatory.getAviaries().get(0).addBird(swan);
+
+        assertTrue(conservatory.lookupBird(swan).contains("Aviary 1"));
+        assertTrue(conservatory.assignBirdToAviary(swan).contains("already"));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testLookupNullBird() {
         conservatory.lookupBird(null);
@@ -349,6 +776,39 @@ public class ConservatoryTest {
         assertTrue(map.contains("Duck"));
     }
 
+    @Test
+    public void testPrintMapStreamsSameText() throws IOException {
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(duck);
+        conservatory.assignBirdToAviary(parrot);
+
+        StringWriter writer = new StringWriter();
+        conservatory.printMap(writer);
+        assertEquals(conservatory.printMap(), writer.toString());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        conservatory.printMap(Channels.newChannel(bytes));
+        assertEquals(conservatory.printMap(), bytes.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    @Test
+    public void testPrintMapStreamsLargeConservatory() throws IOException {
+        Conservatory large = new Conservatory(2000, 5);
+        List<Food> food = Arrays.asList(Food.SEEDS, Food.INSECTS);
+        for (int i = 0; i < 5000; i++) {
+            large.assignBirdToAviary(new Pigeon(BirdType.DOVE, "Dove " + i, false, 2, food));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        large.printMap(Channels.newChannel(bytes));
+        assertEquals(large.printMap(), bytes.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrintMapNullOutput() throws IOException {
+        conservatory.printMap((Appendable) null);
+    }
+
     // ==========================================================================
     // Print Index Tests
     // ==========================================================================
@@ -391,6 +851,84 @@ public class ConservatoryTest {
         assertTrue(index.contains("Aviary 1"));
     }
 
+    @Test
+    public void testPrintIndexStreamsSameText() throws IOException {
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(duck);
+        conservatory.assignBirdToAviary(eagle);
+
+        StringWriter writer = new StringWriter();
+        conservatory.printIndex(writer);
+        assertEquals(conservatory.printIndex(), writer.toString());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        conservatory.printIndex(Channels.newChannel(bytes));
+        assertEquals(conservatory.printIndex(), bytes.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    @Test
+    public void testPrintIndexLineFormat() {
+        conservatory.assignBirdToAviary(hawk);
+        Aviary aviary = conservatory.getAviaryOf(hawk);
+
+        String expected = String.format("%-30s → Aviary %d (%s)%n",
+                "Hawk", aviary.getId(), aviary.getLocation());
+        assertTrue(conservatory.printIndex().endsWith(expected));
+    }
+
+    @Test
+    public void testPrintIndexDropsRemovedBirds() {
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(duck);
+        conservatory.getAviaryOf(hawk).removeBird(hawk);
+
+        String index = conservatory.printIndex();
+        assertTrue(index.contains("Duck"));
+        assertFalse(index.contains("Hawk"));
+    }
+
+    @Test
+    public void testPrintIndexOrdersSameTypeById() {
+        Bird secondHawk = new BirdOfPrey(BirdType.HAWK, "Sharp hooked beak", false, 2,
+                hawk.getPreferredFood());
+        conservatory.rescueBird(secondHawk);
+        conservatory.rescueBird(hawk);
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(secondHawk);
+
+        assertEquals(Arrays.asList(secondHawk, hawk), conservatory.getIndexPage(0, 2));
+        assertEquals(new BirdId(1), conservatory.getBirdId(secondHawk));
+    }
+
+    @Test
+    public void testPlacedBirdIsGivenId() {
+        conservatory.assignBirdToAviary(duck);
+
+        assertEquals(new BirdId(1), conservatory.getBirdId(duck));
+        assertFalse(conservatory.isRescued(duck));
+        assertEquals(new BirdId(1), conservatory.rescueBird(duck));
+        assertTrue(conservatory.isRescued(duck));
+    }
+
+    @Test
+    public void testGetIndexPage() {
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(owl);
+        conservatory.assignBirdToAviary(duck);
+        conservatory.assignBirdToAviary(eagle);
+
+        assertEquals(Arrays.asList(duck, eagle, hawk, owl), conservatory.getIndexPage(0, 10));
+        assertEquals(Arrays.asList(eagle, hawk), conservatory.getIndexPage(1, 2));
+        assertEquals(Arrays.asList(owl), conservatory.getIndexPage(3, 2));
+        assertTrue(conservatory.getIndexPage(4, 2).isEmpty());
+        assertTrue(conservatory.getIndexPage(0, 0).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetIndexPageNegativeOffset() {
+        conservatory.getIndexPage(-1, 1);
+    }
+
     // ==========================================================================
     // Integration Tests
     // ==========================================================================
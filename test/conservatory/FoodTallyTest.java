@@ -0,0 +1,106 @@
+package conservatory;
+
+import birds.Food;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the FoodTally class.
+ * Tests cover accumulating, combining, and converting food quantities.
+ */
+public class FoodTallyTest {
+
+    private FoodTally tally;
+
+    @Before
+    public void setUp() {
+        tally = new FoodTally();
+        tally.add(Food.FISH, 3).add(Food.SEEDS, 2);
+    }
+
+    @Test
+    public void testNewTallyIsEmpty() {
+        FoodTally empty = new FoodTally();
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.total());
+        assertEquals(0, empty.get(Food.BERRIES));
+    }
+
+    @Test
+    public void testAddAndGet() {
+        assertEquals(3, tally.get(Food.FISH));
+        assertEquals(2, tally.get(Food.SEEDS));
+        assertEquals(5, tally.total());
+        assertFalse(tally.isEmpty());
+    }
+
+    @Test
+    public void testMerge() {
+        FoodTally other = new FoodTally().add(Food.FISH, 1).add(Food.NUTS, 4);
+        tally.merge(other);
+
+        assertEquals(4, tally.get(Food.FISH));
+        assertEquals(4, tally.get(Food.NUTS));
+        assertEquals(1, other.get(Food.FISH)); // Other unchanged
+    }
+
+    @Test
+    public void testSubtractCanGoNegative() {
+        FoodTally delivered = new FoodTally().add(Food.FISH, 5);
+        tally.subtract(delivered);
+
+        assertEquals(-2, tally.get(Food.FISH));
+        assertEquals(2, tally.get(Food.SEEDS));
+    }
+
+    @Test
+    public void testScale() {
+        tally.scale(7);
+        assertEquals(21, tally.get(Food.FISH));
+        assertEquals(14, tally.get(Food.SEEDS));
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        FoodTally copy = new FoodTally(tally);
+        copy.add(Food.FISH, 10);
+
+        assertEquals(3, tally.get(Food.FISH));
+        assertEquals(13, copy.get(Food.FISH));
+    }
+
+    @Test
+    public void testToMapSkipsZeroes() {
+        Map<Food, Long> map = tally.toMap();
+        assertEquals(2, map.size());
+        assertEquals(Long.valueOf(3), map.get(Food.FISH));
+        assertFalse(map.containsKey(Food.BERRIES));
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        FoodTally same = new FoodTally().add(Food.SEEDS, 2).add(Food.FISH, 3);
+        assertEquals(tally, same);
+        assertEquals(tally.hashCode(), same.hashCode());
+        assertNotEquals(tally, new FoodTally());
+    }
+
+    @Test
+    public void testToString() {
+        assertTrue(tally.toString().contains("fish=3"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddNullFood() {
+        tally.add(null, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeNull() {
+        tally.merge(null);
+    }
+}
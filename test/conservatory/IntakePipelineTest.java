@@ -0,0 +1,248 @@
+package conservatory;
+
+import birds.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the IntakePipeline class.
+ * Tests cover importing in feed order across parse workers, reporting
+ * malformed records, stage statistics, and failures in the reading stage.
+ */
+public class IntakePipelineTest {
+
+    private static final String CSV_HEADER =
+            "type,characteristic,extinct,wings,food,vocabulary,saying,water\n";
+
+    private Conservatory conservatory;
+
+    @Before
+    public void setUp() {
+        conservatory = new Conservatory();
+    }
+
+    private static String feed(int records) {
+        StringBuilder feed = new StringBuilder(CSV_HEADER);
+        for (int i = 0; i < records; i++) {
+            switch (i % 4) {
+                case 0:
+                    feed.append("PIGEON,Pigeon ").append(i).append(",false,2,SEEDS;BERRIES,,,\n");
+                    break;
+                case 1:
+                    feed.append("GRAY_PARROT,Parrot ").append(i).append(",false,2,SEEDS;NUTS,")
+                            .append(i % 101).append(",Hello,\n");
+                    break;
+                case 2:
+                    feed.append("DUCK,Duck ").append(i).append(",false,2,VEGETATION;FISH,,,Lake ")
+                            .append(i % 7).append('\n');
+                    break;
+                default:
+                    feed.append("HAWK,Hawk ").append(i).append(",false,2,SMALL_MAMMALS;FISH,,,\n");
+                    break;
+            }
+        }
+        return feed.toString();
+    }
+
+    // ==========================================================================
+    // Ordering Tests
+    // ==========================================================================
+
+    @Test
+    public void testMatchesSequentialImport() throws IOException {
+        String feed = feed(5_000);
+        Conservatory sequential = new Conservatory(2_000, Aviary.DEFAULT_CAPACITY);
+        Conservatory pipelined = new Conservatory(2_000, Aviary.DEFAULT_CAPACITY);
+
+        ImportReport expected = new BirdImporter(sequential, true, 100, 1024, 10).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+        ImportReport actual = new IntakePipeline(pipelined, true, 4, 100, 8, 1024, 10).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(sequential.getRescuedBirds(), pipelined.getRescuedBirds());
+        assertEquals(sequential.printMap(), pipelined.printMap());
+        assertEquals(sequential.printIndex(), pipelined.printIndex());
+    }
+
+    @Test
+    public void testSmallChunksKeepFeedOrder() throws IOException {
+        ImportReport report = new IntakePipeline(conservatory, false, 8, 1, 4, 1024, 10).importFrom(
+                new StringReader(feed(1_000)), BirdImporter.Format.CSV);
+
+        assertEquals(1_000, report.getRescued());
+        List<Bird> rescued = conservatory.getRescuedBirds();
+        for (int i = 0; i < rescued.size(); i++) {
+            assertTrue(rescued.get(i).getDefiningCharacteristic().endsWith(" " + i));
+        }
+    }
+
+    // ==========================================================================
+    // Problem Tests
+    // ==========================================================================
+
+    @Test
+    public void testMalformedRecordsAreReportedInOrder() throws IOException {
+        String feed = "{\"type\": \"HAWK\", \"characteristic\": \"Beak\", \"wings\": 2,"
+                + " \"food\": [\"FISH\", \"OTHER_BIRDS\"]}\n"
+                + "{\"type\": \"DRAGON\"}\n"
+                + "\n"
+                + "{\"type\": \"HAWK\", \"characteristic\": \"Beak\", \"wings\": 2, \"food\": [\"FISH\"]}\n"
+                + "not json\n"
+                + "{\"type\": \"GRAY_PARROT\", \"characteristic\": \"Talker\", \"wings\": 2,"
+                + " \"food\": [\"SEEDS\", \"NUTS\"], \"vocabulary\": 101}\n"
+                + "{\"type\": \"EMU\", \"characteristic\": \"Large\", \"wings\": 0,"
+                + " \"food\": [\"SEEDS\", \"INSECTS\"]}\n";
+
+        ImportReport report = new IntakePipeline(conservatory, true, 3, 1, 2, 1024, 10).importFrom(
+                new StringReader(feed), BirdImporter.Format.JSON_LINES);
+
+        assertEquals(6, report.getRecordsRead());
+        assertEquals(2, report.getRescued());
+        assertEquals(2, report.getAssigned());
+        assertEquals(4, report.getProblemCount());
+        List<ImportReport.Problem> problems = report.getProblems();
+        assertEquals("Line 2: Unknown bird type: DRAGON", problems.get(0).toString());
+        assertEquals(4, problems.get(1).getLineNumber());
+        assertEquals(5, problems.get(2).getLineNumber());
+        assertEquals(6, problems.get(3).getLineNumber());
+    }
+
+    @Test
+    public void testMalformedCsvHeaderStopsImport() throws IOException {
+        String feed = "type,\"characteristic,extinct,wings,food\n"
+                + "HAWK,Sharp hooked beak,false,2,Small Mammals;Other Birds\n"
+                + "EAGLE,Powerful talons,false,2,FISH;OTHER_BIRDS\n";
+
+        ImportReport report = new IntakePipeline(conservatory, true, 3, 1, 2, 1024, 10).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+
+        assertEquals(0, report.getRecordsRead());
+        assertEquals(1, report.getProblemCount());
+        assertEquals("Line 1: Invalid header: Unterminated quoted field", report.getProblems().get(0).toString());
+        assertTrue(conservatory.getRescuedBirds().isEmpty());
+    }
+
+    @Test
+    public void testLongLinesMatchImporter() throws IOException {
+        StringBuilder longLine = new StringBuilder("HAWK,");
+        for (int i = 0; i < 500; i++) {
+            longLine.append('x');
+        }
+        String feed = CSV_HEADER + longLine + ",false,2,FISH;FRUIT,,,\n"
+                + "HAWK,Beak,false,2,FISH;OTHER_BIRDS,,,\n";
+
+        ImportReport expected = new BirdImporter(new Conservatory(), false, 10, 200, 10).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+        ImportReport report = new IntakePipeline(conservatory, false, 2, 10, 4, 200, 10).importFrom(
+                new StringReader(feed), BirdImporter.Format.CSV);
+
+        assertEquals(expected.getRescued(), report.getRescued());
+        assertEquals(1, report.getRescued());
+        assertEquals(expected.getProblems().toString(), report.getProblems().toString());
+    }
+
+    // ==========================================================================
+    // Statistics Tests
+    // ==========================================================================
+
+    @Test
+    public void testStageStatistics() throws IOException {
+        ImportReport report = new IntakePipeline(conservatory, false, 2, 50, 4, 1024, 10).importFrom(
+                new StringReader(feed(1_000)), BirdImporter.Format.CSV);
+
+        List<ImportReport.Stage> stages = report.getStages();
+        assertEquals(3, stages.size());
+        assertEquals("read", stages.get(0).getName());
+        assertEquals("parse", stages.get(1).getName());
+        assertEquals(2, stages.get(1).getThreads());
+        assertEquals("place", stages.get(2).getName());
+        for (ImportReport.Stage stage : stages) {
+            assertEquals(1_000, stage.getRecords());
+            assertTrue(stage.getRecordsPerSecond() > 0);
+            assertTrue(stage.getBusyNanos() >= 0);
+            assertTrue(stage.getStarvedNanos() >= 0);
+            assertTrue(stage.getBlockedNanos() >= 0);
+        }
+        assertEquals(0, stages.get(0).getStarvedNanos());
+        assertEquals(0, stages.get(2).getBlockedNanos());
+    }
+
+    @Test
+    public void testSequentialImportHasNoStages() throws IOException {
+        ImportReport report = new BirdImporter(conservatory, false).importFrom(
+                new StringReader(feed(10)), BirdImporter.Format.CSV);
+
+        assertTrue(report.getStages().isEmpty());
+    }
+
+    // ==========================================================================
+    // Failure Tests
+    // ==========================================================================
+
+    @Test
+    public void testReadFailureIsRethrown() {
+        Reader failing = new Reader() {
+            private final Reader feed = new StringReader(feed(2_000));
+            private int calls;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                if (++calls == 5) {
+                    throw new IOException("Feed disconnected");
+                }
+                return feed.read(buffer, offset, Math.min(length, 1024));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        try {
+            new IntakePipeline(conservatory, true, 4, 10, 4, 1024, 10).importFrom(
+                    failing, BirdImporter.Format.CSV);
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertEquals("Feed disconnected", e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWorkers() {
+        new IntakePipeline(conservatory, false, 0, 10, 10, 1024, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxLineLength() {
+        new IntakePipeline(conservatory, false, 2, 10, 10, 0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullFormat() throws IOException {
+        new IntakePipeline(conservatory, false).importFrom(new StringReader(""), null);
+    }
+
+    // ==========================================================================
+    // Large-Scale Tests
+    // ==========================================================================
+
+    @Test(timeout = 60_000)
+    public void testLargeFeed() throws IOException {
+        Conservatory large = new Conservatory(100_000, Aviary.DEFAULT_CAPACITY);
+
+        ImportReport report = new IntakePipeline(large, true).importFrom(
+                new StringReader(feed(200_000)), BirdImporter.Format.CSV);
+
+        assertEquals(200_000, report.getRescued());
+        assertEquals(200_000, report.getAssigned());
+        assertEquals(0, report.getProblemCount());
+    }
+}
@@ -0,0 +1,155 @@
+package conservatory;
+
+import birds.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the IntakeService class.
+ * Tests cover completing intakes, reporting failures, and rejecting requests.
+ */
+public class IntakeServiceTest {
+
+    private ConcurrentConservatory conservatory;
+    private IntakeService service;
+    private List<Food> food;
+
+    @Before
+    public void setUp() {
+        conservatory = new ConcurrentConservatory(1000, 5);
+        service = new IntakeService(conservatory, 5000, 256);
+        food = Arrays.asList(Food.SEEDS, Food.BERRIES);
+    }
+
+    @After
+    public void tearDown() {
+        service.close();
+    }
+
+    @Test
+    public void testSubmitCompletesWithPlacement() throws Exception {
+        Bird dove = new Pigeon(BirdType.DOVE, "Symbol of peace", false, 2, food);
+        String result = service.submit(dove).get(10, TimeUnit.SECONDS);
+
+        assertTrue(result.contains("Aviary 1"));
+        assertTrue(conservatory.isRescued(dove));
+        assertNotNull(conservatory.getAviaryOf(dove));
+    }
+
+    @Test
+    public void testManyConcurrentIntakes() throws Exception {
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            results.add(service.submit(new Pigeon(BirdType.PIGEON, "Pigeon " + i, false, 2, food)));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+
+        assertEquals(4000, conservatory.getRescuedBirds().size());
+        assertEquals(800, conservatory.getAviaries().size());
+    }
+
+    @Test
+    public void testFailedIntakeCompletesExceptionally() throws Exception {
+        Bird moa = new FlightlessBird(BirdType.MOA, "Giant extinct", true, 0, food);
+        try {
+            service.submit(moa).get(10, TimeUnit.SECONDS);
+            fail("Expected extinct bird to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testErrorCompletesExceptionally() throws Exception {
+        ConcurrentConservatory failing = new ConcurrentConservatory(10, 5) {
+            @Override
+            public BirdId rescueBird(Bird bird) {
+                throw new AssertionError("Broken conservatory");
+            }
+        };
+        try (IntakeService broken = new IntakeService(failing, 10, 2)) {
+            broken.submit(new Pigeon(BirdType.DOVE, "Symbol of peace", false, 2, food))
+                    .get(10, TimeUnit.SECONDS);
+            fail("Expected the error to fail the intake");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof AssertionError);
+        }
+    }
+
+    @Test
+    public void testSubmitAfterCloseIsRejected() throws Exception {
+        service.close();
+        CompletableFuture<String> result = service.submit(
+                new Pigeon(BirdType.PIGEON, "Late", false, 2, food));
+        try {
+            result.get(10, TimeUnit.SECONDS);
+            fail("Expected the request to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testSubmitWhenQueueIsFullIsRejected() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrentConservatory blocking = new ConcurrentConservatory(1000, 5) {
+            @Override
+            public BirdId rescueBird(Bird bird) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.rescueBird(bird);
+            }
+        };
+        service.close();
+        service = new IntakeService(blocking, 1, 1);
+
+        // One request runs, the next is held by the dispatcher, the third waits on the queue
+        CompletableFuture<String> running = service.submit(new Pigeon(BirdType.PIGEON, "Running", false, 2, food));
+        started.await();
+        CompletableFuture<String> held = service.submit(new Pigeon(BirdType.PIGEON, "Held", false, 2, food));
+        while (service.getQueuedCount() > 0) {
+            Thread.yield();
+        }
+        CompletableFuture<String> queued = service.submit(new Pigeon(BirdType.PIGEON, "Queued", false, 2, food));
+        CompletableFuture<String> rejected = service.submit(new Pigeon(BirdType.PIGEON, "Rejected", false, 2, food));
+
+        try {
+            rejected.get(10, TimeUnit.SECONDS);
+            fail("Expected the request to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        release.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        held.get(10, TimeUnit.SECONDS);
+        queued.get(10, TimeUnit.SECONDS);
+        assertEquals(3, blocking.getRescuedBirds().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSubmitNull() {
+        service.submit(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidQueueCapacity() {
+        new IntakeService(conservatory, 0, 1);
+    }
+}
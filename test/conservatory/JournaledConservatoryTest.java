@@ -0,0 +1,396 @@
+package conservatory;
+
+import birds.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the JournaledConservatory class.
+ * Tests cover recovery from the event log alone, from a snapshot plus the
+ * log, from a log with a torn final record, and from damaged older logs,
+ * keeping the mixing rules, as well as refusing changes after a failed log
+ * write or under different rules.
+ */
+public class JournaledConservatoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private Bird hawk;
+    private Bird eagle;
+    private Bird duck;
+    private Bird parrot;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("conservatory").toPath();
+        List<Food> preyFood = Arrays.asList(Food.SMALL_MAMMALS, Food.OTHER_BIRDS);
+        hawk = new BirdOfPrey(BirdType.HAWK, "Sharp hooked beak", false, 2, preyFood);
+        eagle = new BirdOfPrey(BirdType.EAGLE, "Powerful talons", false, 2, preyFood);
+        duck = new Waterfowl(BirdType.DUCK, "Waterproof feathers", false, 2,
+                Arrays.asList(Food.VEGETATION, Food.AQUATIC_INVERTEBRATES), "Lake Michigan");
+        parrot = new Parrot(BirdType.GRAY_PARROT, "Intelligent", false, 2,
+                Arrays.asList(Food.SEEDS, Food.NUTS, Food.FRUIT), 50, "Hello!");
+    }
+
+    private void populate(JournaledConservatory conservatory) {
+        conservatory.rescueBird(hawk);
+        conservatory.rescueBird(duck);
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(eagle);
+        conservatory.assignAll(Arrays.asList(duck, parrot));
+    }
+
+    private void assertSameState(Conservatory expected, Conservatory actual) {
+        assertEquals(expected.printMap(), actual.printMap());
+        assertEquals(expected.printIndex(), actual.printIndex());
+        assertEquals(expected.calculateFoodQuantities(), actual.calculateFoodQuantities());
+        List<Bird> expectedRescued = expected.getRescuedBirds();
+        List<Bird> actualRescued = actual.getRescuedBirds();
+        assertEquals(expectedRescued, actualRescued);
+        for (int i = 0; i < expectedRescued.size(); i++) {
+            assertEquals(expected.getBirdId(expectedRescued.get(i)), actual.getBirdId(actualRescued.get(i)));
+        }
+    }
+
+    // ==========================================================================
+    // Recovery Tests
+    // ==========================================================================
+
+    @Test
+    public void testRecoverFromLog() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(directory);
+        populate(original);
+        original.close();
+
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            assertSameState(original, restored);
+            assertEquals(3, restored.getAviaries().size());
+            assertTrue(restored.isRescued(restored.getRescuedBirds().get(0)));
+        }
+    }
+
+    @Test
+    public void testRecoverFromSnapshotAndTail() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(directory);
+        populate(original);
+        original.snapshot();
+        assertEquals(0, original.getEventsSinceSnapshot());
+        Aviary aviary = original.getAviaryOf(eagle);
+        aviary.removeBird(eagle);
+        original.sync();
+        original.close();
+
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            assertSameState(original, restored);
+            assertEquals(1, restored.getAviaries().get(0).getBirdCount());
+        }
+    }
+
+    @Test
+    public void testRestoredConservatoryKeepsNumbering() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(directory);
+        populate(original);
+        original.close();
+
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            Bird emu = new FlightlessBird(BirdType.EMU, "Large flightless", false, 0,
+                    Arrays.asList(Food.SEEDS, Food.INSECTS));
+            restored.assignBirdToAviary(emu);
+            Aviary aviary = restored.getAviaryOf(emu);
+
+            assertEquals(4, aviary.getId());
+            assertEquals(new BirdId(5), restored.getBirdId(emu));
+
+            Bird osprey = new BirdOfPrey(BirdType.OSPREY, "Fish hunter", false, 2,
+                    Arrays.asList(Food.FISH, Food.OTHER_BIRDS));
+            for (int i = 0; i < 4; i++) {
+                restored.assignBirdToAviary(new BirdOfPrey(BirdType.HAWK, "Hawk " + i, false, 2,
+                        Arrays.asList(Food.FISH, Food.OTHER_BIRDS)));
+            }
+            restored.assignBirdToAviary(osprey);
+            assertEquals("Birds of Prey Wing - Section 2", restored.getAviaryOf(osprey).getLocation());
+        }
+    }
+
+    @Test
+    public void testLimitsArePersisted() throws IOException {
+        JournaledConservatory.open(directory, 3, 2).close();
+
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            assertEquals(3, restored.getMaxAviaries());
+            assertEquals(2, restored.getAviaryCapacity());
+        }
+    }
+
+    @Test
+    public void testRulesArePersisted() throws IOException {
+        CompatibilityMatrix rules = CompatibilityMatrix.parse(new StringReader("Parrots, Pigeons\nOwls\n"));
+        Bird owl = new Owl(BirdType.OWL, "Facial disks", false, 2, Arrays.asList(Food.SMALL_MAMMALS, Food.INSECTS));
+        Bird pigeon = new Pigeon(BirdType.PIGEON, "Produces bird milk", false, 2,
+                Arrays.asList(Food.SEEDS, Food.BERRIES));
+        JournaledConservatory original = JournaledConservatory.open(directory, 10, 5, rules);
+        original.assignAll(Arrays.asList(parrot, owl, pigeon));
+        original.close();
+
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            assertEquals(rules, restored.getRules());
+            assertSameState(original, restored);
+            assertEquals(2, restored.getAviaries().size());
+        }
+        try (JournaledConservatory restored = JournaledConservatory.open(directory, 10, 5, rules)) {
+            assertSameState(original, restored);
+        }
+    }
+
+    @Test
+    public void testDifferentRulesAreRejected() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(directory);
+        populate(original);
+        original.close();
+
+        CompatibilityMatrix rules = CompatibilityMatrix.parse(new StringReader("Owls\n"));
+        try {
+            JournaledConservatory.open(directory, 10, 5, rules).close();
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("different mixing rules"));
+        }
+    }
+
+    @Test
+    public void testTornTailIsDropped() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(directory);
+        populate(original);
+        original.close();
+
+        Path log = logFiles().get(0);
+        Files.write(log, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            assertSameState(original, restored);
+            restored.rescueBird(eagle);
+        }
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            assertEquals(3, restored.getRescuedBirds().size());
+        }
+    }
+
+    @Test
+    public void testRecoverFromOlderGeneration() throws IOException {
+        leaveTwoGenerations();
+
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            int placed = 0;
+            for (Aviary aviary : restored.getAviaries()) {
+                placed += aviary.getBirdCount();
+            }
+            assertEquals(3, placed);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testDamagedOlderGenerationFailsRecovery() throws IOException {
+        leaveTwoGenerations();
+        Path log = directory.resolve("events-1.log");
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(log, bytes);
+
+        JournaledConservatory.open(directory).close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testGarbledSnapshotLimitsFailRecovery() throws IOException {
+        JournaledConservatory.open(directory).close();
+        Path snapshot = directory.resolve("snapshot.dat");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        ByteBuffer.wrap(bytes).putInt(8, 0);
+        Files.write(snapshot, bytes);
+
+        JournaledConservatory.open(directory).close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testGarbledSnapshotBirdIdFailsRecovery() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(directory);
+        populate(original);
+        original.snapshot();
+        original.close();
+        Path snapshot = directory.resolve("snapshot.dat");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        // Magic, version, limits and mask count, the masks, the generation
+        // and the bird count come before the first bird's id
+        int firstId = 20 + buffer.getInt(16) * Long.BYTES + Long.BYTES + Integer.BYTES;
+        buffer.putLong(firstId, Long.MAX_VALUE);
+        Files.write(snapshot, bytes);
+
+        JournaledConservatory.open(directory).close();
+    }
+
+    /**
+     * Leaves the directory as if the process stopped during a snapshot:
+     * the old snapshot and its log, followed by the next generation's log.
+     */
+    private void leaveTwoGenerations() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(directory);
+        populate(original);
+        original.close();
+        Path saved = folder.newFolder("saved").toPath();
+        Files.copy(directory.resolve("snapshot.dat"), saved.resolve("snapshot.dat"));
+        Files.copy(directory.resolve("events-1.log"), saved.resolve("events-1.log"));
+
+        try (JournaledConservatory next = JournaledConservatory.open(directory)) {
+            next.snapshot();
+            Aviary first = next.getAviaries().get(0);
+            first.removeBird(first.getBirds().get(1));
+        }
+        Files.copy(saved.resolve("snapshot.dat"), directory.resolve("snapshot.dat"),
+                StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(saved.resolve("events-1.log"), directory.resolve("events-1.log"));
+        assertEquals(2, logFiles().size());
+    }
+
+    // ==========================================================================
+    // Snapshot Tests
+    // ==========================================================================
+
+    @Test
+    public void testAutomaticSnapshot() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(directory);
+        original.setSnapshotInterval(3);
+        populate(original);
+
+        assertTrue(original.getEventsSinceSnapshot() < 3);
+        assertEquals(1, logFiles().size());
+        original.close();
+
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            assertSameState(original, restored);
+        }
+    }
+
+    @Test
+    public void testManyEventsReplay() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(directory, 1000, 5);
+        List<Bird> birds = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            birds.add(new Pigeon(BirdType.PIGEON, "Pigeon " + (i % 10), false, 2,
+                    Arrays.asList(Food.SEEDS, Food.BERRIES)));
+        }
+        original.assignAll(birds);
+        original.close();
+
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            assertEquals(400, restored.getAviaries().size());
+            assertEquals(original.getFoodQuantity(Food.SEEDS), restored.getFoodQuantity(Food.SEEDS));
+        }
+    }
+
+    @Test
+    public void testRecoverCompaction() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(directory, 10, 2);
+        Bird eagle2 = new BirdOfPrey(BirdType.EAGLE, "Sharp eyes", false, 2,
+                Arrays.asList(Food.SMALL_MAMMALS, Food.OTHER_BIRDS));
+        Bird hawk2 = new BirdOfPrey(BirdType.HAWK, "Keen hunter", false, 2,
+                Arrays.asList(Food.SMALL_MAMMALS, Food.OTHER_BIRDS));
+        original.assignAll(Arrays.asList(hawk, hawk2, eagle, eagle2));
+        original.getAviaryOf(hawk2).removeBird(hawk2);
+        original.getAviaryOf(eagle2).removeBird(eagle2);
+        assertEquals(1, original.compact().getMoves().size());
+        original.close();
+
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            assertSameState(original, restored);
+            assertEquals(2, restored.getAviaries().get(0).getBirdCount());
+            assertTrue(restored.getAviaries().get(1).isEmpty());
+        }
+    }
+
+    @Test
+    public void testRecoverRelocatedAviary() throws IOException {
+        JournaledConservatory original = JournaledConservatory.open(directory, 10, 1);
+        original.assignBirdToAviary(duck);
+        original.getAviaryOf(duck).removeBird(duck);
+        original.assignBirdToAviary(hawk);
+        assertEquals("Birds of Prey Wing - Section 1", original.getAviaryOf(hawk).getLocation());
+        original.close();
+
+        try (JournaledConservatory restored = JournaledConservatory.open(directory)) {
+            assertSameState(original, restored);
+            assertEquals(1, restored.getAviaries().size());
+            restored.assignBirdToAviary(eagle);
+            assertEquals("Birds of Prey Wing - Section 2", restored.getAviaryOf(eagle).getLocation());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedConservatoryRejectsChanges() throws IOException {
+        JournaledConservatory conservatory = JournaledConservatory.open(directory);
+        conservatory.close();
+        conservatory.rescueBird(hawk);
+    }
+
+    @Test
+    public void testFailedLogWriteStopsChanges() throws IOException {
+        JournaledConservatory conservatory = JournaledConservatory.open(directory);
+        populate(conservatory);
+        conservatory.sync();
+        // Without its directory the next snapshot cannot start a new log
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+        try {
+            conservatory.snapshot();
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            // The conservatory is now unusable
+        }
+
+        int rescued = conservatory.getRescuedBirds().size();
+        try {
+            conservatory.rescueBird(eagle);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals(rescued, conservatory.getRescuedBirds().size());
+            assertFalse(conservatory.isRescued(eagle));
+        }
+        conservatory.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSnapshotInterval() throws IOException {
+        try (JournaledConservatory conservatory = JournaledConservatory.open(directory)) {
+            conservatory.setSnapshotInterval(0);
+        }
+    }
+
+    private List<Path> logFiles() throws IOException {
+        List<Path> logs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".log")).forEach(logs::add);
+        }
+        return logs;
+    }
+}
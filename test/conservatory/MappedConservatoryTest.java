@@ -0,0 +1,209 @@
+package conservatory;
+
+import birds.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit tests for the MappedConservatory class.
+ * Tests cover answering lookups and signs from a mapped snapshot exactly as
+ * the original conservatory did.
+ */
+public class MappedConservatoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Conservatory conservatory;
+    private Path file;
+    private Bird hawk;
+    private Bird duck;
+    private Bird parrot;
+    private Bird puffin;
+
+    @Before
+    public void setUp() throws IOException {
+        conservatory = new Conservatory();
+        file = folder.getRoot().toPath().resolve("conservatory.snap");
+        hawk = new BirdOfPrey(BirdType.HAWK, "Sharp hooked beak", false, 2,
+                Arrays.asList(Food.SMALL_MAMMALS, Food.OTHER_BIRDS));
+        duck = new Waterfowl(BirdType.DUCK, "Waterproof feathers", false, 2,
+                Arrays.asList(Food.VEGETATION, Food.AQUATIC_INVERTEBRATES), "Lake Michigan");
+        parrot = new Parrot(BirdType.GRAY_PARROT, "Intelligent", false, 2,
+                Arrays.asList(Food.SEEDS, Food.NUTS, Food.FRUIT), 50, "Hello!");
+        puffin = new Shorebird(BirdType.HORNED_PUFFIN, "Colorful beak", false, 2,
+                Arrays.asList(Food.FISH, Food.AQUATIC_INVERTEBRATES), "Pacific Ocean");
+    }
+
+    // ==========================================================================
+    // Lookup Tests
+    // ==========================================================================
+
+    @Test
+    public void testLookupMatchesOriginal() throws IOException {
+        conservatory.assignBirdToAviary(hawk);
+        conservatory.assignBirdToAviary(duck);
+        conservatory.assignBirdToAviary(parrot);
+        conservatory.rescueBird(puffin);
+        MappedConservatory.write(conservatory, file);
+
+        MappedConservatory mapped = MappedConservatory.open(file);
+        assertEquals(4, mapped.getBirdCount());
+        assertEquals(3, mapped.getAviaryCount());
+        for (Bird bird : Arrays.asList(hawk, duck, parrot, puffin)) {
+            BirdId id = conservatory.getBirdId(bird);
+            assertEquals(conservatory.lookupBird(bird), mapped.lookupBird(id));
+            assertEquals(bird, mapped.getBird(id));
+            assertEquals(conservatory.isRescued(bird), mapped.isRescued(id));
+        }
+    }
+
+    @Test
+    public void testLookupUnknownBird() throws IOException {
+        MappedConservatory.write(conservatory, file);
+        MappedConservatory mapped = MappedConservatory.open(file);
+
+        assertEquals("Bird #7 is not found in this conservatory", mapped.lookupBird(new BirdId(7)));
+        assertNull(mapped.getBird(new BirdId(7)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLookupNullId() throws IOException {
+        MappedConservatory.write(conservatory, file);
+        MappedConservatory.open(file).lookupBird(null);
+    }
+
+    // ==========================================================================
+    // Sign Tests
+    // ==========================================================================
+
+    @Test
+    public void testSignsMatchOriginal() throws IOException {
+        conservatory.assignAll(Arrays.asList(hawk, duck, parrot, puffin));
+        Aviary emptied = conservatory.getAviaryOf(hawk);
+        emptied.removeBird(hawk);
+        MappedConservatory.write(conservatory, file);
+
+        MappedConservatory mapped = MappedConservatory.open(file);
+        for (Aviary aviary : conservatory.getAviaries()) {
+            assertEquals(aviary.getSign(), mapped.getAviarySign(aviary.getId()));
+        }
+        assertEquals(conservatory.lookupBird(hawk), mapped.lookupBird(conservatory.getBirdId(hawk)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSignUnknownAviary() throws IOException {
+        MappedConservatory.write(conservatory, file);
+        MappedConservatory.open(file).getAviarySign(1);
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenRejectsOtherFiles() throws IOException {
+        Files.write(file, new byte[64]);
+        MappedConservatory.open(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenRejectsTruncatedFile() throws IOException {
+        conservatory.assignBirdToAviary(hawk);
+        MappedConservatory.write(conservatory, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, 60));
+        MappedConservatory.open(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenRejectsTableInsideHeader() throws IOException {
+        MappedConservatory.write(conservatory, file);
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(24, 0);
+        Files.write(file, bytes);
+        MappedConservatory.open(file);
+    }
+
+    @Test
+    public void testGarbledRecordsFailAsCorrupt() throws IOException {
+        conservatory.assignBirdToAviary(hawk);
+        MappedConservatory.write(conservatory, file);
+        BirdId id = conservatory.getBirdId(hawk);
+        byte[] original = Files.readAllBytes(file);
+
+        // The bird's type byte
+        byte[] bytes = original.clone();
+        bytes[48 + 20] = (byte) 0xF0;
+        Files.write(file, bytes);
+        assertCorrupt(() -> MappedConservatory.open(file).lookupBird(id));
+
+        // The bird's data offset
+        bytes = original.clone();
+        ByteBuffer.wrap(bytes).putInt(48 + 12, -5);
+        Files.write(file, bytes);
+        assertCorrupt(() -> MappedConservatory.open(file).getBird(id));
+
+        // The aviary's location length
+        bytes = original.clone();
+        ByteBuffer.wrap(bytes).putInt(72 + 12, -1);
+        Files.write(file, bytes);
+        assertCorrupt(() -> MappedConservatory.open(file).lookupBird(id));
+
+        // The aviary's first resident
+        bytes = original.clone();
+        ByteBuffer.wrap(bytes).putInt(72 + 16, -3);
+        Files.write(file, bytes);
+        assertCorrupt(() -> MappedConservatory.open(file).getAviarySign(1));
+
+        // The aviary's first resident's id
+        bytes = original.clone();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.putLong(buffer.getInt(32), 0);
+        Files.write(file, bytes);
+        assertCorrupt(() -> MappedConservatory.open(file).getAviarySign(1));
+    }
+
+    private interface SnapshotRead {
+        void run() throws IOException;
+    }
+
+    private static void assertCorrupt(SnapshotRead read) throws IOException {
+        try {
+            read.run();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // The snapshot was recognized as corrupt
+        }
+    }
+
+    // ==========================================================================
+    // Large-Scale Tests
+    // ==========================================================================
+
+    @Test
+    public void testLargeSnapshot() throws IOException {
+        Conservatory large = new Conservatory(20_000, Aviary.DEFAULT_CAPACITY);
+        List<Bird> birds = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            birds.add(new Pigeon(BirdType.PIGEON, "Pigeon " + i, false, 2,
+                    Arrays.asList(Food.SEEDS, Food.BERRIES)));
+        }
+        large.assignAll(birds);
+        MappedConservatory.write(large, file);
+
+        MappedConservatory mapped = MappedConservatory.open(file);
+        assertEquals(20_000, mapped.getAviaryCount());
+        Bird last = birds.get(birds.size() - 1);
+        assertEquals(large.lookupBird(last), mapped.lookupBird(large.getBirdId(last)));
+        assertEquals(large.getAviarySign(12_345), mapped.getAviarySign(12_345));
+    }
+}